@@ -0,0 +1,202 @@
+package core.board;
+
+import core.pieces.piece.PieceType;
+import core.utils.Utils;
+
+import java.util.Arrays;
+
+import static core.board.BitBoardUtils.EMPTY;
+import static core.board.BitBoardUtils.firstSquare;
+import static core.board.BitBoardUtils.squareMask;
+
+/**
+ * Questa classe contiene le celle attaccate da ogni giocatore e il numero di pedine che attaccano ogni cella.
+ * Viene aggiornata dalla {@link BitBoard} a ogni mossa eseguita o annullata ricalcolando solamente gli attacchi
+ * che possono essere cambiati: quelli delle pedine sulle celle modificate dalla mossa e quelli delle pedine a lungo raggio
+ * (alfiere, torre e regina) il cui raggio passa per una di quelle celle. Le altre pedine restano ferme e i loro attacchi non cambiano.
+ * Un attacco comprende anche le celle occupate dalle proprie pedine (pedine difese); il pedone attacca solamente in diagonale.
+ */
+public final class AttackMap {
+
+    private static final byte NO_OWNER = -1;
+
+    private final long[] pieceAttacks;
+    private final byte[] owners;
+    private final byte[][] attackerCounts;
+    private final long[] attacked;
+    private long sliders;
+
+    /**
+     * Crea la mappa degli attacchi calcolandola da zero
+     * @param board scacchiera a bit di riferimento
+     */
+    AttackMap(final BitBoard board) {
+        this.pieceAttacks = new long[VirtualBoardUtils.NUM_TILES];
+        this.owners = new byte[VirtualBoardUtils.NUM_TILES];
+        this.attackerCounts = new byte[Utils.values().length][VirtualBoardUtils.NUM_TILES];
+        this.attacked = new long[Utils.values().length];
+        this.sliders = EMPTY;
+
+        Arrays.fill(this.owners, NO_OWNER);
+        this.refresh(board, board.getOccupancy());
+    }
+
+    /**
+     * Crea una copia indipendente della mappa passata
+     * @param other mappa da copiare
+     */
+    AttackMap(final AttackMap other) {
+        this.pieceAttacks = other.pieceAttacks.clone();
+        this.owners = other.owners.clone();
+        this.attackerCounts = new byte[other.attackerCounts.length][];
+        this.attacked = other.attacked.clone();
+        this.sliders = other.sliders;
+
+        for(int i = 0; i < other.attackerCounts.length; i++)
+            this.attackerCounts[i] = other.attackerCounts[i].clone();
+    }
+
+    /**
+     * @param utils colore del giocatore
+     * @return maschera delle celle attaccate da almeno una pedina del giocatore
+     */
+    public long getAttacked(final Utils utils) {
+        return this.attacked[utils.ordinal()];
+    }
+
+    /**
+     * @param square cella di riferimento
+     * @param byUtils colore delle pedine che attaccano
+     * @return "TRUE" se la cella è attaccata da almeno una pedina del colore indicato
+     */
+    public boolean isAttacked(final int square, final Utils byUtils) {
+        return (this.attacked[byUtils.ordinal()] & squareMask(square)) != EMPTY;
+    }
+
+    /**
+     * @param square cella di riferimento
+     * @param byUtils colore delle pedine che attaccano
+     * @return numero di pedine del colore indicato che attaccano la cella
+     */
+    public int getAttackerCount(final int square, final Utils byUtils) {
+        return this.attackerCounts[byUtils.ordinal()][square];
+    }
+
+    /**
+     * @param square cella della pedina
+     * @return maschera delle celle attaccate dalla pedina posizionata alla cella indicata, EMPTY se la cella è libera
+     */
+    public long getPieceAttacks(final int square) {
+        return this.pieceAttacks[square];
+    }
+
+    /**
+     * Questo metodo aggiorna la mappa dopo che la scacchiera è stata modificata
+     * @param board scacchiera a bit già modificata
+     * @param changedSquares maschera delle celle in cui è stata tolta o messa una pedina
+     */
+    void update(final BitBoard board, final long changedSquares) {
+        long affected = changedSquares;
+        long sliders = this.sliders & ~changedSquares;
+
+        // Se una cella cambia, i raggi che la raggiungono si allungano o si accorciano: la cella era comunque già attaccata
+        while(sliders != EMPTY) {
+            final int square = firstSquare(sliders);
+
+            if((this.pieceAttacks[square] & changedSquares) != EMPTY)
+                affected |= squareMask(square);
+
+            sliders &= sliders - 1;
+        }
+
+        this.refresh(board, affected);
+    }
+
+    /**
+     * Questo metodo ricalcola gli attacchi delle celle indicate, togliendo quelli vecchi dai contatori
+     * @param board scacchiera a bit di riferimento
+     * @param squares maschera delle celle da ricalcolare
+     */
+    private void refresh(final BitBoard board, long squares) {
+        while(squares != EMPTY) {
+            final int square = firstSquare(squares);
+            final int index = board.getPieceIndex(square);
+            final long oldAttacks = this.pieceAttacks[square];
+            final int oldOwner = this.owners[square];
+
+            if(index < 0) {
+                if(oldOwner != NO_OWNER)
+                    this.count(oldOwner, oldAttacks, -1);
+
+                this.pieceAttacks[square] = EMPTY;
+                this.owners[square] = NO_OWNER;
+                this.sliders &= ~squareMask(square);
+            } else {
+                final PieceType pieceType = BitBoard.pieceTypeOf(index);
+                final Utils utils = BitBoard.pieceUtilsOf(index);
+                final long attacks = calculateAttacks(pieceType, utils, square, board.getOccupancy());
+
+                // Con lo stesso colore basta aggiornare le celle che cambiano, di solito poche celle in fondo a un raggio
+                if(oldOwner == utils.ordinal()) {
+                    this.count(oldOwner, oldAttacks & ~attacks, -1);
+                    this.count(oldOwner, attacks & ~oldAttacks, 1);
+                } else {
+                    if(oldOwner != NO_OWNER)
+                        this.count(oldOwner, oldAttacks, -1);
+
+                    this.count(utils.ordinal(), attacks, 1);
+                }
+
+                this.pieceAttacks[square] = attacks;
+                this.owners[square] = (byte) utils.ordinal();
+
+                if(pieceType == PieceType.BISHOP || pieceType == PieceType.ROOK || pieceType == PieceType.QUEEN)
+                    this.sliders |= squareMask(square);
+                else
+                    this.sliders &= ~squareMask(square);
+            }
+
+            squares &= squares - 1;
+        }
+    }
+
+    /**
+     * Questo metodo aggiunge o toglie gli attacchi di una pedina dai contatori, aggiornando le celle attaccate
+     * @param owner ordinale del colore della pedina
+     * @param attacks maschera delle celle attaccate dalla pedina
+     * @param delta +1 per aggiungere, -1 per togliere
+     */
+    private void count(final int owner, long attacks, final int delta) {
+        final byte[] counts = this.attackerCounts[owner];
+
+        while(attacks != EMPTY) {
+            final int square = firstSquare(attacks);
+            counts[square] += delta;
+
+            if(counts[square] == 0)
+                this.attacked[owner] &= ~squareMask(square);
+            else
+                this.attacked[owner] |= squareMask(square);
+
+            attacks &= attacks - 1;
+        }
+    }
+
+    /**
+     * @param pieceType tipo della pedina
+     * @param utils colore della pedina
+     * @param square cella della pedina
+     * @param occupancy maschera delle celle occupate
+     * @return maschera delle celle attaccate dalla pedina, comprese quelle occupate dalle proprie pedine
+     */
+    static long calculateAttacks(final PieceType pieceType, final Utils utils, final int square, final long occupancy) {
+        return switch (pieceType) {
+            case PAWN -> LeaperAttacks.pawnAttacks(square, utils);
+            case KNIGHT -> LeaperAttacks.knightAttacks(square);
+            case BISHOP -> SliderAttacks.bishopAttacks(square, occupancy);
+            case ROOK -> SliderAttacks.rookAttacks(square, occupancy);
+            case QUEEN -> SliderAttacks.queenAttacks(square, occupancy);
+            case KING -> LeaperAttacks.kingAttacks(square);
+        };
+    }
+}
@@ -0,0 +1,1495 @@
+package core.board;
+
+import core.move.BitMove;
+import core.pieces.*;
+import core.pieces.piece.Piece;
+import core.pieces.piece.PieceType;
+import core.pieces.piece.PieceUtils;
+import core.utils.Utils;
+
+import java.util.Arrays;
+
+import static core.board.BitBoardUtils.*;
+
+/**
+ * Questa classe serve per rappresentare la scacchiera in formato "bitboard".
+ * Ogni tipo di pedina di ogni colore è una maschera a 64 bit (12 maschere in totale), dove il bit "i"
+ * corrisponde alla cella "i" della {@link VirtualBoard} (0 = a8, 63 = h1).
+ * Il colore che deve muovere, gli arrocchi e la cella dell'enpassant sono "impacchettati" in un unico numero intero.
+ * La chiave {@link ZobristKeys} della posizione viene aggiornata a ogni mossa insieme alle maschere.
+ * Può essere convertita da e verso una {@link VirtualBoard}.
+ */
+public final class BitBoard {
+    public static final int NO_SQUARE = 64;
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+    public static final int MAX_MOVES = 256;
+
+    private static final int NUM_PIECE_TYPES = 6;
+    static final int NUM_PIECES = 12;
+    private static final byte EMPTY_SQUARE = -1;
+
+    // Composizione dello stato: bit 0 colore che muove, bit 1-4 arrocchi disponibili,
+    // bit 5-6 arrocco già eseguito (bianco/nero), bit 7-13 cella dell'enpassant
+    private static final int SIDE_MASK = 0x1;
+    private static final int CASTLING_SHIFT = 1;
+    private static final int CASTLING_MASK = 0xF;
+    private static final int CASTLED_SHIFT = 5;
+    private static final int EN_PASSANT_SHIFT = 7;
+    private static final int EN_PASSANT_MASK = 0x7F;
+    private static final int STATE_MASK = 0x3FFF;
+
+    // Composizione di un elemento dello stack di annullamento: bit 0-13 stato precedente, bit 14-17 indice della pedina catturata + 1,
+    // bit 18-31 semimosse precedenti dall'ultima cattura o mossa di pedone
+    private static final int CAPTURED_SHIFT = 14;
+    private static final int CAPTURED_MASK = 0xF;
+    private static final int CLOCK_SHIFT = 18;
+    private static final int MAX_CLOCK = 0x3FFF;
+    private static final int FIFTY_MOVES_CLOCK = 100;
+    private static final int INITIAL_STACK_SIZE = 64;
+    private static final int EXCHANGE_DEPTH = 33;
+
+    private static final PieceType[] PROMOTION_TYPES = { PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT };
+    private static final int[] CASTLING_UPDATE = initCastlingUpdate();
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+    private static final Utils[] ALL_UTILS = Utils.values();
+
+    private final long[] pieceBoards;
+    private final long[] utilsBoards;
+    private final byte[] squares;
+    private final int[] scratchMoves;
+    private final int[] exchangeGains;
+    private long occupiedBoard;
+    private int state;
+    private long zobristKey;
+    private int[] moveStack;
+    private int[] undoStack;
+    private long[] keyStack;
+    private long[] historyKeys;
+    private int halfMoveClock;
+    private int ply;
+    private AttackMap attackMap;
+    private long changedSquares;
+
+    /**
+     * Crea una scacchiera vuota, con il bianco che deve muovere e senza arrocchi disponibili
+     */
+    public BitBoard() {
+        this.pieceBoards = new long[NUM_PIECES];
+        this.utilsBoards = new long[ALL_UTILS.length];
+        this.squares = new byte[VirtualBoardUtils.NUM_TILES];
+        this.scratchMoves = new int[MAX_MOVES];
+        this.exchangeGains = new int[EXCHANGE_DEPTH];
+        this.occupiedBoard = EMPTY;
+        this.state = NO_SQUARE << EN_PASSANT_SHIFT;
+        this.zobristKey = 0L;
+        this.moveStack = new int[INITIAL_STACK_SIZE];
+        this.undoStack = new int[INITIAL_STACK_SIZE];
+        this.keyStack = new long[INITIAL_STACK_SIZE];
+        this.historyKeys = new long[0];
+        this.halfMoveClock = 0;
+        this.ply = 0;
+        this.attackMap = null;
+        this.changedSquares = EMPTY;
+
+        Arrays.fill(this.squares, EMPTY_SQUARE);
+    }
+
+    /**
+     * Crea una copia indipendente della scacchiera passata
+     * @param other scacchiera da copiare
+     */
+    public BitBoard(final BitBoard other) {
+        this.pieceBoards = other.pieceBoards.clone();
+        this.utilsBoards = other.utilsBoards.clone();
+        this.squares = other.squares.clone();
+        this.scratchMoves = new int[MAX_MOVES];
+        this.exchangeGains = new int[EXCHANGE_DEPTH];
+        this.occupiedBoard = other.occupiedBoard;
+        this.state = other.state;
+        this.zobristKey = other.zobristKey;
+        this.moveStack = other.moveStack.clone();
+        this.undoStack = other.undoStack.clone();
+        this.keyStack = other.keyStack.clone();
+        this.historyKeys = other.historyKeys;
+        this.halfMoveClock = other.halfMoveClock;
+        this.ply = other.ply;
+        this.attackMap = other.attackMap != null ? new AttackMap(other.attackMap) : null;
+        this.changedSquares = EMPTY;
+    }
+
+    /**
+     * Questo metodo serve per convertire una {@link VirtualBoard} nella sua rappresentazione a bit.
+     * Gli arrocchi sono disponibili quando il RE e la torre sono alla loro prima mossa e il RE ha ancora il diritto.
+     * Le chiavi delle posizioni precedenti dall'ultima cattura o mossa di pedone vengono riprese dalla partita,
+     * cosi la ripetizione viene riconosciuta anche con le posizioni giocate prima della ricerca.
+     * @param board scacchiera virtuale di riferimento
+     * @return scacchiera a bit con le stesse pedine e lo stesso stato
+     */
+    public static BitBoard fromVirtualBoard(final VirtualBoard board) {
+        final BitBoard bitBoard = new BitBoard();
+
+        for(final Piece piece : board.getAllPieces()) {
+            bitBoard.putPiece(pieceIndex(piece.getPieceType(), piece.getPieceUtils()), piece.getPiecePosition());
+
+            if(piece.getPieceType() == PieceType.KING && piece.isCastled())
+                bitBoard.state |= castledFlag(piece.getPieceUtils());
+        }
+
+        bitBoard.state |= calculateCastlingRights(board.getConfiguration()) << CASTLING_SHIFT;
+
+        if(board.getCurrentPlayer() != null && board.getCurrentPlayer().getUtils().isBlack())
+            bitBoard.state |= SIDE_MASK;
+
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+
+        if(enPassantPawn != null)
+            bitBoard.setEnPassantSquare(enPassantPawn.getPiecePosition() + enPassantPawn.getPieceUtils().getOppositeDirection() * VirtualBoardUtils.NUM_TILES_ROW);
+
+        bitBoard.zobristKey ^= bitBoard.calculateStateKey();
+        bitBoard.halfMoveClock = Math.min(board.getHalfMoveClock(), MAX_CLOCK);
+        bitBoard.historyKeys = new long[bitBoard.halfMoveClock];
+
+        VirtualBoard previousBoard = board;
+
+        for(int i = bitBoard.historyKeys.length - 1; i >= 0; i--) {
+            previousBoard = previousBoard.getTransitionMove().getBoard();
+            bitBoard.historyKeys[i] = previousBoard.getZobristKey();
+        }
+
+        return bitBoard;
+    }
+
+    /**
+     * Questo metodo crea la scacchiera a partire da una posizione in notazione FEN.
+     * I contatori delle mosse (ultimi due campi) sono facoltativi: viene usato solamente quello delle semimosse per la regola delle 50 mosse.
+     * @param fen posizione in notazione FEN. ex: rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1
+     * @return scacchiera a bit con le pedine e lo stato della posizione
+     */
+    public static BitBoard fromFen(final String fen) {
+        final String[] fields = fen.trim().split("\\s+");
+
+        if(fields.length < 4)
+            throw new IllegalArgumentException("FEN non valida: " + fen);
+
+        final BitBoard bitBoard = new BitBoard();
+        int square = 0;
+
+        for(final char symbol : fields[0].toCharArray()) {
+            if(symbol == '/')
+                continue;
+
+            if(Character.isDigit(symbol)) {
+                square += symbol - '0';
+                continue;
+            }
+
+            final PieceType pieceType = switch (Character.toUpperCase(symbol)) {
+                case 'P' -> PieceType.PAWN;
+                case 'N' -> PieceType.KNIGHT;
+                case 'B' -> PieceType.BISHOP;
+                case 'R' -> PieceType.ROOK;
+                case 'Q' -> PieceType.QUEEN;
+                case 'K' -> PieceType.KING;
+                default -> null;
+            };
+
+            if(pieceType == null || square >= VirtualBoardUtils.NUM_TILES)
+                throw new IllegalArgumentException("FEN non valida: " + fen);
+
+            bitBoard.putPiece(pieceIndex(pieceType, Character.isUpperCase(symbol) ? Utils.WHITE : Utils.BLACK), square++);
+        }
+
+        if(square != VirtualBoardUtils.NUM_TILES)
+            throw new IllegalArgumentException("FEN non valida: " + fen);
+
+        if(fields[1].equals("b"))
+            bitBoard.state |= SIDE_MASK;
+
+        int castlingRights = 0;
+
+        for(final char symbol : fields[2].toCharArray()) {
+            castlingRights |= switch (symbol) {
+                case 'K' -> WHITE_KING_SIDE;
+                case 'Q' -> WHITE_QUEEN_SIDE;
+                case 'k' -> BLACK_KING_SIDE;
+                case 'q' -> BLACK_QUEEN_SIDE;
+                default -> 0;
+            };
+        }
+
+        bitBoard.state |= castlingRights << CASTLING_SHIFT;
+
+        if(!fields[3].equals("-"))
+            bitBoard.setEnPassantSquare(VirtualBoardUtils.INSTANCE.getCoordinateAtPosition(fields[3]));
+
+        if(fields.length > 4) {
+            try {
+                bitBoard.halfMoveClock = Integer.parseInt(fields[4]);
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException("FEN non valida: " + fen);
+            }
+
+            if(bitBoard.halfMoveClock < 0 || bitBoard.halfMoveClock > MAX_CLOCK)
+                throw new IllegalArgumentException("FEN non valida: " + fen);
+        }
+
+        bitBoard.zobristKey ^= bitBoard.calculateStateKey();
+
+        return bitBoard;
+    }
+
+    /**
+     * Questo metodo serve per convertire la scacchiera a bit in una {@link VirtualBoard}, cosi da poterla usare nella GUI
+     * @return scacchiera virtuale con le pedine posizionate e lo stesso colore che deve muovere
+     */
+    public VirtualBoard toVirtualBoard() {
+        final BoardConfigurator configurator = new BoardConfigurator();
+
+        for(int square = 0; square < VirtualBoardUtils.NUM_TILES; square++) {
+            if(this.squares[square] != EMPTY_SQUARE)
+                configurator.setPiece(this.createPiece(square));
+        }
+
+        final int enPassantSquare = this.getEnPassantSquare();
+
+        if(enPassantSquare != NO_SQUARE) {
+            final int pawnSquare = enPassantSquare + this.getMoveMaker().getOpponentUtils().getDirection() * VirtualBoardUtils.NUM_TILES_ROW;
+            configurator.setEnPassant((Pawn) configurator.getPiece(pawnSquare));
+        }
+
+        configurator.setMoveMaker(this.getMoveMaker());
+
+        return configurator.build();
+    }
+
+    /**
+     * @param pieceType tipo di pedina
+     * @param utils colore della pedina
+     * @return indice della maschera della pedina (da 0 a 11)
+     */
+    public static int pieceIndex(final PieceType pieceType, final Utils utils) {
+        return utils.ordinal() * NUM_PIECE_TYPES + pieceType.ordinal();
+    }
+
+    /**
+     * @param index indice della maschera della pedina
+     * @return tipo di pedina corrispondente all'indice
+     */
+    public static PieceType pieceTypeOf(final int index) {
+        return PIECE_TYPES[index % NUM_PIECE_TYPES];
+    }
+
+    /**
+     * @param index indice della maschera della pedina
+     * @return colore della pedina corrispondente all'indice
+     */
+    public static Utils pieceUtilsOf(final int index) {
+        return ALL_UTILS[index / NUM_PIECE_TYPES];
+    }
+
+    /**
+     * @param square cella di riferimento
+     * @return indice della pedina sulla cella oppure -1 se la cella è vuota
+     */
+    public int getPieceIndex(final int square) {
+        return this.squares[square];
+    }
+
+    /**
+     * @param square cella di riferimento
+     * @return tipo della pedina sulla cella oppure null se la cella è vuota
+     */
+    public PieceType getPieceType(final int square) {
+        return this.squares[square] == EMPTY_SQUARE ? null : pieceTypeOf(this.squares[square]);
+    }
+
+    /**
+     * @param square cella di riferimento
+     * @return colore della pedina sulla cella oppure null se la cella è vuota
+     */
+    public Utils getPieceUtils(final int square) {
+        return this.squares[square] == EMPTY_SQUARE ? null : pieceUtilsOf(this.squares[square]);
+    }
+
+    /**
+     * @param pieceType tipo di pedina
+     * @param utils colore della pedina
+     * @return maschera delle pedine di quel tipo e colore
+     */
+    public long getPieces(final PieceType pieceType, final Utils utils) {
+        return this.pieceBoards[pieceIndex(pieceType, utils)];
+    }
+
+    /**
+     * @param utils colore di riferimento
+     * @return maschera di tutte le pedine del colore
+     */
+    public long getOccupancy(final Utils utils) {
+        return this.utilsBoards[utils.ordinal()];
+    }
+
+    /**
+     * @return maschera di tutte le celle occupate
+     */
+    public long getOccupancy() {
+        return this.occupiedBoard;
+    }
+
+    /**
+     * @return chiave {@link ZobristKeys} della posizione, aggiornata a ogni mossa
+     */
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    /**
+     * @return il colore che deve effettuare la prossima mossa
+     */
+    public Utils getMoveMaker() {
+        return ALL_UTILS[this.state & SIDE_MASK];
+    }
+
+    /**
+     * @return arrocchi ancora disponibili, come combinazione delle costanti WHITE_KING_SIDE, WHITE_QUEEN_SIDE,...
+     */
+    public int getCastlingRights() {
+        return (this.state >>> CASTLING_SHIFT) & CASTLING_MASK;
+    }
+
+    /**
+     * @param castlingRight arrocco da verificare. ex: WHITE_KING_SIDE
+     * @return "TRUE" se l'arrocco è ancora disponibile
+     */
+    public boolean hasCastlingRight(final int castlingRight) {
+        return (this.getCastlingRights() & castlingRight) != 0;
+    }
+
+    /**
+     * @param utils colore di riferimento
+     * @return "TRUE" se il giocatore ha già eseguito l'arrocco
+     */
+    public boolean isCastled(final Utils utils) {
+        return (this.state & castledFlag(utils)) != 0;
+    }
+
+    /**
+     * @return cella sulla quale è possibile catturare in enpassant oppure NO_SQUARE
+     */
+    public int getEnPassantSquare() {
+        return (this.state >>> EN_PASSANT_SHIFT) & EN_PASSANT_MASK;
+    }
+
+    /**
+     * @param utils colore di riferimento
+     * @return cella del RE oppure NO_SQUARE se il RE non è sulla scacchiera
+     */
+    public int getKingSquare(final Utils utils) {
+        final long king = this.pieceBoards[pieceIndex(PieceType.KING, utils)];
+        return king == EMPTY ? NO_SQUARE : firstSquare(king);
+    }
+
+    /**
+     * Questo metodo attiva la mappa degli attacchi, che da questo momento viene aggiornata a ogni mossa eseguita o annullata.
+     * Conviene quando sulla stessa scacchiera si eseguono molte mosse e si valutano molte posizioni, come nella ricerca.
+     * @return la mappa degli attacchi della scacchiera
+     */
+    public AttackMap enableAttackMap() {
+        if(this.attackMap == null) {
+            this.attackMap = new AttackMap(this);
+            this.changedSquares = EMPTY;
+        }
+
+        return this.attackMap;
+    }
+
+    /**
+     * @return la mappa degli attacchi oppure null se non è stata attivata con {@link #enableAttackMap()}
+     */
+    public AttackMap getAttackMap() {
+        return this.attackMap;
+    }
+
+    /**
+     * Questo metodo serve a capire se una cella è attaccata da almeno una pedina del colore indicato
+     * @param square cella di riferimento
+     * @param byUtils colore delle pedine che attaccano
+     * @return "TRUE" se la cella è attaccata
+     */
+    public boolean isSquareAttacked(final int square, final Utils byUtils) {
+        if(this.attackMap != null)
+            return this.attackMap.isAttacked(square, byUtils);
+
+        return this.calculateAttackers(square, byUtils, this.occupiedBoard, ~EMPTY) != EMPTY;
+    }
+
+    /**
+     * @param utils colore del RE
+     * @return "TRUE" se il RE del colore indicato è sotto scacco
+     */
+    public boolean isInCheck(final Utils utils) {
+        final int kingSquare = this.getKingSquare(utils);
+        return kingSquare != NO_SQUARE && this.isSquareAttacked(kingSquare, utils.getOpponentUtils());
+    }
+
+    /**
+     * @return "TRUE" se il giocatore che deve muovere è sotto scacco matto
+     */
+    public boolean isInCheckMate() {
+        return this.isInCheck(this.getMoveMaker()) && !this.hasLegalMoves();
+    }
+
+    /**
+     * @return "TRUE" se il giocatore che deve muovere è in stallo
+     */
+    public boolean isInStaleMate() {
+        return !this.isInCheck(this.getMoveMaker()) && !this.hasLegalMoves();
+    }
+
+    /**
+     * @return numero di semimosse dall'ultima cattura o mossa di pedone, per la regola delle 50 mosse
+     */
+    public int getHalfMoveClock() {
+        return this.halfMoveClock;
+    }
+
+    /**
+     * Questo metodo controlla se la posizione si è già presentata, nella ricerca o nella partita.
+     * Basta confrontare le chiavi con lo stesso colore che muove, tornando indietro solamente fino all'ultima cattura
+     * o mossa di pedone: prima di quelle la posizione non può essere uguale. Nella ricerca una sola ripetizione
+     * basta per considerare la posizione patta, perché chi la ripete può ripeterla ancora.
+     * @return "TRUE" se la posizione attuale si è già presentata almeno una volta
+     */
+    public boolean isRepetition() {
+        final int limit = Math.min(this.halfMoveClock, this.ply + this.historyKeys.length);
+
+        for(int back = 4; back <= limit; back += 2) {
+            final int index = this.ply - back;
+            final long key = index >= 0 ? this.keyStack[index] : this.historyKeys[this.historyKeys.length + index];
+
+            if(key == this.zobristKey)
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Lo scacco matto ha la precedenza sulla regola, quindi va controllato prima se la posizione è un matto
+     * @return "TRUE" se sono passate 50 mosse per giocatore senza catture e senza mosse di pedone
+     */
+    public boolean isFiftyMoveDraw() {
+        return this.halfMoveClock >= FIFTY_MOVES_CLOCK;
+    }
+
+    /**
+     * Questo metodo controlla se nessun giocatore può dare scacco matto: sono rimasti solamente i RE,
+     * un solo pezzo leggero oppure solamente alfieri sulle celle dello stesso colore
+     * @return "TRUE" se il materiale non basta per dare scacco matto
+     */
+    public boolean isInsufficientMaterial() {
+        long heavy = EMPTY;
+        long knights = EMPTY;
+        long bishops = EMPTY;
+
+        for(final Utils utils : ALL_UTILS) {
+            heavy |= this.getPieces(PieceType.PAWN, utils) | this.getPieces(PieceType.ROOK, utils) | this.getPieces(PieceType.QUEEN, utils);
+            knights |= this.getPieces(PieceType.KNIGHT, utils);
+            bishops |= this.getPieces(PieceType.BISHOP, utils);
+        }
+
+        if(heavy != EMPTY)
+            return false;
+
+        if(Long.bitCount(knights | bishops) <= 1)
+            return true;
+
+        return knights == EMPTY && ((bishops & LIGHT_SQUARES) == EMPTY || (bishops & ~LIGHT_SQUARES) == EMPTY);
+    }
+
+    /**
+     * @return "TRUE" se la posizione è patta per ripetizione, per la regola delle 50 mosse (se non è matto) o per materiale insufficiente
+     */
+    public boolean isDraw() {
+        return this.isRepetition() || this.isInsufficientMaterial() || this.isFiftyMoveDraw() && !this.isInCheckMate();
+    }
+
+    /**
+     * Questo metodo calcola le celle raggiungibili dalla pedina posizionata alla cella indicata,
+     * senza verificare se la mossa lascia il RE sotto scacco (come {@link Piece#calculateMoves(VirtualBoard)})
+     * Gli arrocchi non sono compresi.
+     * @param square cella della pedina
+     * @return maschera delle celle di destinazione
+     */
+    public long calculateTargets(final int square) {
+        final int index = this.squares[square];
+
+        if(index == EMPTY_SQUARE)
+            return EMPTY;
+
+        final Utils utils = pieceUtilsOf(index);
+        final long own = this.utilsBoards[utils.ordinal()];
+
+        return switch (pieceTypeOf(index)) {
+            case PAWN -> this.calculatePawnTargets(square, utils);
+            case KNIGHT -> LeaperAttacks.knightAttacks(square) & ~own;
+            case BISHOP -> SliderAttacks.bishopAttacks(square, this.occupiedBoard) & ~own;
+            case ROOK -> SliderAttacks.rookAttacks(square, this.occupiedBoard) & ~own;
+            case QUEEN -> SliderAttacks.queenAttacks(square, this.occupiedBoard) & ~own;
+            case KING -> LeaperAttacks.kingAttacks(square) & ~own;
+        };
+    }
+
+    /**
+     * Questo metodo calcola le celle attaccate dalla pedina posizionata alla cella indicata, comprese quelle occupate
+     * dalle proprie pedine. Il pedone attacca solamente in diagonale. Se la mappa degli attacchi è attiva non viene ricalcolato nulla.
+     * @param square cella della pedina
+     * @return maschera delle celle attaccate oppure EMPTY se la cella è vuota
+     */
+    public long calculateAttacks(final int square) {
+        if(this.attackMap != null)
+            return this.attackMap.getPieceAttacks(square);
+
+        final int index = this.squares[square];
+
+        return index == EMPTY_SQUARE ? EMPTY : AttackMap.calculateAttacks(pieceTypeOf(index), pieceUtilsOf(index), square, this.occupiedBoard);
+    }
+
+    /**
+     * Questo metodo conta le mosse praticabili dal giocatore, con le stesse regole di {@link core.player.Player#getUsableMoves()}:
+     * ogni promozione vale 4 mosse e gli arrocchi sono compresi.
+     * @param utils colore del giocatore
+     * @return numero di mosse praticabili
+     */
+    public int countUsableMoves(final Utils utils) {
+        final long promotionRank = utils.isWhite() ? RANK_8 : RANK_1;
+        final long pawns = this.pieceBoards[pieceIndex(PieceType.PAWN, utils)];
+        final long own = this.utilsBoards[utils.ordinal()];
+        long pieces = own;
+        int usableMoves = 0;
+
+        while(pieces != EMPTY) {
+            final int square = firstSquare(pieces);
+
+            if((pawns & squareMask(square)) != EMPTY) {
+                final long targets = this.calculatePawnTargets(square, utils);
+                usableMoves += count(targets & ~promotionRank) + 4 * count(targets & promotionRank);
+            } else {
+                usableMoves += count(this.calculateAttacks(square) & ~own);
+            }
+
+            pieces &= pieces - 1;
+        }
+
+        if(this.canCastleKingSide(utils))
+            usableMoves++;
+        if(this.canCastleQueenSide(utils))
+            usableMoves++;
+
+        return usableMoves;
+    }
+
+    /**
+     * Questo metodo verifica l'arrocco verso il RE: diritto disponibile, celle libere e nessuna cella attraversata sotto attacco
+     * @param utils colore del giocatore
+     * @return "TRUE" se l'arrocco è eseguibile
+     */
+    public boolean canCastleKingSide(final Utils utils) {
+        final int kingSquare = utils.isWhite() ? 60 : 4;
+        return this.hasCastlingRight(utils.isWhite() ? WHITE_KING_SIDE : BLACK_KING_SIDE) &&
+                this.isCastlePathFree(kingSquare, kingSquare + 1, kingSquare + 2, kingSquare + 2, utils);
+    }
+
+    /**
+     * Questo metodo verifica l'arrocco verso la regina: diritto disponibile, celle libere e nessuna cella attraversata sotto attacco
+     * @param utils colore del giocatore
+     * @return "TRUE" se l'arrocco è eseguibile
+     */
+    public boolean canCastleQueenSide(final Utils utils) {
+        final int kingSquare = utils.isWhite() ? 60 : 4;
+        return this.hasCastlingRight(utils.isWhite() ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE) &&
+                this.isCastlePathFree(kingSquare, kingSquare - 1, kingSquare - 2, kingSquare - 3, utils);
+    }
+
+    /**
+     * @return "TRUE" se il giocatore che deve muovere ha almeno una mossa legale
+     */
+    public boolean hasLegalMoves() {
+        return this.generateLegalMoves(this.scratchMoves) != 0;
+    }
+
+    /**
+     * Questo metodo genera solamente le mosse legali del giocatore che deve muovere, cioè quelle che non lasciano il RE sotto scacco.
+     * Le pedine che danno scacco e le pedine inchiodate sono calcolate una sola volta, senza dover eseguire ogni mossa per provarla.
+     * Le mosse sono le stesse di {@link core.player.Player#getUsableMoves()} che vanno a buon fine:
+     * ogni promozione genera 4 mosse e gli arrocchi sono compresi.
+     * Se non ci sono mosse il giocatore è in scacco matto oppure in stallo.
+     * @param moves array nel quale scrivere le mosse codificate con {@link BitMove}, lungo almeno MAX_MOVES
+     * @return numero di mosse generate
+     */
+    public int generateLegalMoves(final int[] moves) {
+        return this.generateLegalMoves(moves, ~EMPTY, ~EMPTY);
+    }
+
+    /**
+     * Questo metodo genera solamente le catture legali del giocatore che deve muovere, enpassant compreso
+     * @param moves array nel quale scrivere le mosse codificate con {@link BitMove}, lungo almeno MAX_MOVES
+     * @return numero di mosse generate
+     */
+    public int generateCaptures(final int[] moves) {
+        final long enemies = this.utilsBoards[this.getMoveMaker().getOpponentUtils().ordinal()];
+        return this.generateLegalMoves(moves, enemies, enemies);
+    }
+
+    /**
+     * Questo metodo genera solamente le mosse "tattiche" legali: le catture, enpassant compreso, e tutte le promozioni,
+     * anche quelle senza cattura. Serve alla ricerca di quiescenza, che non deve mai generare le mosse tranquille.
+     * @param moves array nel quale scrivere le mosse codificate con {@link BitMove}, lungo almeno MAX_MOVES
+     * @return numero di mosse generate
+     */
+    public int generateTacticalMoves(final int[] moves) {
+        final Utils utils = this.getMoveMaker();
+        final long enemies = this.utilsBoards[utils.getOpponentUtils().ordinal()];
+        return this.generateLegalMoves(moves, enemies, enemies | (utils.isWhite() ? RANK_8 : RANK_1));
+    }
+
+    /**
+     * Questo metodo genera solamente le mosse che parano lo scacco: le mosse del RE, la cattura della pedina che dà scacco
+     * e le pedine che si mettono in mezzo. Invece di calcolare le mosse di tutte le pedine parte dalle poche celle
+     * che risolvono lo scacco e cerca le pedine che le raggiungono.
+     * Se il giocatore che deve muovere non è sotto scacco non viene generata nessuna mossa.
+     * @param moves array nel quale scrivere le mosse codificate con {@link BitMove}, lungo almeno MAX_MOVES
+     * @return numero di mosse generate, le stesse di {@link #generateLegalMoves(int[])} quando il RE è sotto scacco
+     */
+    public int generateEvasions(final int[] moves) {
+        final Utils utils = this.getMoveMaker();
+        final Utils opponent = utils.getOpponentUtils();
+        final int kingSquare = this.getKingSquare(utils);
+
+        if(kingSquare == NO_SQUARE)
+            return 0;
+
+        final long checkers = this.calculateAttackers(kingSquare, opponent, this.occupiedBoard, ~EMPTY);
+
+        if(checkers == EMPTY)
+            return 0;
+
+        int numMoves = this.generateKingMoves(moves, 0, kingSquare, ~EMPTY);
+
+        // Con lo scacco doppio si può solamente muovere il RE
+        if(count(checkers) > 1)
+            return numMoves;
+
+        final int checkerSquare = firstSquare(checkers);
+        final long blocks = BoardGeometry.between(kingSquare, checkerSquare);
+        final long pawns = this.pieceBoards[pieceIndex(PieceType.PAWN, utils)];
+        // Una pedina inchiodata non può mai parare uno scacco: per farlo dovrebbe lasciare la linea del RE
+        final long movable = this.utilsBoards[utils.ordinal()] & ~squareMask(kingSquare) & ~this.calculatePinned(kingSquare, utils);
+        long capturers = this.calculateAttackers(checkerSquare, utils, this.occupiedBoard, movable);
+
+        while(capturers != EMPTY) {
+            final int from = firstSquare(capturers);
+            numMoves = this.addEvasion(moves, numMoves, from, checkerSquare, BitMove.CAPTURE, (pawns & squareMask(from)) != EMPTY, utils);
+            capturers &= capturers - 1;
+        }
+
+        final int enPassantSquare = this.getEnPassantSquare();
+        final int jumpedPawnSquare = enPassantSquare - utils.getDirection() * VirtualBoardUtils.NUM_TILES_ROW;
+
+        // L'enpassant cattura il pedone che dà scacco oppure si mette in mezzo, e va sempre verificato simulando la mossa
+        if(enPassantSquare != NO_SQUARE && (checkerSquare == jumpedPawnSquare || (blocks & squareMask(enPassantSquare)) != EMPTY)) {
+            long enPassantPawns = LeaperAttacks.pawnAttacks(enPassantSquare, opponent) & pawns & movable;
+
+            while(enPassantPawns != EMPTY) {
+                final int from = firstSquare(enPassantPawns);
+
+                if(this.isLegalMove(from, enPassantSquare, kingSquare, true, utils))
+                    moves[numMoves++] = BitMove.create(from, enPassantSquare, BitMove.CAPTURE | BitMove.EN_PASSANT);
+
+                enPassantPawns &= enPassantPawns - 1;
+            }
+        }
+
+        final int push = utils.getDirection() * VirtualBoardUtils.NUM_TILES_ROW;
+        final long startRank = utils.isWhite() ? RANK_2 : RANK_7;
+        long blockSquares = blocks;
+
+        while(blockSquares != EMPTY) {
+            final int to = firstSquare(blockSquares);
+            // Il pedone si mette in mezzo solamente avanzando, i suoi attacchi in diagonale non contano
+            long blockers = this.calculateAttackers(to, utils, this.occupiedBoard, movable & ~pawns);
+
+            while(blockers != EMPTY) {
+                final int from = firstSquare(blockers);
+                moves[numMoves++] = BitMove.create(from, to, 0);
+                blockers &= blockers - 1;
+            }
+
+            final int pushFrom = to - push;
+
+            if(pushFrom >= 0 && pushFrom < VirtualBoardUtils.NUM_TILES) {
+                if((pawns & movable & squareMask(pushFrom)) != EMPTY) {
+                    numMoves = this.addEvasion(moves, numMoves, pushFrom, to, 0, true, utils);
+                } else if(this.squares[pushFrom] == EMPTY_SQUARE) {
+                    final int jumpFrom = pushFrom - push;
+
+                    if(jumpFrom >= 0 && jumpFrom < VirtualBoardUtils.NUM_TILES && (pawns & movable & startRank & squareMask(jumpFrom)) != EMPTY)
+                        moves[numMoves++] = BitMove.create(jumpFrom, to, BitMove.PAWN_JUMP);
+                }
+            }
+
+            blockSquares &= blockSquares - 1;
+        }
+
+        return numMoves;
+    }
+
+    /**
+     * Questo metodo genera solamente le mosse legali che non catturano: avanzamenti, promozioni senza cattura e arrocchi
+     * @param moves array nel quale scrivere le mosse codificate con {@link BitMove}, lungo almeno MAX_MOVES
+     * @return numero di mosse generate
+     */
+    public int generateQuiets(final int[] moves) {
+        return this.generateLegalMoves(moves, ~this.occupiedBoard, ~this.occupiedBoard);
+    }
+
+    /**
+     * Questo metodo verifica che una mossa ricevuta da fuori (ad esempio una mossa "killer" di un'altra posizione)
+     * sia esattamente una delle mosse legali della posizione, con gli stessi indicatori
+     * @param move mossa codificata
+     * @return "TRUE" se la mossa può essere eseguita con {@link #makeMove(int)}
+     */
+    public boolean isValidMove(final int move) {
+        if(move == BitMove.NULL_MOVE)
+            return false;
+
+        final Utils utils = this.getMoveMaker();
+        final int from = BitMove.getFrom(move);
+        final int to = BitMove.getTo(move);
+        final int index = this.squares[from];
+
+        if(index == EMPTY_SQUARE || pieceUtilsOf(index) != utils)
+            return false;
+
+        if(BitMove.isCastlingMove(move))
+            return pieceTypeOf(index) == PieceType.KING && Math.abs(to - from) == 2 && this.isLegal(move);
+
+        final long toMask = squareMask(to);
+
+        if((this.calculateTargets(from) & toMask) == EMPTY)
+            return false;
+
+        int flags = (this.utilsBoards[utils.getOpponentUtils().ordinal()] & toMask) != EMPTY ? BitMove.CAPTURE : 0;
+        boolean isPromotion = false;
+
+        if(pieceTypeOf(index) == PieceType.PAWN) {
+            if(to == this.getEnPassantSquare())
+                flags |= BitMove.CAPTURE | BitMove.EN_PASSANT;
+            else if(Math.abs(to - from) == 2 * VirtualBoardUtils.NUM_TILES_ROW)
+                flags |= BitMove.PAWN_JUMP;
+
+            isPromotion = (toMask & (utils.isWhite() ? RANK_8 : RANK_1)) != EMPTY;
+        }
+
+        final int expected = isPromotion ?
+                BitMove.create(from, to, flags, BitMove.getPromotionType(move) == null ? PieceType.QUEEN : BitMove.getPromotionType(move)) :
+                BitMove.create(from, to, flags);
+
+        return expected == move && this.isLegal(move);
+    }
+
+    /**
+     * Questo metodo calcola lo scambio di pedine sulla cella di destinazione di una cattura (SEE, Static Exchange Evaluation).
+     * Le due parti catturano a turno con la pedina di valore più basso, compresi gli attacchi "a raggi X" dietro le pedine già usate,
+     * e ognuna può fermarsi quando continuare le farebbe perdere materiale.
+     * @param move cattura codificata del giocatore che deve muovere
+     * @return guadagno di materiale previsto (negativo se la cattura perde materiale)
+     */
+    public int staticExchange(final int move) {
+        final int from = BitMove.getFrom(move);
+        final int to = BitMove.getTo(move);
+        final int[] gain = this.exchangeGains;
+        long occupancy = this.occupiedBoard & ~squareMask(from);
+        Utils utils = this.getMoveMaker().getOpponentUtils();
+        int attackerValue = pieceTypeOf(this.squares[from]).getPieceValue();
+        int depth = 0;
+
+        if(BitMove.isEnPassant(move)) {
+            gain[0] = PieceType.PAWN.getPieceValue();
+            occupancy &= ~squareMask(to - this.getMoveMaker().getDirection() * VirtualBoardUtils.NUM_TILES_ROW);
+        } else {
+            gain[0] = this.squares[to] == EMPTY_SQUARE ? 0 : pieceTypeOf(this.squares[to]).getPieceValue();
+        }
+
+        while(true) {
+            final long attackers = this.calculateAttackers(to, utils, occupancy, occupancy);
+
+            if(attackers == EMPTY)
+                break;
+
+            final int base = utils.ordinal() * NUM_PIECE_TYPES;
+            int type = 0;
+
+            while((attackers & this.pieceBoards[base + type]) == EMPTY)
+                type++;
+
+            depth++;
+            gain[depth] = attackerValue - gain[depth - 1];
+
+            if(Math.max(-gain[depth - 1], gain[depth]) < 0)
+                break;
+
+            attackerValue = PIECE_TYPES[type].getPieceValue();
+            occupancy &= ~squareMask(firstSquare(attackers & this.pieceBoards[base + type]));
+            utils = utils.getOpponentUtils();
+        }
+
+        while(--depth > 0)
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+
+        return gain[0];
+    }
+
+    /**
+     * Questo metodo genera le mosse legali la cui destinazione è nella maschera indicata.
+     * L'enpassant è compreso quando la maschera contiene le pedine avversarie, gli arrocchi quando contiene le celle vuote.
+     * @param moves array nel quale scrivere le mosse codificate
+     * @param targetMask celle di destinazione ammesse
+     * @param pawnTargetMask celle di destinazione ammesse per i pedoni
+     * @return numero di mosse generate
+     */
+    private int generateLegalMoves(final int[] moves, final long targetMask, final long pawnTargetMask) {
+        final Utils utils = this.getMoveMaker();
+        final Utils opponent = utils.getOpponentUtils();
+        final int kingSquare = this.getKingSquare(utils);
+
+        if(kingSquare == NO_SQUARE)
+            return 0;
+
+        final long kingMask = squareMask(kingSquare);
+        final long own = this.utilsBoards[utils.ordinal()];
+        final long enemies = this.utilsBoards[opponent.ordinal()];
+        final long checkers = this.calculateAttackers(kingSquare, opponent, this.occupiedBoard, ~EMPTY);
+        int numMoves = this.generateKingMoves(moves, 0, kingSquare, targetMask);
+
+        // Con lo scacco doppio si può solamente muovere il RE
+        if(count(checkers) > 1)
+            return numMoves;
+
+        // Con lo scacco semplice bisogna catturare la pedina che dà scacco oppure mettersi in mezzo
+        final long checkMask = checkers == EMPTY ? ~EMPTY : checkers | BoardGeometry.between(kingSquare, firstSquare(checkers));
+        final long pinned = this.calculatePinned(kingSquare, utils);
+        final long pawns = this.pieceBoards[pieceIndex(PieceType.PAWN, utils)];
+        final long promotionRank = utils.isWhite() ? RANK_8 : RANK_1;
+        final int enPassantSquare = this.getEnPassantSquare();
+        final long enPassantMask = enPassantSquare == NO_SQUARE || (pawnTargetMask & enemies) == EMPTY ? EMPTY : squareMask(enPassantSquare);
+        long pieces = own & ~kingMask;
+
+        while(pieces != EMPTY) {
+            final int from = firstSquare(pieces);
+            final long fromMask = squareMask(from);
+            final boolean isPawn = (pawns & fromMask) != EMPTY;
+            long targets = this.calculateTargets(from);
+
+            // L'enpassant può scoprire il RE in orizzontale, quindi viene sempre verificato simulando la mossa
+            if(isPawn && (targets & enPassantMask) != EMPTY) {
+                if(this.isLegalMove(from, enPassantSquare, kingSquare, true, utils))
+                    moves[numMoves++] = BitMove.create(from, enPassantSquare, BitMove.CAPTURE | BitMove.EN_PASSANT);
+            }
+
+            if(isPawn && enPassantSquare != NO_SQUARE)
+                targets &= ~squareMask(enPassantSquare);
+
+            targets &= checkMask & (isPawn ? pawnTargetMask : targetMask);
+
+            // Una pedina inchiodata può muoversi solamente sulla linea tra il RE e la pedina che la inchioda
+            if((pinned & fromMask) != EMPTY)
+                targets &= BoardGeometry.line(kingSquare, from);
+
+            while(targets != EMPTY) {
+                final int to = firstSquare(targets);
+                final long toMask = squareMask(to);
+                int flags = (enemies & toMask) != EMPTY ? BitMove.CAPTURE : 0;
+
+                if(isPawn) {
+                    if(Math.abs(to - from) == 2 * VirtualBoardUtils.NUM_TILES_ROW)
+                        flags |= BitMove.PAWN_JUMP;
+
+                    if((toMask & promotionRank) != EMPTY) {
+                        for(final PieceType promotionType : PROMOTION_TYPES)
+                            moves[numMoves++] = BitMove.create(from, to, flags, promotionType);
+                    } else {
+                        moves[numMoves++] = BitMove.create(from, to, flags);
+                    }
+                } else {
+                    moves[numMoves++] = BitMove.create(from, to, flags);
+                }
+
+                targets &= targets - 1;
+            }
+
+            pieces &= pieces - 1;
+        }
+
+        if(checkers == EMPTY && (targetMask & ~this.occupiedBoard) != EMPTY) {
+            if(this.canCastleKingSide(utils))
+                moves[numMoves++] = BitMove.create(kingSquare, kingSquare + 2, BitMove.CASTLE);
+            if(this.canCastleQueenSide(utils))
+                moves[numMoves++] = BitMove.create(kingSquare, kingSquare - 2, BitMove.CASTLE);
+        }
+
+        return numMoves;
+    }
+
+    /**
+     * Questo metodo genera le mosse legali del RE. Il RE non può andare su una cella attaccata:
+     * viene tolto dall'occupazione per vedere gli attacchi "attraverso" il RE
+     * @param moves array nel quale scrivere le mosse
+     * @param numMoves numero di mosse già scritte
+     * @param kingSquare cella del RE
+     * @param targetMask celle di destinazione ammesse
+     * @return numero di mosse scritte, comprese quelle del RE
+     */
+    private int generateKingMoves(final int[] moves, int numMoves, final int kingSquare, final long targetMask) {
+        final Utils utils = this.getMoveMaker();
+        final Utils opponent = utils.getOpponentUtils();
+        final long enemies = this.utilsBoards[opponent.ordinal()];
+        final long withoutKing = this.occupiedBoard & ~squareMask(kingSquare);
+        long kingTargets = LeaperAttacks.kingAttacks(kingSquare) & ~this.utilsBoards[utils.ordinal()] & targetMask;
+
+        while(kingTargets != EMPTY) {
+            final int to = firstSquare(kingTargets);
+            final long toMask = squareMask(to);
+
+            if(this.calculateAttackers(to, opponent, withoutKing, ~toMask) == EMPTY)
+                moves[numMoves++] = BitMove.create(kingSquare, to, (enemies & toMask) != EMPTY ? BitMove.CAPTURE : 0);
+
+            kingTargets &= kingTargets - 1;
+        }
+
+        return numMoves;
+    }
+
+    /**
+     * Questo metodo aggiunge una mossa che para lo scacco: se è un pedone che arriva sull'ultima riga aggiunge le 4 promozioni
+     * @param moves array nel quale scrivere le mosse
+     * @param numMoves numero di mosse già scritte
+     * @param from cella di partenza
+     * @param to cella di destinazione
+     * @param flags indicatori della mossa
+     * @param isPawn "TRUE" se la pedina è un pedone
+     * @param utils colore del giocatore
+     * @return numero di mosse scritte
+     */
+    private int addEvasion(final int[] moves, int numMoves, final int from, final int to, final int flags, final boolean isPawn, final Utils utils) {
+        if(isPawn && (squareMask(to) & (utils.isWhite() ? RANK_8 : RANK_1)) != EMPTY) {
+            for(final PieceType promotionType : PROMOTION_TYPES)
+                moves[numMoves++] = BitMove.create(from, to, flags, promotionType);
+        } else {
+            moves[numMoves++] = BitMove.create(from, to, flags);
+        }
+
+        return numMoves;
+    }
+
+    /**
+     * Questo metodo verifica una singola mossa senza eseguirla, ad esempio una mossa della {@link VirtualBoard} convertita con {@link BitMove#fromMove}
+     * @param move mossa codificata del giocatore che deve muovere, raggiungibile dalla pedina
+     * @return "TRUE" se la mossa non lascia il RE sotto scacco
+     */
+    public boolean isLegal(final int move) {
+        final Utils utils = this.getMoveMaker();
+        final int from = BitMove.getFrom(move);
+        final int to = BitMove.getTo(move);
+
+        if(BitMove.isCastlingMove(move))
+            return to > from ? this.canCastleKingSide(utils) : this.canCastleQueenSide(utils);
+
+        final int kingSquare = this.getKingSquare(utils);
+
+        return kingSquare != NO_SQUARE &&
+                this.isLegalMove(from, to, from == kingSquare ? to : kingSquare, BitMove.isEnPassant(move), utils);
+    }
+
+    /**
+     * Questo metodo controlla se una mossa legale mette sotto scacco il RE avversario senza eseguirla.
+     * Lo scacco può essere diretto (la pedina sulla cella di destinazione attacca il RE) oppure di scoperta
+     * (la pedina libera il raggio di un alfiere, una torre o una regina); con l'arrocco dà scacco la torre.
+     * @param move mossa da controllare, deve essere legale
+     * @return "TRUE" se dopo la mossa il RE avversario è sotto scacco
+     */
+    public boolean givesCheck(final int move) {
+        final Utils utils = this.getMoveMaker();
+        final int kingSquare = this.getKingSquare(utils.getOpponentUtils());
+
+        if(kingSquare == NO_SQUARE)
+            return false;
+
+        final int from = BitMove.getFrom(move);
+        final int to = BitMove.getTo(move);
+        final long kingMask = squareMask(kingSquare);
+        final PieceType pieceType = BitMove.isPromotion(move) ? BitMove.getPromotionType(move) : pieceTypeOf(this.squares[from]);
+        long occupancy = (this.occupiedBoard & ~squareMask(from)) | squareMask(to);
+        long alive = ~squareMask(from);
+
+        if(BitMove.isEnPassant(move)) {
+            occupancy &= ~squareMask(to - utils.getDirection() * VirtualBoardUtils.NUM_TILES_ROW);
+        } else if(BitMove.isCastlingMove(move)) {
+            final boolean isKingSide = to > from;
+            final int rookFrom = isKingSide ? from + 3 : from - 4;
+            final int rookTo = isKingSide ? from + 1 : from - 1;
+            occupancy = (occupancy & ~squareMask(rookFrom)) | squareMask(rookTo);
+            alive &= ~squareMask(rookFrom);
+
+            if((SliderAttacks.rookAttacks(rookTo, occupancy) & kingMask) != EMPTY)
+                return true;
+        }
+
+        if((AttackMap.calculateAttacks(pieceType, utils, to, occupancy) & kingMask) != EMPTY)
+            return true;
+
+        // Lo scacco di scoperta è possibile solamente se la cella di partenza è allineata con il RE,
+        // oppure con l'enpassant e l'arrocco che liberano anche un'altra cella
+        if(BoardGeometry.line(kingSquare, from) == EMPTY && !BitMove.isEnPassant(move) && !BitMove.isCastlingMove(move))
+            return false;
+
+        return this.calculateAttackers(kingSquare, utils, occupancy, alive) != EMPTY;
+    }
+
+    /**
+     * Questo metodo esegue una mossa modificando solamente le celle coinvolte.
+     * Lo stato precedente viene salvato nello stack di annullamento, cosi da poterlo ripristinare con {@link #unmakeMove()}.
+     * @param move mossa legale codificata con {@link BitMove}, generata da {@link #generateLegalMoves(int[])} oppure verificata con {@link #isLegal(int)}
+     */
+    public void makeMove(final int move) {
+        final int from = BitMove.getFrom(move);
+        final int to = BitMove.getTo(move);
+        final int index = this.squares[from];
+        final Utils utils = pieceUtilsOf(index);
+        final int captured = this.squares[to];
+
+        this.pushUndo(move, this.state | ((captured + 1) << CAPTURED_SHIFT) | (this.halfMoveClock << CLOCK_SHIFT));
+        this.zobristKey ^= this.calculateStateKey();
+        this.halfMoveClock = BitMove.isAttack(move) || pieceTypeOf(index) == PieceType.PAWN ? 0 : Math.min(this.halfMoveClock + 1, MAX_CLOCK);
+
+        if(BitMove.isEnPassant(move))
+            this.removePiece(to - utils.getDirection() * VirtualBoardUtils.NUM_TILES_ROW);
+        else if(captured != EMPTY_SQUARE)
+            this.removePiece(to);
+
+        this.removePiece(from);
+        this.putPiece(BitMove.isPromotion(move) ? pieceIndex(BitMove.getPromotionType(move), utils) : index, to);
+
+        // Come per il RE della VirtualBoard, l'arrocco resta segnato solamente finché il RE non si muove di nuovo
+        if(BitMove.isCastlingMove(move)) {
+            final boolean isKingSide = to > from;
+            this.movePiece(isKingSide ? from + 3 : from - 4, isKingSide ? from + 1 : from - 1);
+            this.state |= castledFlag(utils);
+        } else if(pieceTypeOf(index) == PieceType.KING) {
+            this.state &= ~castledFlag(utils);
+        }
+
+        final int castlingRights = this.getCastlingRights() & CASTLING_UPDATE[from] & CASTLING_UPDATE[to];
+        this.state = (this.state & ~(CASTLING_MASK << CASTLING_SHIFT)) | (castlingRights << CASTLING_SHIFT);
+        this.setEnPassantSquare(BitMove.isPawnJump(move) ? (from + to) / 2 : NO_SQUARE);
+        this.state ^= SIDE_MASK;
+        this.zobristKey ^= this.calculateStateKey();
+        this.updateAttackMap();
+    }
+
+    /**
+     * Questo metodo annulla l'ultima mossa eseguita con {@link #makeMove(int)}, ripristinando le pedine e lo stato precedente
+     */
+    public void unmakeMove() {
+        this.ply--;
+
+        final int move = this.moveStack[this.ply];
+        final int undo = this.undoStack[this.ply];
+        final int from = BitMove.getFrom(move);
+        final int to = BitMove.getTo(move);
+        final int captured = ((undo >>> CAPTURED_SHIFT) & CAPTURED_MASK) - 1;
+
+        this.state = undo & STATE_MASK;
+        this.halfMoveClock = undo >>> CLOCK_SHIFT;
+
+        final Utils utils = this.getMoveMaker();
+        final int index = BitMove.isPromotion(move) ? pieceIndex(PieceType.PAWN, utils) : this.squares[to];
+
+        this.removePiece(to);
+        this.putPiece(index, from);
+
+        if(BitMove.isCastlingMove(move)) {
+            final boolean isKingSide = to > from;
+            this.movePiece(isKingSide ? from + 1 : from - 1, isKingSide ? from + 3 : from - 4);
+        }
+
+        if(BitMove.isEnPassant(move))
+            this.putPiece(pieceIndex(PieceType.PAWN, utils.getOpponentUtils()), to - utils.getDirection() * VirtualBoardUtils.NUM_TILES_ROW);
+        else if(captured != EMPTY_SQUARE)
+            this.putPiece(captured, to);
+
+        this.zobristKey = this.keyStack[this.ply];
+        this.updateAttackMap();
+    }
+
+    /**
+     * @return numero di mosse eseguite con {@link #makeMove(int)} e non ancora annullate, cioè la profondità nella ricerca
+     */
+    public int getPly() {
+        return this.ply;
+    }
+
+    /**
+     * @param n numero di mosse a ritroso (0 = ultima mossa eseguita)
+     * @return la mossa eseguita con {@link #makeMove(int)} oppure NULL_MOVE se non ci sono abbastanza mosse
+     */
+    public int getLastMove(final int n) {
+        return n < this.ply ? this.moveStack[this.ply - 1 - n] : BitMove.NULL_MOVE;
+    }
+
+    /**
+     * @return la scacchiera disegnata come testo. Le pedine bianche sono maiuscole, quelle nere minuscole
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+
+        for(int square = 0; square < VirtualBoardUtils.NUM_TILES; square++) {
+            final PieceType pieceType = this.getPieceType(square);
+
+            if(pieceType == null)
+                builder.append('-');
+            else if(this.getPieceUtils(square).isWhite())
+                builder.append(pieceType.toString());
+            else
+                builder.append(pieceType.toString().toLowerCase());
+
+            builder.append((square + 1) % VirtualBoardUtils.NUM_TILES_ROW == 0 ? "\n" : "  ");
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Questo metodo calcola tutte le pedine del colore indicato che attaccano una cella.
+     * L'occupazione e le pedine ancora "vive" sono passate come argomento per poter simulare una mossa senza eseguirla.
+     * @param square cella di riferimento
+     * @param byUtils colore delle pedine che attaccano
+     * @param occupancy maschera delle celle occupate da usare
+     * @param alive maschera delle pedine ancora in gioco (le pedine catturate hanno il bit a 0)
+     * @return maschera delle pedine che attaccano la cella
+     */
+    private long calculateAttackers(final int square, final Utils byUtils, final long occupancy, final long alive) {
+        return calculateAttackers(this.pieceBoards, square, byUtils, occupancy, alive);
+    }
+
+    /**
+     * Questo metodo calcola le pedine che attaccano una cella partendo dalla cella stessa: una pedina attacca la cella
+     * se dalla cella, muovendosi come quella pedina, si raggiunge la pedina. Cosi bastano le tabelle degli attacchi,
+     * senza generare le mosse dell'avversario. Viene usato anche dalla {@link VirtualBoard}.
+     * @param pieceBoards maschere delle pedine, indicizzate come {@link #pieceIndex}
+     * @param square cella di riferimento
+     * @param byUtils colore delle pedine che attaccano
+     * @param occupancy maschera delle celle occupate da usare
+     * @param alive maschera delle pedine ancora in gioco (le pedine catturate hanno il bit a 0)
+     * @return maschera delle pedine che attaccano la cella
+     */
+    static long calculateAttackers(final long[] pieceBoards, final int square, final Utils byUtils, final long occupancy, final long alive) {
+        final int base = byUtils.ordinal() * NUM_PIECE_TYPES;
+        final long queens = pieceBoards[base + PieceType.QUEEN.ordinal()];
+        final long diagonals = (pieceBoards[base + PieceType.BISHOP.ordinal()] | queens) & alive;
+        final long lines = (pieceBoards[base + PieceType.ROOK.ordinal()] | queens) & alive;
+
+        return (LeaperAttacks.pawnAttacks(square, byUtils.getOpponentUtils()) & pieceBoards[base + PieceType.PAWN.ordinal()] & alive) |
+                (LeaperAttacks.knightAttacks(square) & pieceBoards[base + PieceType.KNIGHT.ordinal()] & alive) |
+                (LeaperAttacks.kingAttacks(square) & pieceBoards[base + PieceType.KING.ordinal()] & alive) |
+                (diagonals != EMPTY ? SliderAttacks.bishopAttacks(square, occupancy) & diagonals : EMPTY) |
+                (lines != EMPTY ? SliderAttacks.rookAttacks(square, occupancy) & lines : EMPTY);
+    }
+
+    /**
+     * Questo metodo calcola le celle raggiungibili da un pedone: avanzamento, salto iniziale, cattura ed enpassant
+     * @param square cella del pedone
+     * @param utils colore del pedone
+     * @return maschera delle celle di destinazione
+     */
+    private long calculatePawnTargets(final int square, final Utils utils) {
+        final long from = squareMask(square);
+        final long empty = ~this.occupiedBoard;
+        final long attacks = LeaperAttacks.pawnAttacks(square, utils);
+        long enemies = this.utilsBoards[utils.getOpponentUtils().ordinal()];
+
+        if(utils == this.getMoveMaker() && this.getEnPassantSquare() != NO_SQUARE)
+            enemies |= squareMask(this.getEnPassantSquare());
+
+        if(utils.isWhite()) {
+            final long push = (from >>> 8) & empty;
+            return push | (((push & RANK_3) >>> 8) & empty) | (attacks & enemies);
+        }
+
+        final long push = (from << 8) & empty;
+        return push | (((push & RANK_6) << 8) & empty) | (attacks & enemies);
+    }
+
+    /**
+     * Questo metodo verifica le celle attraversate dall'arrocco
+     * @param kingSquare cella del RE
+     * @param crossSquare cella attraversata dal RE
+     * @param kingDestination cella di destinazione del RE
+     * @param lastEmptySquare ultima cella che deve essere libera (verso la torre)
+     * @param utils colore del giocatore
+     * @return "TRUE" se le celle sono libere e nessuna cella del RE è attaccata
+     */
+    private boolean isCastlePathFree(final int kingSquare, final int crossSquare, final int kingDestination, final int lastEmptySquare, final Utils utils) {
+        final int low = Math.min(crossSquare, lastEmptySquare);
+        final int high = Math.max(crossSquare, lastEmptySquare);
+
+        for(int square = low; square <= high; square++) {
+            if(this.squares[square] != EMPTY_SQUARE)
+                return false;
+        }
+
+        final Utils opponent = utils.getOpponentUtils();
+
+        return !this.isSquareAttacked(kingSquare, opponent) &&
+                !this.isSquareAttacked(crossSquare, opponent) &&
+                !this.isSquareAttacked(kingDestination, opponent);
+    }
+
+    /**
+     * Questo metodo calcola le pedine inchiodate: le pedine del giocatore che sono l'unico ostacolo tra il proprio RE
+     * e una torre, un alfiere o una regina avversaria.
+     * @param kingSquare cella del RE
+     * @param utils colore del giocatore
+     * @return maschera delle pedine inchiodate
+     */
+    private long calculatePinned(final int kingSquare, final Utils utils) {
+        final int base = utils.getOpponentUtils().ordinal() * NUM_PIECE_TYPES;
+        final long enemies = this.utilsBoards[utils.getOpponentUtils().ordinal()];
+        final long queens = this.pieceBoards[base + PieceType.QUEEN.ordinal()];
+        long snipers = (SliderAttacks.rookAttacks(kingSquare, enemies) & (this.pieceBoards[base + PieceType.ROOK.ordinal()] | queens)) |
+                (SliderAttacks.bishopAttacks(kingSquare, enemies) & (this.pieceBoards[base + PieceType.BISHOP.ordinal()] | queens));
+        long pinned = EMPTY;
+
+        while(snipers != EMPTY) {
+            final int sniper = firstSquare(snipers);
+            final long blockers = BoardGeometry.between(kingSquare, sniper) & this.occupiedBoard;
+
+            if(count(blockers) == 1 && (blockers & this.utilsBoards[utils.ordinal()]) != EMPTY)
+                pinned |= blockers;
+
+            snipers &= snipers - 1;
+        }
+
+        return pinned;
+    }
+
+    /**
+     * Questo metodo simula una mossa e verifica che il RE non rimanga sotto scacco
+     * @param from cella di partenza
+     * @param to cella di destinazione
+     * @param kingSquare cella del RE dopo la mossa
+     * @param isEnPassant "TRUE" se la mossa è una cattura enpassant
+     * @param utils colore del giocatore che muove
+     * @return "TRUE" se la mossa non lascia il RE sotto scacco
+     */
+    private boolean isLegalMove(final int from, final int to, final int kingSquare, final boolean isEnPassant, final Utils utils) {
+        final long toMask = squareMask(to);
+        long occupancy = (this.occupiedBoard & ~squareMask(from)) | toMask;
+        long alive = ~toMask;
+
+        if(isEnPassant) {
+            final long capturedMask = squareMask(to - utils.getDirection() * VirtualBoardUtils.NUM_TILES_ROW);
+            occupancy &= ~capturedMask;
+            alive &= ~capturedMask;
+        }
+
+        return this.calculateAttackers(kingSquare, utils.getOpponentUtils(), occupancy, alive) == EMPTY;
+    }
+
+    /**
+     * Questo metodo crea la pedina della {@link VirtualBoard} corrispondente alla cella.
+     * I pedoni sulla riga di partenza e le torri con l'arrocco ancora disponibile sono alla loro prima mossa.
+     * @param square cella della pedina
+     * @return pedina da posizionare
+     */
+    private Piece createPiece(final int square) {
+        final Utils utils = this.getPieceUtils(square);
+        final boolean isWhite = utils.isWhite();
+
+        return switch (this.getPieceType(square)) {
+            case PAWN -> (squareMask(square) & (isWhite ? RANK_2 : RANK_7)) != EMPTY ?
+                    PieceUtils.INSTANCE.getPiece(PieceType.PAWN, utils, square, true) :
+                    PieceUtils.INSTANCE.getPieceAtCoordinate(Pawn.class, utils, square);
+            case KNIGHT -> PieceUtils.INSTANCE.getPieceAtCoordinate(Knight.class, utils, square);
+            case BISHOP -> PieceUtils.INSTANCE.getPieceAtCoordinate(Bishop.class, utils, square);
+            case ROOK -> (square == (isWhite ? 63 : 7) && this.hasCastlingRight(isWhite ? WHITE_KING_SIDE : BLACK_KING_SIDE)) ||
+                    (square == (isWhite ? 56 : 0) && this.hasCastlingRight(isWhite ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE)) ?
+                    PieceUtils.INSTANCE.getPiece(PieceType.ROOK, utils, square, true) :
+                    PieceUtils.INSTANCE.getPieceAtCoordinate(Rook.class, utils, square);
+            case QUEEN -> PieceUtils.INSTANCE.getPieceAtCoordinate(Queen.class, utils, square);
+            case KING -> {
+                final boolean isCastledByKing = this.hasCastlingRight(isWhite ? WHITE_KING_SIDE : BLACK_KING_SIDE);
+                final boolean isCastledByQueen = this.hasCastlingRight(isWhite ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE);
+                yield PieceUtils.INSTANCE.getKing(square, utils, isCastledByKing || isCastledByQueen, this.isCastled(utils), isCastledByKing, isCastledByQueen);
+            }
+        };
+    }
+
+    /**
+     * Questo metodo posiziona una pedina aggiornando tutte le maschere
+     * @param index indice della pedina
+     * @param square cella di destinazione
+     */
+    private void putPiece(final int index, final int square) {
+        final long mask = squareMask(square);
+
+        this.pieceBoards[index] |= mask;
+        this.utilsBoards[index / NUM_PIECE_TYPES] |= mask;
+        this.occupiedBoard |= mask;
+        this.changedSquares |= mask;
+        this.squares[square] = (byte) index;
+        this.zobristKey ^= ZobristKeys.piece(index, square);
+    }
+
+    /**
+     * Questo metodo rimuove la pedina da una cella aggiornando tutte le maschere
+     * @param square cella da liberare
+     */
+    private void removePiece(final int square) {
+        final int index = this.squares[square];
+        final long mask = ~squareMask(square);
+
+        this.pieceBoards[index] &= mask;
+        this.utilsBoards[index / NUM_PIECE_TYPES] &= mask;
+        this.occupiedBoard &= mask;
+        this.changedSquares |= ~mask;
+        this.squares[square] = EMPTY_SQUARE;
+        this.zobristKey ^= ZobristKeys.piece(index, square);
+    }
+
+    /**
+     * Questo metodo sposta una pedina da una cella a una cella libera. Viene usato per la torre dell'arrocco
+     * @param from cella di partenza
+     * @param to cella di destinazione
+     */
+    private void movePiece(final int from, final int to) {
+        final int index = this.squares[from];
+
+        this.removePiece(from);
+        this.putPiece(index, to);
+    }
+
+    /**
+     * Questo metodo aggiorna la mappa degli attacchi, se attiva, con le celle modificate dall'ultima mossa
+     */
+    private void updateAttackMap() {
+        if(this.attackMap != null)
+            this.attackMap.update(this, this.changedSquares);
+
+        this.changedSquares = EMPTY;
+    }
+
+    /**
+     * Questo metodo salva la mossa e lo stato precedente, ingrandendo gli stack se sono pieni
+     * @param move mossa eseguita
+     * @param undo stato precedente e pedina catturata
+     */
+    private void pushUndo(final int move, final int undo) {
+        if(this.ply == this.moveStack.length) {
+            this.moveStack = Arrays.copyOf(this.moveStack, this.ply * 2);
+            this.undoStack = Arrays.copyOf(this.undoStack, this.ply * 2);
+            this.keyStack = Arrays.copyOf(this.keyStack, this.ply * 2);
+        }
+
+        this.moveStack[this.ply] = move;
+        this.undoStack[this.ply] = undo;
+        this.keyStack[this.ply] = this.zobristKey;
+        this.ply++;
+    }
+
+    /**
+     * @return la parte della chiave {@link ZobristKeys} che non dipende dalle pedine: arrocchi, enpassant e colore che muove
+     */
+    private long calculateStateKey() {
+        final long key = ZobristKeys.castling(this.getCastlingRights()) ^ ZobristKeys.enPassant(this.getEnPassantSquare());
+        return (this.state & SIDE_MASK) != 0 ? key ^ ZobristKeys.side() : key;
+    }
+
+    /**
+     * @param square cella dell'enpassant oppure NO_SQUARE
+     */
+    private void setEnPassantSquare(final int square) {
+        this.state = (this.state & ~(EN_PASSANT_MASK << EN_PASSANT_SHIFT)) | (square << EN_PASSANT_SHIFT);
+    }
+
+    /**
+     * @param utils colore di riferimento
+     * @return bit dello stato che indica l'arrocco già eseguito dal colore
+     */
+    private static int castledFlag(final Utils utils) {
+        return 1 << (CASTLED_SHIFT + utils.ordinal());
+    }
+
+    /**
+     * Questo metodo calcola gli arrocchi ancora disponibili nella configurazione di una {@link VirtualBoard}
+     * @param configuration pedine della scacchiera, indicizzate per cella
+     * @return arrocchi disponibili, come combinazione delle costanti WHITE_KING_SIDE, WHITE_QUEEN_SIDE,...
+     */
+    static int calculateCastlingRights(final Piece[] configuration) {
+        int castlingRights = 0;
+
+        if(hasCastleRight(configuration, Utils.WHITE, 60, 63, true))
+            castlingRights |= WHITE_KING_SIDE;
+        if(hasCastleRight(configuration, Utils.WHITE, 60, 56, false))
+            castlingRights |= WHITE_QUEEN_SIDE;
+        if(hasCastleRight(configuration, Utils.BLACK, 4, 7, true))
+            castlingRights |= BLACK_KING_SIDE;
+        if(hasCastleRight(configuration, Utils.BLACK, 4, 0, false))
+            castlingRights |= BLACK_QUEEN_SIDE;
+
+        return castlingRights;
+    }
+
+    /**
+     * Questo metodo verifica se nella {@link VirtualBoard} un arrocco è ancora disponibile
+     * @param configuration pedine della scacchiera, indicizzate per cella
+     * @param utils colore del giocatore
+     * @param kingCoordinate cella iniziale del RE
+     * @param rookCoordinate cella iniziale della torre
+     * @param isKingSide "TRUE" per l'arrocco verso il RE
+     * @return "TRUE" se il RE e la torre non si sono mai mossi e il diritto è ancora disponibile
+     */
+    private static boolean hasCastleRight(final Piece[] configuration, final Utils utils, final int kingCoordinate,
+                                          final int rookCoordinate, final boolean isKingSide) {
+        final Piece king = configuration[kingCoordinate];
+        final Piece rook = configuration[rookCoordinate];
+
+        return king != null && rook != null &&
+                king.getPieceType() == PieceType.KING && king.getPieceUtils() == utils && king.isFirstMove() &&
+                rook.getPieceType() == PieceType.ROOK && rook.getPieceUtils() == utils && rook.isFirstMove() &&
+                (isKingSide ? king.isCastledByKing() : king.isCastledByQueen());
+    }
+
+    /**
+     * Questo metodo crea la tabella degli arrocchi da mantenere quando una pedina parte o arriva su una cella.
+     * Muovere il RE o una torre (oppure catturare una torre) toglie il relativo diritto di arrocco.
+     * @return per ogni cella la maschera degli arrocchi che restano disponibili
+     */
+    private static int[] initCastlingUpdate() {
+        final int[] castlingUpdate = new int[VirtualBoardUtils.NUM_TILES];
+
+        Arrays.fill(castlingUpdate, CASTLING_MASK);
+        castlingUpdate[60] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        castlingUpdate[63] &= ~WHITE_KING_SIDE;
+        castlingUpdate[56] &= ~WHITE_QUEEN_SIDE;
+        castlingUpdate[4] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        castlingUpdate[7] &= ~BLACK_KING_SIDE;
+        castlingUpdate[0] &= ~BLACK_QUEEN_SIDE;
+
+        return castlingUpdate;
+    }
+}
@@ -0,0 +1,211 @@
+package core.board;
+
+/**
+ * Questa classe contiene le maschere e le operazioni di base per lavorare con la rappresentazione a 64 bit della scacchiera.
+ * Il bit "i" corrisponde alla cella "i" della {@link VirtualBoard}: il bit 0 è "a8" e il bit 63 è "h1".
+ * Tutti gli attacchi sono calcolati spostando i bit, senza dover scorrere le celle una a una.
+ */
+public final class BitBoardUtils {
+
+    public static final long EMPTY = 0L;
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_B = FILE_A << 1;
+    public static final long FILE_G = FILE_A << 6;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_8 = 0xFFL;
+    public static final long RANK_7 = RANK_8 << 8;
+    public static final long RANK_6 = RANK_8 << 16;
+    public static final long RANK_3 = RANK_8 << 40;
+    public static final long RANK_2 = RANK_8 << 48;
+    public static final long RANK_1 = RANK_8 << 56;
+    // Celle chiare: a8 è chiara, quindi sull'ottava riga lo sono le colonne pari e sulla settima quelle dispari
+    public static final long LIGHT_SQUARES = 0xAA55AA55AA55AA55L;
+
+    private static final long NOT_FILE_A = ~FILE_A;
+    private static final long NOT_FILE_H = ~FILE_H;
+    private static final long NOT_FILE_AB = ~(FILE_A | FILE_B);
+    private static final long NOT_FILE_GH = ~(FILE_G | FILE_H);
+
+    /**
+     * Il costruttore della classe è privato perché la classe contiene solamente metodi statici
+     */
+    private BitBoardUtils() {
+        throw new RuntimeException("Ma come pensi di potermi istanziare!?");
+    }
+
+    /**
+     * @param square cella da convertire
+     * @return maschera con il solo bit della cella impostato
+     */
+    public static long squareMask(final int square) {
+        return 1L << square;
+    }
+
+    /**
+     * @param board maschera di riferimento
+     * @return la prima cella (indice più basso) impostata nella maschera
+     */
+    public static int firstSquare(final long board) {
+        return Long.numberOfTrailingZeros(board);
+    }
+
+    /**
+     * @param board maschera di riferimento
+     * @return numero di celle impostate nella maschera
+     */
+    public static int count(final long board) {
+        return Long.bitCount(board);
+    }
+
+    /**
+     * Questo metodo calcola le celle attaccate da tutti i cavalli della maschera
+     * @param knights maschera dei cavalli
+     * @return maschera delle celle attaccate
+     */
+    public static long knightAttacks(final long knights) {
+        return ((knights >>> 17) & NOT_FILE_H) | ((knights >>> 15) & NOT_FILE_A) |
+                ((knights >>> 10) & NOT_FILE_GH) | ((knights >>> 6) & NOT_FILE_AB) |
+                ((knights << 6) & NOT_FILE_GH) | ((knights << 10) & NOT_FILE_AB) |
+                ((knights << 15) & NOT_FILE_H) | ((knights << 17) & NOT_FILE_A);
+    }
+
+    /**
+     * Questo metodo calcola le celle attaccate dal RE (o dai RE) della maschera
+     * @param kings maschera dei RE
+     * @return maschera delle celle attaccate
+     */
+    public static long kingAttacks(final long kings) {
+        final long sideways = ((kings << 1) & NOT_FILE_A) | ((kings >>> 1) & NOT_FILE_H);
+        final long row = kings | sideways;
+
+        return sideways | (row >>> 8) | (row << 8);
+    }
+
+    /**
+     * Questo metodo calcola le celle attaccate in diagonale dai pedoni della maschera
+     * @param pawns maschera dei pedoni
+     * @param isWhite "TRUE" se i pedoni sono bianchi (avanzano verso la riga 8)
+     * @return maschera delle celle attaccate
+     */
+    public static long pawnAttacks(final long pawns, final boolean isWhite) {
+        return isWhite ?
+                ((pawns >>> 9) & NOT_FILE_H) | ((pawns >>> 7) & NOT_FILE_A) :
+                ((pawns << 7) & NOT_FILE_H) | ((pawns << 9) & NOT_FILE_A);
+    }
+
+    /**
+     * Questo metodo calcola le celle attaccate da una torre scorrendo i raggi cella per cella.
+     * È lento ma sempre corretto: viene usato da {@link SliderAttacks} per riempire le tabelle all'avvio
+     * @param square cella della torre
+     * @param occupancy maschera di tutte le celle occupate
+     * @return maschera delle celle attaccate, compresa la prima pedina incontrata in ogni direzione
+     */
+    public static long slidingRookAttacks(final int square, final long occupancy) {
+        final long empty = ~occupancy;
+        final long from = squareMask(square);
+
+        return slideNorth(from, empty) | slideSouth(from, empty) | slideEast(from, empty) | slideWest(from, empty);
+    }
+
+    /**
+     * Questo metodo calcola le celle attaccate da un alfiere scorrendo le diagonali cella per cella.
+     * Come per la torre, viene usato da {@link SliderAttacks} per riempire le tabelle all'avvio
+     * @param square cella dell'alfiere
+     * @param occupancy maschera di tutte le celle occupate
+     * @return maschera delle celle attaccate, compresa la prima pedina incontrata in ogni direzione
+     */
+    public static long slidingBishopAttacks(final int square, final long occupancy) {
+        final long empty = ~occupancy;
+        final long from = squareMask(square);
+
+        return slideNorthEast(from, empty) | slideNorthWest(from, empty) | slideSouthEast(from, empty) | slideSouthWest(from, empty);
+    }
+
+    private static long slideNorth(long ray, final long empty) {
+        long attacks = 0L;
+
+        while((ray = ray >>> 8) != 0) {
+            attacks |= ray;
+            ray &= empty;
+        }
+
+        return attacks;
+    }
+
+    private static long slideSouth(long ray, final long empty) {
+        long attacks = 0L;
+
+        while((ray = ray << 8) != 0) {
+            attacks |= ray;
+            ray &= empty;
+        }
+
+        return attacks;
+    }
+
+    private static long slideEast(long ray, final long empty) {
+        long attacks = 0L;
+
+        while((ray = (ray << 1) & NOT_FILE_A) != 0) {
+            attacks |= ray;
+            ray &= empty;
+        }
+
+        return attacks;
+    }
+
+    private static long slideWest(long ray, final long empty) {
+        long attacks = 0L;
+
+        while((ray = (ray >>> 1) & NOT_FILE_H) != 0) {
+            attacks |= ray;
+            ray &= empty;
+        }
+
+        return attacks;
+    }
+
+    private static long slideNorthEast(long ray, final long empty) {
+        long attacks = 0L;
+
+        while((ray = (ray >>> 7) & NOT_FILE_A) != 0) {
+            attacks |= ray;
+            ray &= empty;
+        }
+
+        return attacks;
+    }
+
+    private static long slideNorthWest(long ray, final long empty) {
+        long attacks = 0L;
+
+        while((ray = (ray >>> 9) & NOT_FILE_H) != 0) {
+            attacks |= ray;
+            ray &= empty;
+        }
+
+        return attacks;
+    }
+
+    private static long slideSouthEast(long ray, final long empty) {
+        long attacks = 0L;
+
+        while((ray = (ray << 9) & NOT_FILE_A) != 0) {
+            attacks |= ray;
+            ray &= empty;
+        }
+
+        return attacks;
+    }
+
+    private static long slideSouthWest(long ray, final long empty) {
+        long attacks = 0L;
+
+        while((ray = (ray << 7) & NOT_FILE_H) != 0) {
+            attacks |= ray;
+            ray &= empty;
+        }
+
+        return attacks;
+    }
+}
@@ -4,35 +4,67 @@ import core.pieces.Pawn;
 import core.utils.Utils;
 import core.move.Move;
 import core.pieces.piece.Piece;
+import lombok.AccessLevel;
 import lombok.Getter;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
- * Questa classe serve per la configurare le pedine e altri parametri sulla scacchiera "virtuale"
+ * Questa classe serve per la configurare le pedine e altri parametri sulla scacchiera "virtuale".
+ * Le pedine sono salvate in un array di 64 celle, indicizzato come la {@link VirtualBoard}: l'array viene condiviso
+ * con le scacchiere create e copiato solamente alla prima modifica successiva ("copy-on-write").
  */
 @Getter
 public class BoardConfigurator {
-    private final Map<Integer, Piece> configuration;
+    @Getter(AccessLevel.NONE)
+    private Piece[] configuration;
+    @Getter(AccessLevel.NONE)
+    private boolean isShared;
     private Utils nextMoveMaker;
     private Move moveTransition;
     private Pawn enPassant;
 
     public BoardConfigurator() {
-        this.configuration = new HashMap<>(32, 1.0f);
+        this.configuration = new Piece[VirtualBoardUtils.NUM_TILES];
+        this.isShared = false;
+    }
+
+    /**
+     * Crea un configuratore con le stesse pedine della scacchiera passata, senza copiarle finché non viene modificato.
+     * Le mosse partono da qui e cambiano solamente le celle coinvolte.
+     * @param board scacchiera virtuale di partenza
+     */
+    public BoardConfigurator(final VirtualBoard board) {
+        this.configuration = board.getConfiguration();
+        this.isShared = true;
     }
 
     /**
-     * Questo metodo serve ad aggiungere una pedina al hashmap
+     * Questo metodo serve ad aggiungere una pedina alla scacchiera, sostituendo quella presente nella cella
      * @param piece pedina da aggiungere
      * @return {@link BoardConfigurator} con le pedine/valori aggiornati a dopo l'inserimento
      */
     public BoardConfigurator setPiece(final Piece piece) {
-        this.configuration.put(piece.getPiecePosition(), piece);
+        this.getWritableConfiguration()[piece.getPiecePosition()] = piece;
+        return this;
+    }
+
+    /**
+     * Questo metodo serve a togliere la pedina da una cella
+     * @param square cella da liberare
+     * @return {@link BoardConfigurator} con le pedine/valori aggiornati a dopo la rimozione
+     */
+    public BoardConfigurator removePiece(final int square) {
+        this.getWritableConfiguration()[square] = null;
         return this;
     }
 
+    /**
+     * @param square cella di riferimento
+     * @return pedina situata alla cella oppure null se la cella è vuota
+     */
+    public Piece getPiece(final int square) {
+        return this.configuration[square];
+    }
+
     /**
      * Questo metodo serve per impostare il colore del giocatore che farà la prossima mossa
      * @param nextMoveMaker colore del giocatore. Dopo bianco è nero e viceversa
@@ -70,4 +102,26 @@ public class BoardConfigurator {
     public VirtualBoard build() {
         return new VirtualBoard(this);
     }
+
+    /**
+     * Questo metodo consegna le pedine alla scacchiera che viene creata. Da questo momento l'array è condiviso
+     * e una nuova modifica del configuratore lavora su una copia.
+     * @return pedine indicizzate per cella, da non modificare
+     */
+    Piece[] shareConfiguration() {
+        this.isShared = true;
+        return this.configuration;
+    }
+
+    /**
+     * @return pedine indicizzate per cella, copiate prima se sono condivise con una scacchiera
+     */
+    private Piece[] getWritableConfiguration() {
+        if(this.isShared) {
+            this.configuration = this.configuration.clone();
+            this.isShared = false;
+        }
+
+        return this.configuration;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,169 @@
+package core.board;
+
+import static core.board.BitBoardUtils.EMPTY;
+import static core.board.BitBoardUtils.squareMask;
+
+/**
+ * Questa classe contiene le relazioni geometriche tra le celle, calcolate una sola volta all'avvio per tutte le coppie di celle:
+ * i raggi in ogni direzione, le celle in mezzo a due celle, la linea che passa per due celle e le distanze.
+ * Servono per le pedine inchiodate, per parare gli scacchi, per lo scambio statico e per la distanza tra i RE nei finali,
+ * senza doverle ricalcolare ogni volta con dei cicli.
+ * Le celle seguono la numerazione della {@link VirtualBoard}: 0 = a8, 63 = h1.
+ */
+public final class BoardGeometry {
+
+    public static final int NORTH = 0;
+    public static final int NORTH_EAST = 1;
+    public static final int EAST = 2;
+    public static final int SOUTH_EAST = 3;
+    public static final int SOUTH = 4;
+    public static final int SOUTH_WEST = 5;
+    public static final int WEST = 6;
+    public static final int NORTH_WEST = 7;
+    public static final int NUM_DIRECTIONS = 8;
+
+    // Spostamento di colonna e di riga per ogni direzione. La riga 0 è l'ottava riga, quindi NORD diminuisce la riga
+    private static final int[] FILE_STEPS = { 0, 1, 1, 1, 0, -1, -1, -1 };
+    private static final int[] ROW_STEPS = { -1, -1, 0, 1, 1, 1, 0, -1 };
+
+    private static final long[][] RAYS = new long[NUM_DIRECTIONS][VirtualBoardUtils.NUM_TILES];
+    private static final long[] BETWEEN = new long[VirtualBoardUtils.NUM_TILES * VirtualBoardUtils.NUM_TILES];
+    private static final long[] LINE = new long[VirtualBoardUtils.NUM_TILES * VirtualBoardUtils.NUM_TILES];
+    private static final byte[] DISTANCE = new byte[VirtualBoardUtils.NUM_TILES * VirtualBoardUtils.NUM_TILES];
+    private static final byte[] MANHATTAN_DISTANCE = new byte[VirtualBoardUtils.NUM_TILES * VirtualBoardUtils.NUM_TILES];
+
+    static {
+        for(int square = 0; square < VirtualBoardUtils.NUM_TILES; square++) {
+            for(int direction = 0; direction < NUM_DIRECTIONS; direction++)
+                RAYS[direction][square] = calculateRay(square, direction);
+        }
+
+        for(int from = 0; from < VirtualBoardUtils.NUM_TILES; from++) {
+            for(int to = 0; to < VirtualBoardUtils.NUM_TILES; to++) {
+                final int index = index(from, to);
+                final int fileDistance = Math.abs(file(from) - file(to));
+                final int rowDistance = Math.abs(row(from) - row(to));
+
+                DISTANCE[index] = (byte) Math.max(fileDistance, rowDistance);
+                MANHATTAN_DISTANCE[index] = (byte) (fileDistance + rowDistance);
+
+                for(int direction = 0; direction < NUM_DIRECTIONS; direction++) {
+                    if((RAYS[direction][from] & squareMask(to)) == EMPTY)
+                        continue;
+
+                    // "to" si trova sul raggio di "from": le celle in mezzo sono quelle del raggio prima di "to"
+                    BETWEEN[index] = RAYS[direction][from] & ~RAYS[direction][to] & ~squareMask(to);
+                    LINE[index] = RAYS[direction][from] | RAYS[(direction + NUM_DIRECTIONS / 2) % NUM_DIRECTIONS][from] | squareMask(from);
+                }
+            }
+        }
+    }
+
+    /**
+     * Il costruttore della classe è privato perché la classe contiene solamente metodi statici
+     */
+    private BoardGeometry() {
+        throw new RuntimeException("Ma come pensi di potermi istanziare!?");
+    }
+
+    /**
+     * @param square cella di riferimento
+     * @return colonna della cella, da 0 (a) a 7 (h)
+     */
+    public static int file(final int square) {
+        return square & (VirtualBoardUtils.NUM_TILES_ROW - 1);
+    }
+
+    /**
+     * @param square cella di riferimento
+     * @return riga della cella come indice della {@link VirtualBoard}, da 0 (ottava riga) a 7 (prima riga)
+     */
+    public static int row(final int square) {
+        return square >>> 3;
+    }
+
+    /**
+     * @param direction direzione del raggio, una delle costanti NORTH, NORTH_EAST,...
+     * @param square cella di partenza
+     * @return maschera delle celle dalla cella (esclusa) fino al bordo della scacchiera
+     */
+    public static long ray(final int direction, final int square) {
+        return RAYS[direction][square];
+    }
+
+    /**
+     * @param from prima cella
+     * @param to seconda cella
+     * @return maschera delle celle in mezzo (escluse le due celle) oppure EMPTY se le celle non sono sulla stessa riga, colonna o diagonale
+     */
+    public static long between(final int from, final int to) {
+        return BETWEEN[index(from, to)];
+    }
+
+    /**
+     * @param from prima cella
+     * @param to seconda cella
+     * @return maschera di tutta la riga, colonna o diagonale che passa per le due celle (da bordo a bordo)
+     *         oppure EMPTY se le celle non sono allineate
+     */
+    public static long line(final int from, final int to) {
+        return LINE[index(from, to)];
+    }
+
+    /**
+     * @param first prima cella
+     * @param second seconda cella
+     * @param third terza cella
+     * @return "TRUE" se le tre celle sono sulla stessa riga, colonna o diagonale
+     */
+    public static boolean isAligned(final int first, final int second, final int third) {
+        return (LINE[index(first, second)] & squareMask(third)) != EMPTY;
+    }
+
+    /**
+     * @param from prima cella
+     * @param to seconda cella
+     * @return numero di mosse del RE per andare da una cella all'altra (distanza di Chebyshev), da 0 a 7
+     */
+    public static int distance(final int from, final int to) {
+        return DISTANCE[index(from, to)];
+    }
+
+    /**
+     * @param from prima cella
+     * @param to seconda cella
+     * @return somma della distanza tra le colonne e tra le righe (distanza di Manhattan), da 0 a 14
+     */
+    public static int manhattanDistance(final int from, final int to) {
+        return MANHATTAN_DISTANCE[index(from, to)];
+    }
+
+    /**
+     * @param from prima cella
+     * @param to seconda cella
+     * @return indice della coppia di celle nelle tabelle
+     */
+    private static int index(final int from, final int to) {
+        return (from << 6) | to;
+    }
+
+    /**
+     * Questo metodo calcola un raggio muovendosi di una cella alla volta fino al bordo della scacchiera
+     * @param square cella di partenza
+     * @param direction direzione del raggio
+     * @return maschera delle celle del raggio
+     */
+    private static long calculateRay(final int square, final int direction) {
+        long ray = EMPTY;
+        int file = file(square) + FILE_STEPS[direction];
+        int row = row(square) + ROW_STEPS[direction];
+
+        while(file >= 0 && file < VirtualBoardUtils.NUM_TILES_ROW && row >= 0 && row < VirtualBoardUtils.NUM_TILES_ROW) {
+            ray |= squareMask(row * VirtualBoardUtils.NUM_TILES_ROW + file);
+            file += FILE_STEPS[direction];
+            row += ROW_STEPS[direction];
+        }
+
+        return ray;
+    }
+}
@@ -0,0 +1,62 @@
+package core.board;
+
+import core.utils.Utils;
+
+import static core.board.BitBoardUtils.squareMask;
+
+/**
+ * Questa classe contiene gli attacchi già calcolati delle pedine che "saltano" (cavallo, RE e pedone).
+ * Il loro attacco non dipende dalle altre pedine, quindi per ogni cella viene calcolato una sola volta all'avvio:
+ * durante la generazione delle mosse basta leggere la tabella, senza controllare i bordi della scacchiera.
+ * Gli attacchi dei pedoni sono separati per colore, perché il pedone cattura solamente in avanti.
+ */
+public final class LeaperAttacks {
+
+    private static final long[] KNIGHT_ATTACKS = new long[VirtualBoardUtils.NUM_TILES];
+    private static final long[] KING_ATTACKS = new long[VirtualBoardUtils.NUM_TILES];
+    private static final long[][] PAWN_ATTACKS = new long[Utils.values().length][VirtualBoardUtils.NUM_TILES];
+
+    static {
+        for(int square = 0; square < VirtualBoardUtils.NUM_TILES; square++) {
+            final long from = squareMask(square);
+
+            KNIGHT_ATTACKS[square] = BitBoardUtils.knightAttacks(from);
+            KING_ATTACKS[square] = BitBoardUtils.kingAttacks(from);
+
+            for(final Utils utils : Utils.values())
+                PAWN_ATTACKS[utils.ordinal()][square] = BitBoardUtils.pawnAttacks(from, utils.isWhite());
+        }
+    }
+
+    /**
+     * Il costruttore della classe è privato perché la classe contiene solamente metodi statici
+     */
+    private LeaperAttacks() {
+        throw new RuntimeException("Ma come pensi di potermi istanziare!?");
+    }
+
+    /**
+     * @param square cella del cavallo
+     * @return maschera delle celle attaccate dal cavallo
+     */
+    public static long knightAttacks(final int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /**
+     * @param square cella del RE
+     * @return maschera delle celle attaccate dal RE, senza gli arrocchi
+     */
+    public static long kingAttacks(final int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @param square cella del pedone
+     * @param utils colore del pedone
+     * @return maschera delle due celle (una sul bordo) attaccate in diagonale dal pedone
+     */
+    public static long pawnAttacks(final int square, final Utils utils) {
+        return PAWN_ATTACKS[utils.ordinal()][square];
+    }
+}
@@ -0,0 +1,310 @@
+package core.board;
+
+import core.move.BitMove;
+import core.move.Move;
+import core.move.MoveTransition;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Questa classe serve per contare le foglie dell'albero delle mosse legali fino a una certa profondità ("perft").
+ * Confrontando il conteggio con i valori di {@link PerftPosition} si verifica la correttezza del generatore di mosse,
+ * mentre le foglie al secondo ne misurano la velocità.
+ * Sulla {@link BitBoard} il conteggio può essere distribuito su tutti i processori e i sottoalberi già contati
+ * possono essere salvati in una tabella hash, cosi le trasposizioni vengono contate una volta sola.
+ * Uso: Perft [profondità massima] [-p] [-h MB] [-v] [-f FEN]
+ */
+public final class Perft {
+
+    // Sotto questa profondità un sottoalbero è troppo piccolo per valere un task separato
+    private static final int MIN_PARALLEL_DEPTH = 3;
+    // A profondità 1 le mosse vengono solo contate, salvarle nella tabella costerebbe più che rigenerarle
+    private static final int MIN_HASH_DEPTH = 2;
+    private static final int DEPTH_BITS = 6;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+    private static final int BYTES_PER_ENTRY = 16;
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final boolean isParallel;
+    private final long[] hashKeys;
+    private final long[] hashValues;
+    private final int hashMask;
+
+    /**
+     * @param isParallel "TRUE" per distribuire i sottoalberi su tutti i processori
+     * @param hashSizeMb dimensione della tabella hash in MB, 0 per non usarla
+     */
+    public Perft(final boolean isParallel, final int hashSizeMb) {
+        this.isParallel = isParallel;
+
+        if(hashSizeMb > 0) {
+            final int numEntries = (int) Long.highestOneBit(Math.min(hashSizeMb * BYTES_PER_MB / BYTES_PER_ENTRY, 1L << 30));
+            this.hashKeys = new long[numEntries];
+            this.hashValues = new long[numEntries];
+            this.hashMask = numEntries - 1;
+        } else {
+            this.hashKeys = null;
+            this.hashValues = null;
+            this.hashMask = 0;
+        }
+    }
+
+    /**
+     * Questo metodo conta le foglie della posizione. La scacchiera passata non viene modificata.
+     * @param board scacchiera a bit di partenza
+     * @param depth profondità da raggiungere
+     * @return numero di foglie
+     */
+    public long perft(final BitBoard board, final int depth) {
+        if(depth == 0)
+            return 1L;
+
+        if(this.isParallel)
+            return ForkJoinPool.commonPool().invoke(new PerftTask(new BitBoard(board), depth));
+
+        return this.count(board, depth, new int[depth + 1][BitBoard.MAX_MOVES]);
+    }
+
+    /**
+     * Questo metodo conta le foglie separatamente per ogni mossa della posizione, per trovare quale mossa è generata male
+     * @param board scacchiera a bit di partenza
+     * @param depth profondità da raggiungere, compresa la mossa iniziale
+     * @return numero di foglie per ogni mossa, nell'ordine di generazione. ex: e2-e4 -> 600
+     */
+    public Map<String, Long> divide(final BitBoard board, final int depth) {
+        final Map<String, Long> result = new LinkedHashMap<>();
+        final BitBoard rootBoard = new BitBoard(board);
+        final int[] moves = new int[BitBoard.MAX_MOVES];
+        final int numMoves = rootBoard.generateLegalMoves(moves);
+
+        for(int i = 0; i < numMoves; i++) {
+            rootBoard.makeMove(moves[i]);
+            result.put(BitMove.toString(moves[i]), this.perft(rootBoard, depth - 1));
+            rootBoard.unmakeMove();
+        }
+
+        return result;
+    }
+
+    /**
+     * Questo metodo conta le foglie usando direttamente la {@link VirtualBoard}, come fa la GUI
+     * @param board scacchiera virtuale di partenza
+     * @param depth profondità da raggiungere
+     * @return numero di foglie
+     */
+    public static long perft(final VirtualBoard board, final int depth) {
+        if(depth == 0)
+            return 1L;
+
+        long nodes = 0L;
+
+        for(final Move move : board.getCurrentPlayer().getUsableMoves()) {
+            final MoveTransition transition = board.getCurrentPlayer().doMove(move);
+
+            if(transition.moveStatus().isDone())
+                nodes += perft(transition.toBoard(), depth - 1);
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Questo metodo conta le foglie per ogni mossa della {@link VirtualBoard}.
+     * Le mosse sono scritte come coordinate, cosi il risultato è confrontabile con quello della {@link BitBoard}.
+     * @param board scacchiera virtuale di partenza
+     * @param depth profondità da raggiungere, compresa la mossa iniziale
+     * @return numero di foglie per ogni mossa. ex: e2-e4 -> 600
+     */
+    public static Map<String, Long> divide(final VirtualBoard board, final int depth) {
+        final Map<String, Long> result = new LinkedHashMap<>();
+
+        for(final Move move : board.getCurrentPlayer().getUsableMoves()) {
+            final MoveTransition transition = board.getCurrentPlayer().doMove(move);
+
+            if(transition.moveStatus().isDone())
+                result.put(BitMove.toString(BitMove.fromMove(move)), perft(transition.toBoard(), depth - 1));
+        }
+
+        return result;
+    }
+
+    /**
+     * @param nodes numero di foglie contate
+     * @param nanos tempo impiegato in nanosecondi
+     * @return foglie al secondo
+     */
+    public static double nodesPerSecond(final long nodes, final long nanos) {
+        return nanos == 0 ? 0.0 : nodes * NANOS_PER_SECOND / nanos;
+    }
+
+    /**
+     * Questo metodo conta le foglie in modo sequenziale, eseguendo e annullando le mosse sulla stessa scacchiera.
+     * All'ultimo livello le mosse vengono solamente contate, senza eseguirle.
+     * @param board scacchiera a bit, alla fine è uguale a prima della chiamata
+     * @param depth profondità da raggiungere, almeno 1
+     * @param moves una lista di mosse per ogni livello
+     * @return numero di foglie
+     */
+    private long count(final BitBoard board, final int depth, final int[][] moves) {
+        final int[] levelMoves = moves[depth];
+
+        if(depth == 1)
+            return board.generateLegalMoves(levelMoves);
+
+        final long hashedNodes = this.probe(board.getZobristKey(), depth);
+
+        if(hashedNodes >= 0)
+            return hashedNodes;
+
+        final int numMoves = board.generateLegalMoves(levelMoves);
+        long nodes = 0L;
+
+        for(int i = 0; i < numMoves; i++) {
+            board.makeMove(levelMoves[i]);
+            nodes += this.count(board, depth - 1, moves);
+            board.unmakeMove();
+        }
+
+        this.store(board.getZobristKey(), depth, nodes);
+
+        return nodes;
+    }
+
+    /**
+     * Questo metodo cerca nella tabella hash le foglie già contate di una posizione.
+     * La chiave è salvata in XOR con il valore: se due processori scrivono lo stesso elemento nello stesso momento
+     * la verifica fallisce e il sottoalbero viene semplicemente contato di nuovo.
+     * @param key chiave della posizione
+     * @param depth profondità del sottoalbero
+     * @return numero di foglie oppure -1 se la posizione non è nella tabella
+     */
+    private long probe(final long key, final int depth) {
+        if(this.hashKeys == null || depth < MIN_HASH_DEPTH)
+            return -1L;
+
+        final int index = (int) key & this.hashMask;
+        final long value = this.hashValues[index];
+
+        return (this.hashKeys[index] ^ value) == key && (value & DEPTH_MASK) == depth ? value >>> DEPTH_BITS : -1L;
+    }
+
+    /**
+     * Questo metodo salva nella tabella hash le foglie di una posizione, sostituendo sempre l'elemento precedente
+     * @param key chiave della posizione
+     * @param depth profondità del sottoalbero
+     * @param nodes numero di foglie
+     */
+    private void store(final long key, final int depth, final long nodes) {
+        if(this.hashKeys == null || depth < MIN_HASH_DEPTH)
+            return;
+
+        final int index = (int) key & this.hashMask;
+        final long value = (nodes << DEPTH_BITS) | depth;
+
+        this.hashKeys[index] = key ^ value;
+        this.hashValues[index] = value;
+    }
+
+    /**
+     * Questa classe rappresenta il conteggio di un sottoalbero, da dividere tra i processori.
+     * Ogni task ha la sua copia della scacchiera, quindi i task non condividono nulla a parte la tabella hash.
+     */
+    private final class PerftTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+        private final BitBoard board;
+        private final int depth;
+
+        private PerftTask(final BitBoard board, final int depth) {
+            this.board = board;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if(this.depth < MIN_PARALLEL_DEPTH)
+                return count(this.board, this.depth, new int[this.depth + 1][BitBoard.MAX_MOVES]);
+
+            final long hashedNodes = probe(this.board.getZobristKey(), this.depth);
+
+            if(hashedNodes >= 0)
+                return hashedNodes;
+
+            final int[] moves = new int[BitBoard.MAX_MOVES];
+            final int numMoves = this.board.generateLegalMoves(moves);
+            final List<PerftTask> tasks = new ArrayList<>(numMoves);
+
+            for(int i = 0; i < numMoves; i++) {
+                this.board.makeMove(moves[i]);
+                tasks.add(new PerftTask(new BitBoard(this.board), this.depth - 1));
+                this.board.unmakeMove();
+            }
+
+            long nodes = 0L;
+
+            for(final PerftTask task : invokeAll(tasks))
+                nodes += task.join();
+
+            store(this.board.getZobristKey(), this.depth, nodes);
+
+            return nodes;
+        }
+    }
+
+    public static void main(final String[] args) {
+        int maxDepth = 5;
+        boolean isParallel = false;
+        boolean isVirtual = false;
+        int hashSizeMb = 0;
+        String fen = null;
+
+        for(int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-p" -> isParallel = true;
+                case "-v" -> isVirtual = true;
+                case "-h" -> hashSizeMb = Integer.parseInt(args[++i]);
+                case "-f" -> fen = args[++i];
+                default -> maxDepth = Integer.parseInt(args[i]);
+            }
+        }
+
+        final Perft perft = new Perft(isParallel, hashSizeMb);
+
+        if(fen != null) {
+            final long startTime = System.nanoTime();
+            final Map<String, Long> divide = isVirtual ?
+                    divide(BitBoard.fromFen(fen).toVirtualBoard(), maxDepth) :
+                    perft.divide(BitBoard.fromFen(fen), maxDepth);
+            final long executionTime = System.nanoTime() - startTime;
+            final long nodes = divide.values().stream().mapToLong(Long::longValue).sum();
+
+            divide.forEach((move, moveNodes) -> System.out.println(move + ": " + moveNodes));
+            System.out.printf("moves = %d, nodes = %d, time taken = %d ms, rate = %.0f nodes/s\n", divide.size(), nodes,
+                    executionTime / 1_000_000, nodesPerSecond(nodes, executionTime));
+            return;
+        }
+
+        boolean isCorrect = true;
+
+        for(final PerftPosition position : PerftPosition.values()) {
+            for(int depth = 1; depth <= Math.min(maxDepth, position.getMaxDepth()); depth++) {
+                final long startTime = System.nanoTime();
+                final long nodes = isVirtual ? perft(position.toVirtualBoard(), depth) : perft.perft(position.toBitBoard(), depth);
+                final long executionTime = System.nanoTime() - startTime;
+                final boolean isExpected = nodes == position.getExpectedNodes(depth);
+
+                isCorrect &= isExpected;
+                System.out.printf("%-10s depth %d: nodes = %d %s, time taken = %d ms, rate = %.0f nodes/s\n", position, depth, nodes,
+                        isExpected ? "OK" : "ERROR (expected " + position.getExpectedNodes(depth) + ")",
+                        executionTime / 1_000_000, nodesPerSecond(nodes, executionTime));
+            }
+        }
+
+        System.out.println(isCorrect ? "All perft counts are correct" : "Some perft counts are WRONG");
+    }
+}
@@ -0,0 +1,65 @@
+package core.board;
+
+/**
+ * Questa classe enum contiene le posizioni di riferimento per il "perft", con il numero di foglie atteso a ogni profondità.
+ * I valori sono quelli pubblicati e verificati da più motori: se il conteggio è diverso il generatore di mosse ha un errore.
+ */
+public enum PerftPosition {
+    START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            20L, 400L, 8_902L, 197_281L, 4_865_609L, 119_060_324L),
+    KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            48L, 2_039L, 97_862L, 4_085_603L, 193_690_690L),
+    ENDGAME("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            14L, 191L, 2_812L, 43_238L, 674_624L, 11_030_083L),
+    PROMOTIONS("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            6L, 264L, 9_467L, 422_333L, 15_833_292L),
+    TALKCHESS("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            44L, 1_486L, 62_379L, 2_103_487L, 89_941_194L),
+    MIDDLEGAME("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            46L, 2_079L, 89_890L, 3_894_594L, 164_075_551L);
+
+    private final String fen;
+    private final long[] expectedNodes;
+
+    PerftPosition(final String fen, final long... expectedNodes) {
+        this.fen = fen;
+        this.expectedNodes = expectedNodes;
+    }
+
+    /**
+     * Metodo GETTER per incapsulare l'attributo "fen"
+     * @return posizione in notazione FEN
+     */
+    public String getFen() {
+        return this.fen;
+    }
+
+    /**
+     * @return profondità massima per la quale è noto il numero di foglie
+     */
+    public int getMaxDepth() {
+        return this.expectedNodes.length;
+    }
+
+    /**
+     * @param depth profondità, da 1 a {@link #getMaxDepth()}
+     * @return numero di foglie atteso alla profondità indicata
+     */
+    public long getExpectedNodes(final int depth) {
+        return this.expectedNodes[depth - 1];
+    }
+
+    /**
+     * @return scacchiera a bit della posizione
+     */
+    public BitBoard toBitBoard() {
+        return BitBoard.fromFen(this.fen);
+    }
+
+    /**
+     * @return scacchiera virtuale della posizione
+     */
+    public VirtualBoard toVirtualBoard() {
+        return this.toBitBoard().toVirtualBoard();
+    }
+}
@@ -0,0 +1,159 @@
+package core.board;
+
+import static core.board.BitBoardUtils.*;
+
+/**
+ * Questa classe calcola gli attacchi delle pedine che scorrono (torre, alfiere e regina) con la tecnica dei "magic bitboard".
+ * Per ogni cella viene isolata l'occupazione rilevante (le celle raggiungibili escluso il bordo), moltiplicata per un numero "magico"
+ * e spostata a destra: il risultato è l'indice della tabella che contiene già gli attacchi calcolati all'avvio.
+ * Cosi l'attacco di una pedina costa una moltiplicazione, uno spostamento e una lettura, indipendentemente dalla posizione.
+ */
+public final class SliderAttacks {
+
+    // Numeri magici calcolati per la numerazione delle celle della {@link VirtualBoard} (0 = a8, 63 = h1)
+    private static final long[] ROOK_MAGICS = {
+            0x0080001480244002L, 0x4940200140001000L, 0x0200200880401200L, 0x0900100020F9000CL,
+            0x0100050008001002L, 0x0200100804810200L, 0x0C00120420981001L, 0x8200050210802444L,
+            0x80518001401080A8L, 0x0621002100904002L, 0x0041801000200082L, 0x040B000890010360L,
+            0x0001001004080100L, 0x0107802401120080L, 0x4001010100020004L, 0x0001000224805900L,
+            0x0110208008884008L, 0x8A00808040002000L, 0x0820008080100020L, 0x1400808008001000L,
+            0x8004808008000400L, 0x3000808004000200L, 0x1004040002017008L, 0x210A020000811044L,
+            0x0040400080208000L, 0x0130004140022000L, 0x9800200300410014L, 0x00C5200D00100100L,
+            0x0488001100090184L, 0x2202040801201040L, 0x0B0E820080800100L, 0x200A209200005401L,
+            0x0100804000800020L, 0x2100401101002084L, 0x2000801004802000L, 0x4048400A02001020L,
+            0x041C000801010010L, 0x1000408408012010L, 0x6814021004000108L, 0x8060086092000409L,
+            0xC060204000888000L, 0x4002500220044005L, 0x0020802200420018L, 0x4104081001010020L,
+            0x1020080011010005L, 0x000E000400808002L, 0x0822000104020088L, 0x400014108542000BL,
+            0x8050800040003080L, 0x4200804000200080L, 0x0801260040128200L, 0x0000100008008080L,
+            0x0000040008008080L, 0x4000800400020080L, 0x0400100102088400L, 0xE422040100804200L,
+            0xC004C09100620282L, 0x000014810167C001L, 0x1180200842001082L, 0x0001049001002009L,
+            0x0006001004082002L, 0x4C0A001004080102L, 0x8092002800840142L, 0xA420028504012042L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x4040010404008020L, 0x2290040810484000L, 0x2488022046020092L, 0x0004404081010041L,
+            0x004404224800E020L, 0x0000880441300004L, 0x00028401C8400042L, 0x0000402610104400L,
+            0x0200402901140880L, 0x8500AA0C0104150CL, 0x0000210101020000L, 0x0080244040800000L,
+            0x0004040420480000L, 0x0005620804058800L, 0x8000820084044004L, 0x4040828401211101L,
+            0x00040008B0048800L, 0x0002001002880100L, 0x0013082204040083L, 0x9008028420429088L,
+            0x0004000080E00260L, 0x0805010090089000L, 0x0404800342109002L, 0xE130800428841041L,
+            0x0004404084480800L, 0x801008200D290420L, 0x0000820510002200L, 0x0408080000820002L,
+            0x2209080401004010L, 0x014204080080A001L, 0x4004850202080A28L, 0x00140B0000231132L,
+            0x201128C000200450L, 0x0880900800108200L, 0x0014004418080020L, 0x8000200500080108L,
+            0x2004010200040084L, 0x1020082080004041L, 0x000168008C010C00L, 0x000800418002C21AL,
+            0x040904212000040CL, 0x0214411820000900L, 0x0084222030040802L, 0x020040C200840804L,
+            0x8090C04092000104L, 0x0098011808880200L, 0x0810424484000300L, 0x88100C8302410301L,
+            0x8002513050100600L, 0x00010062122020C0L, 0x0000848048080140L, 0x0000150094140005L,
+            0x8803400803040000L, 0x4000200801084000L, 0x0220820421042002L, 0x12100400A4204006L,
+            0x024300404C200800L, 0x448400450088A000L, 0x0000120820941000L, 0xA008040820411089L,
+            0x0000024008A10100L, 0x0000010811412200L, 0x0592400801011200L, 0x3010600800435540L
+    };
+
+    private static final long[] ROOK_MASKS = new long[VirtualBoardUtils.NUM_TILES];
+    private static final long[] BISHOP_MASKS = new long[VirtualBoardUtils.NUM_TILES];
+    private static final int[] ROOK_SHIFTS = new int[VirtualBoardUtils.NUM_TILES];
+    private static final int[] BISHOP_SHIFTS = new int[VirtualBoardUtils.NUM_TILES];
+    private static final int[] ROOK_OFFSETS = new int[VirtualBoardUtils.NUM_TILES];
+    private static final int[] BISHOP_OFFSETS = new int[VirtualBoardUtils.NUM_TILES];
+    private static final long[] ROOK_ATTACKS = initRookAttacks();
+    private static final long[] BISHOP_ATTACKS = initBishopAttacks();
+
+    /**
+     * Il costruttore della classe è privato perché la classe contiene solamente metodi statici
+     */
+    private SliderAttacks() {
+        throw new RuntimeException("Ma come pensi di potermi istanziare!?");
+    }
+
+    /**
+     * Questo metodo calcola le celle attaccate da una torre
+     * @param square cella della torre
+     * @param occupancy maschera di tutte le celle occupate
+     * @return maschera delle celle attaccate, compresa la prima pedina incontrata in ogni direzione
+     */
+    public static long rookAttacks(final int square, final long occupancy) {
+        return ROOK_ATTACKS[ROOK_OFFSETS[square] + (int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * Questo metodo calcola le celle attaccate da un alfiere
+     * @param square cella dell'alfiere
+     * @param occupancy maschera di tutte le celle occupate
+     * @return maschera delle celle attaccate, compresa la prima pedina incontrata in ogni direzione
+     */
+    public static long bishopAttacks(final int square, final long occupancy) {
+        return BISHOP_ATTACKS[BISHOP_OFFSETS[square] + (int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    /**
+     * Questo metodo calcola le celle attaccate da una regina, come unione degli attacchi di torre e alfiere
+     * @param square cella della regina
+     * @param occupancy maschera di tutte le celle occupate
+     * @return maschera delle celle attaccate
+     */
+    public static long queenAttacks(final int square, final long occupancy) {
+        return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+    }
+
+    /**
+     * Questo metodo crea la tabella degli attacchi della torre.
+     * L'occupazione rilevante esclude l'ultima cella di ogni direzione, perché una pedina sul bordo non cambia l'attacco.
+     * @return tabella degli attacchi di tutte le celle, una di seguito all'altra
+     */
+    private static long[] initRookAttacks() {
+        for(int square = 0; square < VirtualBoardUtils.NUM_TILES; square++) {
+            final long emptyAttacks = slidingRookAttacks(square, EMPTY);
+            final long column = emptyAttacks & (FILE_A << (square & 7));
+            final long row = emptyAttacks & (RANK_8 << (square & ~7));
+
+            ROOK_MASKS[square] = (column & ~(RANK_1 | RANK_8)) | (row & ~(FILE_A | FILE_H));
+        }
+
+        return initAttacks(ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS, true);
+    }
+
+    /**
+     * Questo metodo crea la tabella degli attacchi dell'alfiere
+     * @return tabella degli attacchi di tutte le celle, una di seguito all'altra
+     */
+    private static long[] initBishopAttacks() {
+        for(int square = 0; square < VirtualBoardUtils.NUM_TILES; square++) {
+            BISHOP_MASKS[square] = slidingBishopAttacks(square, EMPTY) & ~(RANK_1 | RANK_8 | FILE_A | FILE_H);
+        }
+
+        return initAttacks(BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS, false);
+    }
+
+    /**
+     * Questo metodo riempie la tabella degli attacchi enumerando tutti i sottoinsiemi dell'occupazione rilevante di ogni cella
+     * @param masks occupazione rilevante di ogni cella
+     * @param magics numeri magici di ogni cella
+     * @param shifts spostamento da calcolare per ogni cella
+     * @param offsets inizio della porzione di tabella di ogni cella
+     * @param isRook "TRUE" per la torre, "FALSE" per l'alfiere
+     * @return tabella degli attacchi
+     */
+    private static long[] initAttacks(final long[] masks, final long[] magics, final int[] shifts, final int[] offsets, final boolean isRook) {
+        int size = 0;
+
+        for(int square = 0; square < VirtualBoardUtils.NUM_TILES; square++) {
+            shifts[square] = Long.SIZE - count(masks[square]);
+            offsets[square] = size;
+            size += 1 << count(masks[square]);
+        }
+
+        final long[] attacks = new long[size];
+
+        for(int square = 0; square < VirtualBoardUtils.NUM_TILES; square++) {
+            long subset = EMPTY;
+
+            do {
+                final int index = offsets[square] + (int) ((subset * magics[square]) >>> shifts[square]);
+                attacks[index] = isRook ? slidingRookAttacks(square, subset) : slidingBishopAttacks(square, subset);
+                subset = (subset - masks[square]) & masks[square];
+            } while(subset != EMPTY);
+        }
+
+        return attacks;
+    }
+}
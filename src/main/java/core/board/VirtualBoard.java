@@ -4,7 +4,6 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import core.move.MoveFactory;
 import core.pieces.*;
-import core.pieces.piece.PieceAssistant;
 import core.pieces.piece.PieceDeserializer;
 import core.utils.Utils;
 import core.move.Move;
@@ -12,15 +11,19 @@ import core.player.BlackPlayer;
 import core.player.Player;
 import core.player.WhitePlayer;
 import core.pieces.piece.Piece;
+import core.pieces.piece.PieceType;
+import core.pieces.piece.PieceUtils;
+import lombok.AccessLevel;
 import lombok.Getter;
 import util.Configuration;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Map;
+import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -33,41 +36,60 @@ import static util.Constants.*;
  */
 @Getter
 public final class VirtualBoard {
-    private final Map<Integer, Piece> configuration;
+    private static final int MAX_PIECES_PER_UTILS = 16;
+
+    @Getter(AccessLevel.NONE)
+    private final Piece[] configuration;
     private final Player currentPlayer;
     private final WhitePlayer whitePlayer;
     private final BlackPlayer blackPlayer;
     private final Collection<Piece> whitePieces;
     private final Collection<Piece> blackPieces;
+    @Getter(AccessLevel.NONE)
+    private final List<Piece>[] pieceLists;
     private final Pawn enPassantPawn;
     private final Move transitionMove;
+    @Getter(AccessLevel.NONE)
+    private final long[] pieceBoards;
+    private final long whiteOccupancy;
+    private final long blackOccupancy;
+    private final long zobristKey;
+    private final int halfMoveClock;
+    @Getter(AccessLevel.NONE)
+    private Collection<Move> whitePieceMoves;
+    @Getter(AccessLevel.NONE)
+    private Collection<Move> blackPieceMoves;
 
     private static final VirtualBoard DEFAULT_BOARD = initDefaultBoard();
     
     /**
-     * All'interno del costruttore vengono creati i giocatori, calcolate le mosse usabili alla prima mossa,
-     * scegliere il primo giocatore che dovrà muovere e altri parametri del {@link VirtualBoard}
+     * All'interno del costruttore vengono creati i giocatori, scelto il primo giocatore che dovrà muovere e altri parametri del {@link VirtualBoard}.
+     * Le mosse usabili non vengono calcolate qui ma alla prima richiesta, vedi {@link #getPieceMoves(Utils)}
      * @param boardConfigurator che serve per mappare le pedine, transizioni,... sulla scacchiera
      */
     public VirtualBoard(final BoardConfigurator boardConfigurator) {
-        this.configuration = Collections.unmodifiableMap(boardConfigurator.getConfiguration());
+        this.configuration = boardConfigurator.shareConfiguration();
+        this.pieceBoards = calculatePieceBoards(this.configuration);
+        this.whiteOccupancy = calculateOccupancyByUtils(this.pieceBoards, WHITE);
+        this.blackOccupancy = calculateOccupancyByUtils(this.pieceBoards, BLACK);
 
         if(!Configuration.isDrawingMode) {
-            this.whitePieces = calculateActivePiecesByUtils(boardConfigurator, WHITE);
-            this.blackPieces = calculateActivePiecesByUtils(boardConfigurator, Utils.BLACK);
+            this.whitePieces = calculateActivePiecesByUtils(this.configuration, WHITE);
+            this.blackPieces = calculateActivePiecesByUtils(this.configuration, Utils.BLACK);
+            this.pieceLists = calculatePieceLists(this.configuration);
             this.enPassantPawn = boardConfigurator.getEnPassant();
 
-            final Collection<Move> whiteUsableMoves = this.calculateUsableMoves(this.whitePieces);
-            final Collection<Move> blackUsableMoves = this.calculateUsableMoves(this.blackPieces);
-
-            this.whitePlayer = new WhitePlayer(this, whiteUsableMoves, blackUsableMoves, Configuration.isDrawingMode);
-            this.blackPlayer = new BlackPlayer(this, whiteUsableMoves, blackUsableMoves, Configuration.isDrawingMode);
+            this.whitePlayer = new WhitePlayer(this, Configuration.isDrawingMode);
+            this.blackPlayer = new BlackPlayer(this, Configuration.isDrawingMode);
 
             this.currentPlayer = boardConfigurator.getNextMoveMaker().selectPlayerByUtils(this.whitePlayer, this.blackPlayer);
             this.transitionMove = boardConfigurator.getMoveTransition() != null ? boardConfigurator.getMoveTransition() : MoveFactory.getNullMove();
+            this.zobristKey = ZobristKeys.calculateKey(this.configuration, boardConfigurator.getNextMoveMaker(), this.enPassantPawn);
+            this.halfMoveClock = calculateHalfMoveClock(boardConfigurator.getMoveTransition());
         } else {
             this.whitePieces = null;
             this.blackPieces = null;
+            this.pieceLists = null;
 
             this.whitePlayer = null;
             this.blackPlayer = null;
@@ -75,6 +97,8 @@ public final class VirtualBoard {
             this.currentPlayer = null;
             this.transitionMove = null;
             this.enPassantPawn = null;
+            this.zobristKey = 0L;
+            this.halfMoveClock = 0;
         }
     }
 
@@ -84,7 +108,97 @@ public final class VirtualBoard {
      * @return pedina situata alla coordinata
      */
     public Piece getPiece(final int id) {
-        return this.configuration.get(id);
+        return this.configuration[id];
+    }
+
+    /**
+     * @return pedine indicizzate per cella (null se la cella è vuota), condivise con le altre scacchiere e da non modificare
+     */
+    Piece[] getConfiguration() {
+        return this.configuration;
+    }
+
+    /**
+     * @return maschera a 64 bit di tutte le celle occupate, usata per calcolare gli attacchi delle pedine che scorrono
+     */
+    public long getOccupancy() {
+        return this.whiteOccupancy | this.blackOccupancy;
+    }
+
+    /**
+     * @param utils colore delle pedine
+     * @return maschera a 64 bit delle celle occupate dalle pedine del colore indicato
+     */
+    public long getOccupancy(final Utils utils) {
+        return utils == WHITE ? this.whiteOccupancy : this.blackOccupancy;
+    }
+
+    /**
+     * @param pieceType tipo di pedina
+     * @param utils colore delle pedine
+     * @return maschera a 64 bit delle celle occupate dalle pedine del tipo e del colore indicati
+     */
+    public long getPieces(final PieceType pieceType, final Utils utils) {
+        return this.pieceBoards[BitBoard.pieceIndex(pieceType, utils)];
+    }
+
+    /**
+     * @param pieceType tipo di pedina
+     * @param utils colore delle pedine
+     * @return pedine del tipo e del colore indicati, ordinate per cella, senza dover filtrare tutte le pedine attive
+     */
+    public List<Piece> getPieceList(final PieceType pieceType, final Utils utils) {
+        return this.pieceLists[BitBoard.pieceIndex(pieceType, utils)];
+    }
+
+    /**
+     * @param utils colore del RE
+     * @return il RE del colore indicato, null se non è sulla scacchiera
+     */
+    public King getKing(final Utils utils) {
+        final List<Piece> kings = this.getPieceList(PieceType.KING, utils);
+        return kings.isEmpty() ? null : (King) kings.get(0);
+    }
+
+    /**
+     * Questo metodo calcola le pedine che attaccano una cella guardando dalla cella verso l'esterno,
+     * con le tabelle degli attacchi, senza dover generare le mosse dell'avversario
+     * @param square cella di riferimento
+     * @param byUtils colore delle pedine che attaccano
+     * @return maschera a 64 bit delle pedine che attaccano la cella
+     */
+    public long calculateAttackers(final int square, final Utils byUtils) {
+        return BitBoard.calculateAttackers(this.pieceBoards, square, byUtils, this.getOccupancy(), ~0L);
+    }
+
+    /**
+     * @param square cella di riferimento
+     * @param byUtils colore delle pedine che attaccano
+     * @return "TRUE" se almeno una pedina del colore indicato attacca la cella
+     */
+    public boolean isSquareAttacked(final int square, final Utils byUtils) {
+        return this.calculateAttackers(square, byUtils) != 0L;
+    }
+
+    /**
+     * Questo metodo ritorna le mosse delle pedine di un colore, senza gli arrocchi e senza verificare se lasciano il RE sotto scacco.
+     * Le mosse vengono calcolate alla prima richiesta e poi riutilizzate: la maggior parte delle scacchiere create durante
+     * la ricerca viene scartata dopo una sola domanda, quindi non serve calcolarle in anticipo per entrambi i colori.
+     * @param utils colore delle pedine
+     * @return collection di movimenti delle pedine del colore
+     */
+    public Collection<Move> getPieceMoves(final Utils utils) {
+        if(utils == WHITE) {
+            if(this.whitePieceMoves == null)
+                this.whitePieceMoves = this.calculateUsableMoves(this.whitePieces);
+
+            return this.whitePieceMoves;
+        }
+
+        if(this.blackPieceMoves == null)
+            this.blackPieceMoves = this.calculateUsableMoves(this.blackPieces);
+
+        return this.blackPieceMoves;
     }
 
     /**
@@ -137,22 +251,16 @@ public final class VirtualBoard {
         }
 
         if(!inFile.equals("")) {
-            final PieceAssistant pieceAssistant = new PieceAssistant();
             final Piece[] objs = gson.fromJson(inFile, Piece[].class);
 
+            // Le pedine lette dal file servono solamente come descrizione: sulla scacchiera vanno quelle già create
             for(Piece obj : objs) {
-                try {
-                    configurator.setPiece(pieceAssistant.init(
-                            Class.forName(obj.getClass().getCanonicalName()),
-                            obj.getPieceCoordinate(),
-                            (obj.getPieceUtils() == WHITE ? WHITE : BLACK),
-                            obj.isFirstMove(),
-                            obj.isCastledByQueen(),
-                            obj.isCastledByKing()
-                    ));
-                } catch(ClassNotFoundException e) {
-                    e.printStackTrace();
-                }
+                final int coordinate = VirtualBoardUtils.INSTANCE.getCoordinateAtPosition(obj.getPieceCoordinate());
+                final Utils utils = obj.getPieceUtils() == WHITE ? WHITE : BLACK;
+
+                configurator.setPiece(obj.getPieceType() == PieceType.KING ?
+                        PieceUtils.INSTANCE.getKing(coordinate, utils, true, false, obj.isCastledByKing(), obj.isCastledByQueen()) :
+                        PieceUtils.INSTANCE.getPiece(obj.getPieceType(), utils, coordinate, obj.isFirstMove()));
             }
 
             configurator.setMoveMaker(WHITE);
@@ -178,19 +286,91 @@ public final class VirtualBoard {
      */
     private Collection<Move> calculateUsableMoves(final Collection<Piece> pieces) {
         return pieces.stream().flatMap(piece -> piece.calculateMoves(this).stream())
-                .collect(Collectors.toList());
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Questo metodo calcola le semimosse dall'ultima cattura o mossa di pedone, partendo dalla scacchiera prima della mossa
+     * @param transitionMove mossa che ha portato alla scacchiera, null se la scacchiera non deriva da una mossa
+     * @return 0 dopo una cattura o una mossa di pedone, altrimenti le semimosse della scacchiera precedente + 1
+     */
+    private static int calculateHalfMoveClock(final Move transitionMove) {
+        if(transitionMove == null || transitionMove.getBoard() == null || transitionMove.isAttack() ||
+                transitionMove.getPieceToMove().getPieceType() == PieceType.PAWN)
+            return 0;
+
+        return transitionMove.getBoard().getHalfMoveClock() + 1;
     }
 
     /**
      * Questo metodo serve per capire quali pedine sono attive nel gioco in base al loro colore
      * per poterle dividere nei due attributi della classe {@link VirtualBoard}
-     * @param boardConfigurator serve per ottenere le pedine
+     * @param configuration pedine indicizzate per cella
      * @param utils serve a filtrare il colore delle pedine
      * @return collection di pedine attive
      */
-    private static Collection<Piece> calculateActivePiecesByUtils(final BoardConfigurator boardConfigurator, final Utils utils) {
-        return boardConfigurator.getConfiguration().values().stream()
-                .filter(piece -> piece.getPieceUtils() == utils)
-                .collect(Collectors.toList());
+    private static Collection<Piece> calculateActivePiecesByUtils(final Piece[] configuration, final Utils utils) {
+        final List<Piece> activePieces = new ArrayList<>(MAX_PIECES_PER_UTILS);
+
+        for(final Piece piece : configuration) {
+            if(piece != null && piece.getPieceUtils() == utils)
+                activePieces.add(piece);
+        }
+
+        return activePieces;
+    }
+
+    /**
+     * Questo metodo divide le pedine per tipo e colore con un solo passaggio sulle celle
+     * @param configuration pedine indicizzate per cella
+     * @return liste di pedine non modificabili, indicizzate come {@link BitBoard#pieceIndex} e ordinate per cella
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<Piece>[] calculatePieceLists(final Piece[] configuration) {
+        final List<Piece>[] pieceLists = new List[BitBoard.NUM_PIECES];
+
+        for(int i = 0; i < pieceLists.length; i++)
+            pieceLists[i] = new ArrayList<>();
+
+        for(final Piece piece : configuration) {
+            if(piece != null)
+                pieceLists[BitBoard.pieceIndex(piece.getPieceType(), piece.getPieceUtils())].add(piece);
+        }
+
+        for(int i = 0; i < pieceLists.length; i++)
+            pieceLists[i] = Collections.unmodifiableList(pieceLists[i]);
+
+        return pieceLists;
+    }
+
+    /**
+     * Questo metodo serve per calcolare la maschera delle celle occupate da ogni tipo di pedina di ogni colore
+     * @param configuration pedine indicizzate per cella
+     * @return maschere a 64 bit indicizzate come {@link BitBoard#pieceIndex}, il bit "i" è impostato se la cella "i" è occupata
+     */
+    private static long[] calculatePieceBoards(final Piece[] configuration) {
+        final long[] pieceBoards = new long[BitBoard.NUM_PIECES];
+
+        for(final Piece piece : configuration) {
+            if(piece != null)
+                pieceBoards[BitBoard.pieceIndex(piece.getPieceType(), piece.getPieceUtils())] |= 1L << piece.getPiecePosition();
+        }
+
+        return pieceBoards;
+    }
+
+    /**
+     * Questo metodo serve per calcolare la maschera delle celle occupate dalle pedine di un colore
+     * @param pieceBoards maschere di ogni tipo di pedina
+     * @param utils serve a filtrare il colore delle pedine
+     * @return maschera a 64 bit, il bit "i" è impostato se la cella "i" è occupata
+     */
+    private static long calculateOccupancyByUtils(final long[] pieceBoards, final Utils utils) {
+        long occupancy = 0L;
+
+        for(final PieceType pieceType : PieceType.values())
+            occupancy |= pieceBoards[BitBoard.pieceIndex(pieceType, utils)];
+
+        return occupancy;
     }
 }
@@ -1,5 +1,6 @@
 package core.board;
 
+import core.move.BitMove;
 import core.move.Move;
 import core.move.MoveFactory;
 import core.move.MoveTransition;
@@ -141,6 +142,25 @@ public enum VirtualBoardUtils {
         return PieceType.KING.getPieceValue() - movingPiece.getPieceValue();
     }
 
+    /**
+     * Questo metodo calcola lo stesso valore MVVLVA per una mossa codificata con {@link BitMove}
+     * @param board scacchiera a bit sulla quale la mossa non è ancora stata eseguita
+     * @param move la mossa che si sta valutando
+     * @return il delta (differenza) di valore tra le due pedine
+     */
+    public static int mvvlva(final BitBoard board, final int move) {
+        final int movingValue = board.getPieceType(BitMove.getFrom(move)).getPieceValue();
+
+        if(BitMove.isAttack(move)) {
+            final int attackedValue = BitMove.isEnPassant(move) ?
+                    PieceType.PAWN.getPieceValue() :
+                    board.getPieceType(BitMove.getTo(move)).getPieceValue();
+            return (attackedValue - movingValue + PieceType.KING.getPieceValue()) * 100;
+        }
+
+        return PieceType.KING.getPieceValue() - movingValue;
+    }
+
     /**
      * Questo metodo serve per calcolare le ultime N mosse effettuate
      * @param board scacchiera virtuale di riferimento
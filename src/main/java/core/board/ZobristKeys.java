@@ -0,0 +1,110 @@
+package core.board;
+
+import core.pieces.Pawn;
+import core.pieces.piece.Piece;
+import core.utils.Utils;
+
+import java.util.Random;
+
+/**
+ * Questa classe contiene i numeri casuali usati per calcolare la chiave "Zobrist" di una posizione.
+ * La chiave è lo XOR dei numeri di ogni pedina sulla sua cella, del colore che muove, degli arrocchi disponibili
+ * e della colonna dell'enpassant. Cosi la chiave può essere aggiornata a ogni mossa togliendo e aggiungendo solo
+ * i numeri che cambiano, senza dover ricalcolare tutta la scacchiera.
+ * I numeri sono generati con un seme fisso, quindi la stessa posizione ha sempre la stessa chiave.
+ */
+public final class ZobristKeys {
+
+    private static final long SEED = 0x5EED_C0DE_2023L;
+    private static final int NUM_PIECES = 12;
+    private static final int NUM_CASTLING_RIGHTS = 16;
+
+    private static final long[][] PIECE_SQUARE_KEYS = new long[NUM_PIECES][VirtualBoardUtils.NUM_TILES];
+    private static final long[] CASTLING_KEYS = new long[NUM_CASTLING_RIGHTS];
+    private static final long[] EN_PASSANT_KEYS = new long[BitBoard.NO_SQUARE + 1];
+    private static final long SIDE_KEY;
+
+    static {
+        final Random random = new Random(SEED);
+
+        for(final long[] squareKeys : PIECE_SQUARE_KEYS) {
+            for(int square = 0; square < VirtualBoardUtils.NUM_TILES; square++)
+                squareKeys[square] = random.nextLong();
+        }
+
+        for(int castlingRights = 1; castlingRights < NUM_CASTLING_RIGHTS; castlingRights++)
+            CASTLING_KEYS[castlingRights] = random.nextLong();
+
+        // L'enpassant dipende solamente dalla colonna: la riga è sempre la terza o la sesta
+        final long[] columnKeys = new long[VirtualBoardUtils.NUM_TILES_ROW];
+
+        for(int column = 0; column < VirtualBoardUtils.NUM_TILES_ROW; column++)
+            columnKeys[column] = random.nextLong();
+
+        for(int square = 0; square < VirtualBoardUtils.NUM_TILES; square++)
+            EN_PASSANT_KEYS[square] = columnKeys[square & 7];
+
+        SIDE_KEY = random.nextLong();
+    }
+
+    /**
+     * Il costruttore della classe è privato perché la classe contiene solamente metodi statici
+     */
+    private ZobristKeys() {
+        throw new RuntimeException("Ma come pensi di potermi istanziare!?");
+    }
+
+    /**
+     * @param pieceIndex indice della pedina, come {@link BitBoard#pieceIndex}
+     * @param square cella della pedina
+     * @return numero della pedina sulla cella
+     */
+    public static long piece(final int pieceIndex, final int square) {
+        return PIECE_SQUARE_KEYS[pieceIndex][square];
+    }
+
+    /**
+     * @param castlingRights arrocchi disponibili, come combinazione delle costanti di {@link BitBoard}
+     * @return numero degli arrocchi (0 se nessun arrocco è disponibile)
+     */
+    public static long castling(final int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    /**
+     * @param enPassantSquare cella dell'enpassant oppure {@link BitBoard#NO_SQUARE}
+     * @return numero della colonna dell'enpassant (0 se non c'è enpassant)
+     */
+    public static long enPassant(final int enPassantSquare) {
+        return EN_PASSANT_KEYS[enPassantSquare];
+    }
+
+    /**
+     * @return numero da aggiungere quando deve muovere il nero
+     */
+    public static long side() {
+        return SIDE_KEY;
+    }
+
+    /**
+     * Questo metodo calcola da zero la chiave di una posizione della {@link VirtualBoard}.
+     * Gli arrocchi seguono le stesse regole di {@link BitBoard#fromVirtualBoard}, cosi le due scacchiere hanno la stessa chiave.
+     * @param configuration pedine della scacchiera, indicizzate per cella
+     * @param moveMaker colore che deve muovere
+     * @param enPassantPawn pedone catturabile in enpassant oppure null
+     * @return chiave della posizione
+     */
+    public static long calculateKey(final Piece[] configuration, final Utils moveMaker, final Pawn enPassantPawn) {
+        long key = castling(BitBoard.calculateCastlingRights(configuration));
+
+        for(final Piece piece : configuration) {
+            if(piece != null)
+                key ^= piece(BitBoard.pieceIndex(piece.getPieceType(), piece.getPieceUtils()), piece.getPiecePosition());
+        }
+
+        if(enPassantPawn != null)
+            key ^= enPassant(enPassantPawn.getPiecePosition() + enPassantPawn.getPieceUtils().getOppositeDirection() * VirtualBoardUtils.NUM_TILES_ROW);
+
+        return moveMaker == Utils.BLACK ? key ^ SIDE_KEY : key;
+    }
+}
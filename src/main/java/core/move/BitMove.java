@@ -0,0 +1,154 @@
+package core.move;
+
+import core.board.VirtualBoardUtils;
+import core.pieces.piece.PieceType;
+
+/**
+ * Questa classe serve per rappresentare una mossa come un unico numero intero, da usare con la {@link core.board.BitBoard}.
+ * Composizione: bit 0-5 cella di partenza, bit 6-11 cella di destinazione, bit 12-16 tipo di mossa,
+ * bit 17-19 tipo di pedina della promozione.
+ * Cosi la ricerca non deve creare un oggetto {@link Move} per ogni mossa generata.
+ */
+public final class BitMove {
+    public static final int NULL_MOVE = 0;
+
+    public static final int CAPTURE = 1 << 12;
+    public static final int EN_PASSANT = 1 << 13;
+    public static final int PAWN_JUMP = 1 << 14;
+    public static final int CASTLE = 1 << 15;
+    public static final int PROMOTION = 1 << 16;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 17;
+    private static final int PROMOTION_MASK = 0x7;
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    /**
+     * Il costruttore della classe è privato perché la classe contiene solamente metodi statici
+     */
+    private BitMove() {
+        throw new RuntimeException("Ma come pensi di potermi istanziare!?");
+    }
+
+    /**
+     * @param from cella di partenza
+     * @param to cella di destinazione
+     * @param flags tipo di mossa, come combinazione delle costanti CAPTURE, EN_PASSANT,...
+     * @return la mossa codificata
+     */
+    public static int create(final int from, final int to, final int flags) {
+        return from | (to << TO_SHIFT) | flags;
+    }
+
+    /**
+     * @param from cella di partenza
+     * @param to cella di destinazione
+     * @param flags tipo di mossa, come combinazione delle costanti CAPTURE, EN_PASSANT,...
+     * @param promotionType tipo di pedina nella quale viene promosso il pedone
+     * @return la mossa codificata con la promozione
+     */
+    public static int create(final int from, final int to, final int flags, final PieceType promotionType) {
+        return create(from, to, flags | PROMOTION) | (promotionType.ordinal() << PROMOTION_SHIFT);
+    }
+
+    /**
+     * Questo metodo converte una mossa della {@link core.board.VirtualBoard} nella sua codifica intera
+     * @param move mossa da convertire
+     * @return la mossa codificata oppure NULL_MOVE se la mossa è nulla
+     */
+    public static int fromMove(final Move move) {
+        if(move == MoveFactory.getNullMove() || move.getPieceToMove() == null)
+            return NULL_MOVE;
+
+        int flags = move.isAttack() ? CAPTURE : 0;
+
+        if(move instanceof PawnEnPassantAttack)
+            flags |= EN_PASSANT;
+        else if(move instanceof PawnJump)
+            flags |= PAWN_JUMP;
+        else if(move.isCastlingMove())
+            flags |= CASTLE;
+
+        if(move instanceof final PawnPromotion promotion)
+            return create(move.getCurrentCoordinate(), move.getDestinationCoordinate(), flags, promotion.getPromotionPiece().getPieceType());
+
+        return create(move.getCurrentCoordinate(), move.getDestinationCoordinate(), flags);
+    }
+
+    /**
+     * @param move mossa codificata
+     * @return cella di partenza
+     */
+    public static int getFrom(final int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * @param move mossa codificata
+     * @return cella di destinazione
+     */
+    public static int getTo(final int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * @param move mossa codificata
+     * @return "TRUE" se la mossa cattura una pedina, enpassant compreso
+     */
+    public static boolean isAttack(final int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * @param move mossa codificata
+     * @return "TRUE" se la mossa è una cattura enpassant
+     */
+    public static boolean isEnPassant(final int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    /**
+     * @param move mossa codificata
+     * @return "TRUE" se la mossa è il salto iniziale di due celle del pedone
+     */
+    public static boolean isPawnJump(final int move) {
+        return (move & PAWN_JUMP) != 0;
+    }
+
+    /**
+     * @param move mossa codificata
+     * @return "TRUE" se la mossa è un arrocco
+     */
+    public static boolean isCastlingMove(final int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    /**
+     * @param move mossa codificata
+     * @return "TRUE" se la mossa è una promozione
+     */
+    public static boolean isPromotion(final int move) {
+        return (move & PROMOTION) != 0;
+    }
+
+    /**
+     * @param move mossa codificata
+     * @return tipo di pedina della promozione oppure null se la mossa non è una promozione
+     */
+    public static PieceType getPromotionType(final int move) {
+        return isPromotion(move) ? PIECE_TYPES[(move >>> PROMOTION_SHIFT) & PROMOTION_MASK] : null;
+    }
+
+    /**
+     * @param move mossa codificata
+     * @return la mossa scritta come coordinate. ex: e2-e4, e7-e8=Q
+     */
+    public static String toString(final int move) {
+        final String coordinates = VirtualBoardUtils.INSTANCE.getPositionAtCoordinate(getFrom(move)) + "-" +
+                VirtualBoardUtils.INSTANCE.getPositionAtCoordinate(getTo(move));
+
+        return isPromotion(move) ? coordinates + "=" + getPromotionType(move) : coordinates;
+    }
+}
@@ -4,6 +4,7 @@ import core.board.BoardConfigurator;
 import core.board.VirtualBoard;
 import core.pieces.Rook;
 import core.pieces.piece.Piece;
+import core.pieces.piece.PieceUtils;
 import lombok.Getter;
 
 /**
@@ -56,15 +57,12 @@ public abstract class CastleMove extends Move {
      */
     @Override
     public VirtualBoard run() {
-        final BoardConfigurator configurator = new BoardConfigurator();
-
-        for(final Piece piece : this.board.getAllPieces()) {
-            if(!this.pieceToMove.equals(piece) && !this.castleRook.equals(piece))
-                configurator.setPiece(piece);
-        }
+        final BoardConfigurator configurator = new BoardConfigurator(this.board);
 
+        configurator.removePiece(this.pieceToMove.getPiecePosition());
+        configurator.removePiece(this.castleRook.getPiecePosition());
         configurator.setPiece(this.pieceToMove.movePiece(this));
-        configurator.setPiece(new Rook(this.castleRookDestination, this.castleRook.getPieceUtils(), false));
+        configurator.setPiece(PieceUtils.INSTANCE.getPieceAtCoordinate(Rook.class, this.castleRook.getPieceUtils(), this.castleRookDestination));
         configurator.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getUtils());
         configurator.setMoveTransition(this);
 
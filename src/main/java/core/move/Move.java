@@ -6,6 +6,10 @@ import core.board.VirtualBoardUtils;
 import core.pieces.piece.Piece;
 import lombok.Getter;
 
+import static core.board.BitBoardUtils.EMPTY;
+import static core.board.BitBoardUtils.firstSquare;
+import static core.board.BitBoardUtils.squareMask;
+
 /**
  * Questa classe rappresenta le mosse delle pedine e una classe la deve ereditare per poterla utilizzare
  */
@@ -61,11 +65,9 @@ public abstract class Move {
      * Aggiornate mediante la classe {@link VirtualBoard}
      */
     public VirtualBoard run() {
-        final BoardConfigurator builder = new BoardConfigurator();
-
-        this.board.getCurrentPlayer().getActivePieces().stream().filter(piece -> !this.pieceToMove.equals(piece)).forEach(builder::setPiece);
-        this.board.getCurrentPlayer().getOpponent().getActivePieces().forEach(builder::setPiece);
+        final BoardConfigurator builder = new BoardConfigurator(this.board);
 
+        builder.removePiece(this.pieceToMove.getPiecePosition());
         builder.setPiece(this.pieceToMove.movePiece(this));
         builder.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getUtils());
         builder.setMoveTransition(this);
@@ -74,8 +76,7 @@ public abstract class Move {
     }
 
     public VirtualBoard undo() {
-        final BoardConfigurator builder = new BoardConfigurator();
-        this.board.getAllPieces().forEach(builder::setPiece);
+        final BoardConfigurator builder = new BoardConfigurator(this.board);
         builder.setMoveMaker(this.board.getCurrentPlayer().getUtils());
 
         return builder.build();
@@ -103,11 +104,16 @@ public abstract class Move {
      * @return stringa che indica le coordinate in stringa della mossa
      */
     public String disambiguationFile() {
-        for(final Move move : this.board.getCurrentPlayer().getUsableMoves()) {
-            if(move.getDestinationCoordinate() == this.destinationCoordinate && !this.equals(move)
-                    && this.pieceToMove.getPieceType().equals(move.getPieceToMove().getPieceType())) {
+        long origins = this.board.getCurrentPlayer().getMoveIndex().getOrigins(this.destinationCoordinate) &
+                ~squareMask(this.pieceToMove.getPiecePosition());
+
+        while(origins != EMPTY) {
+            final int origin = firstSquare(origins);
+
+            if(this.pieceToMove.getPieceType().equals(this.board.getPiece(origin).getPieceType()))
                 return VirtualBoardUtils.INSTANCE.getPositionAtCoordinate(this.pieceToMove.getPiecePosition()).substring(0, 1);
-            }
+
+            origins &= origins - 1;
         }
 
         return "";
@@ -1,6 +1,7 @@
 package core.move;
 
 import core.board.VirtualBoard;
+import core.pieces.piece.Piece;
 
 /**
  * Questa classe serve per creare le mosse.
@@ -26,19 +27,31 @@ public class MoveFactory {
     }
 
     /**
-     * Questo metodo si occupa di ritornare le mosse attuabili tra tutte quelle attuabili su tutta la scacchiera
-     * filtrando per coordinata di partenza e destinazione
+     * Questo metodo si occupa di ritornare la mossa attuabile dal proprietario della pedina sulla cella di partenza,
+     * cercandola nell'indice delle sue mosse per coordinata di partenza e destinazione
      * @param board scacchiera virtuale di riferimento
      * @param sourceCoordinate coordinata di partenza della pedina
      * @param destinationCoordinate coordinata di destinazione della pedina
      * @return La mossa attuabile. Può essere solo una perché un movimento equivale a una mossa.
      */
     public static Move createMove(final VirtualBoard board, final int sourceCoordinate, final int destinationCoordinate) {
-        for(final Move move : board.getAllUsableMoves()) {
-            if(move.getCurrentCoordinate() == sourceCoordinate && move.getDestinationCoordinate() == destinationCoordinate)
-                return move;
-        }
+        final Piece piece = board.getPiece(sourceCoordinate);
 
-        return NULL_MOVE;
+        if(piece == null)
+            return NULL_MOVE;
+
+        return piece.getPieceUtils().selectPlayerByUtils(board.getWhitePlayer(), board.getBlackPlayer())
+                .getMoveIndex().get(sourceCoordinate, destinationCoordinate);
+    }
+
+    /**
+     * Questo metodo converte una mossa codificata con {@link BitMove} nella mossa della scacchiera virtuale,
+     * cosi il risultato della ricerca può essere usato dalla GUI e dal {@link MoveLog}
+     * @param board scacchiera virtuale di riferimento
+     * @param bitMove mossa codificata del giocatore che deve muovere
+     * @return La mossa attuabile con la stessa partenza, destinazione e promozione. Altrimenti la mossa nulla
+     */
+    public static Move createMove(final VirtualBoard board, final int bitMove) {
+        return board.getCurrentPlayer().getMoveIndex().get(BitMove.getFrom(bitMove), BitMove.getTo(bitMove), BitMove.getPromotionType(bitMove));
     }
-}
\ No newline at end of file
+}
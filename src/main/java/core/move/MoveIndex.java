@@ -0,0 +1,152 @@
+package core.move;
+
+import core.board.VirtualBoardUtils;
+import core.pieces.piece.PieceType;
+
+import java.util.Collection;
+
+import static core.board.BitBoardUtils.squareMask;
+
+/**
+ * Questa classe serve a cercare una mossa praticabile in tempo costante partendo dalla cella di partenza,
+ * dalla cella di destinazione e dalla pedina della promozione, senza scorrere tutta la lista delle mosse.
+ * Viene creata una sola volta insieme alle mosse del giocatore e usa una tabella hash a indirizzamento aperto:
+ * la chiave è la coppia di celle con la promozione, quindi non serve confrontare le pedine con {@link Move#equals}.
+ * Per la notazione tiene anche, per ogni cella di destinazione, le celle da cui parte almeno una mossa.
+ */
+public final class MoveIndex {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int NO_PROMOTION = 0;
+    private static final PieceType[] PROMOTION_TYPES = { PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT };
+
+    private final int[] keys;
+    private final Move[] moves;
+    private final int mask;
+    private final long[] origins;
+
+    /**
+     * @param usableMoves mosse praticabili del giocatore da indicizzare
+     */
+    public MoveIndex(final Collection<Move> usableMoves) {
+        // Almeno la metà delle celle resta vuota, cosi la ricerca si ferma dopo pochi passi
+        final int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, usableMoves.size()) * 4 - 1));
+
+        this.keys = new int[capacity];
+        this.moves = new Move[capacity];
+        this.mask = capacity - 1;
+        this.origins = new long[VirtualBoardUtils.NUM_TILES];
+
+        for(final Move move : usableMoves) {
+            final int from = move.getCurrentCoordinate();
+            final int to = move.getDestinationCoordinate();
+
+            this.put(key(from, to, promotionOf(move)), move);
+            this.origins[to] |= squareMask(from);
+        }
+    }
+
+    /**
+     * @param from cella di partenza
+     * @param to cella di destinazione
+     * @param promotionType pedina della promozione, null se la mossa non è una promozione
+     * @return la mossa praticabile corrispondente, altrimenti la mossa nulla
+     */
+    public Move get(final int from, final int to, final PieceType promotionType) {
+        final int key = key(from, to, promotionType);
+
+        for(int slot = hash(key) & this.mask; this.moves[slot] != null; slot = (slot + 1) & this.mask) {
+            if(this.keys[slot] == key)
+                return this.moves[slot];
+        }
+
+        return MoveFactory.getNullMove();
+    }
+
+    /**
+     * Questo metodo cerca la mossa scelta con un click, quindi senza indicare la promozione:
+     * come nella lista delle mosse, la prima promozione è quella a regina
+     * @param from cella di partenza
+     * @param to cella di destinazione
+     * @return la mossa praticabile corrispondente, altrimenti la mossa nulla
+     */
+    public Move get(final int from, final int to) {
+        final Move move = this.get(from, to, null);
+
+        if(move != MoveFactory.getNullMove())
+            return move;
+
+        for(final PieceType promotionType : PROMOTION_TYPES) {
+            final Move promotion = this.get(from, to, promotionType);
+
+            if(promotion != MoveFactory.getNullMove())
+                return promotion;
+        }
+
+        return MoveFactory.getNullMove();
+    }
+
+    /**
+     * @param move mossa da cercare
+     * @return "TRUE" se la mossa è tra quelle praticabili del giocatore
+     */
+    public boolean contains(final Move move) {
+        if(move == MoveFactory.getNullMove() || move.getPieceToMove() == null)
+            return false;
+
+        final Move found = this.get(move.getCurrentCoordinate(), move.getDestinationCoordinate(), promotionOf(move));
+
+        return found == move || found != MoveFactory.getNullMove() && found.equals(move);
+    }
+
+    /**
+     * @param to cella di destinazione
+     * @return maschera delle celle da cui parte almeno una mossa praticabile verso la cella
+     */
+    public long getOrigins(final int to) {
+        return this.origins[to];
+    }
+
+    /**
+     * Questo metodo inserisce una mossa nella tabella. Se la chiave è già presente viene tenuta la prima mossa,
+     * come succede scorrendo la lista
+     * @param key chiave della mossa
+     * @param move mossa da inserire
+     */
+    private void put(final int key, final Move move) {
+        int slot = hash(key) & this.mask;
+
+        while(this.moves[slot] != null) {
+            if(this.keys[slot] == key)
+                return;
+
+            slot = (slot + 1) & this.mask;
+        }
+
+        this.keys[slot] = key;
+        this.moves[slot] = move;
+    }
+
+    /**
+     * @param move mossa di riferimento
+     * @return pedina della promozione, null se la mossa non è una promozione
+     */
+    private static PieceType promotionOf(final Move move) {
+        return move instanceof final PawnPromotion promotion ? promotion.getPromotionPiece().getPieceType() : null;
+    }
+
+    /**
+     * @return chiave della mossa: cella di partenza, cella di destinazione e promozione (0 se assente)
+     */
+    private static int key(final int from, final int to, final PieceType promotionType) {
+        return from | to << 6 | (promotionType == null ? NO_PROMOTION : promotionType.ordinal() + 1) << 12;
+    }
+
+    /**
+     * @return chiave mescolata, cosi le mosse della stessa pedina non finiscono in celle vicine della tabella
+     */
+    private static int hash(final int key) {
+        final int hash = key * 0x9E3779B1;
+        return hash ^ hash >>> 16;
+    }
+}
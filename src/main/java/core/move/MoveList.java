@@ -0,0 +1,121 @@
+package core.move;
+
+import core.board.BitBoard;
+
+/**
+ * Questa classe serve per contenere le mosse codificate con {@link BitMove} di una posizione, insieme a un punteggio
+ * usato per ordinarle. Viene creata una sola volta per ogni livello (ply) della ricerca e riutilizzata a ogni nodo,
+ * cosi la ricerca non deve creare nessun oggetto per le mosse.
+ */
+public final class MoveList {
+    private final int[] moves;
+    private final int[] scores;
+    private int size;
+
+    public MoveList() {
+        this.moves = new int[BitBoard.MAX_MOVES];
+        this.scores = new int[BitBoard.MAX_MOVES];
+        this.size = 0;
+    }
+
+    /**
+     * Questo metodo sostituisce il contenuto della lista con le mosse legali della posizione
+     * @param board scacchiera a bit di riferimento
+     * @return numero di mosse generate
+     */
+    public int generateLegalMoves(final BitBoard board) {
+        this.size = board.generateLegalMoves(this.moves);
+        return this.size;
+    }
+
+    /**
+     * Questo metodo sostituisce il contenuto della lista con le sole catture legali della posizione
+     * @param board scacchiera a bit di riferimento
+     * @return numero di mosse generate
+     */
+    public int generateCaptures(final BitBoard board) {
+        this.size = board.generateCaptures(this.moves);
+        return this.size;
+    }
+
+    /**
+     * Questo metodo sostituisce il contenuto della lista con le sole mosse legali che non catturano
+     * @param board scacchiera a bit di riferimento
+     * @return numero di mosse generate
+     */
+    public int generateQuiets(final BitBoard board) {
+        this.size = board.generateQuiets(this.moves);
+        return this.size;
+    }
+
+    /**
+     * Questo metodo sostituisce il contenuto della lista con le catture e le promozioni legali della posizione
+     * @param board scacchiera a bit di riferimento
+     * @return numero di mosse generate
+     */
+    public int generateTacticalMoves(final BitBoard board) {
+        this.size = board.generateTacticalMoves(this.moves);
+        return this.size;
+    }
+
+    /**
+     * Questo metodo sostituisce il contenuto della lista con le mosse che parano lo scacco
+     * @param board scacchiera a bit di riferimento, con il giocatore che deve muovere sotto scacco
+     * @return numero di mosse generate
+     */
+    public int generateEvasions(final BitBoard board) {
+        this.size = board.generateEvasions(this.moves);
+        return this.size;
+    }
+
+    /**
+     * @param index posizione nella lista
+     * @return mossa codificata
+     */
+    public int get(final int index) {
+        return this.moves[index];
+    }
+
+    /**
+     * @param index posizione nella lista
+     * @param score punteggio della mossa, più è alto e prima viene giocata
+     */
+    public void setScore(final int index, final int score) {
+        this.scores[index] = score;
+    }
+
+    /**
+     * @param index posizione nella lista
+     * @return punteggio assegnato alla mossa
+     */
+    public int getScore(final int index) {
+        return this.scores[index];
+    }
+
+    /**
+     * @return numero di mosse nella lista
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Questo metodo ordina le mosse dal punteggio più alto al più basso.
+     * L'ordinamento è stabile: a parità di punteggio resta l'ordine di generazione.
+     */
+    public void sort() {
+        for(int i = 1; i < this.size; i++) {
+            final int move = this.moves[i];
+            final int score = this.scores[i];
+            int j = i;
+
+            for(; j > 0 && this.scores[j - 1] < score; j--) {
+                this.moves[j] = this.moves[j - 1];
+                this.scores[j] = this.scores[j - 1];
+            }
+
+            this.moves[j] = move;
+            this.scores[j] = score;
+        }
+    }
+}
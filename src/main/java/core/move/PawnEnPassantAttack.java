@@ -36,11 +36,10 @@ public class PawnEnPassantAttack extends PawnAttackMove {
      */
     @Override
     public VirtualBoard run() {
-        final BoardConfigurator configurator = new BoardConfigurator();
-
-        this.board.getCurrentPlayer().getActivePieces().stream().filter(piece -> !this.pieceToMove.equals(piece)).forEach(configurator::setPiece);
-        this.board.getCurrentPlayer().getOpponent().getActivePieces().stream().filter(piece -> !piece.equals(this.getPieceAttacked())).forEach(configurator::setPiece);
+        final BoardConfigurator configurator = new BoardConfigurator(this.board);
 
+        configurator.removePiece(this.pieceToMove.getPiecePosition());
+        configurator.removePiece(this.getPieceAttacked().getPiecePosition());
         configurator.setPiece(this.pieceToMove.movePiece(this));
         configurator.setMoveMaker(this.board.getCurrentPlayer().getOpponent().getUtils());
         configurator.setMoveTransition(this);
@@ -38,10 +38,9 @@ public class PawnJump extends Move {
      */
     @Override
     public VirtualBoard run() {
-        final BoardConfigurator builder = new BoardConfigurator();
+        final BoardConfigurator builder = new BoardConfigurator(this.board);
 
-        this.board.getCurrentPlayer().getActivePieces().stream().filter(piece -> !this.pieceToMove.equals(piece)).forEach(builder::setPiece);
-        this.board.getCurrentPlayer().getOpponent().getActivePieces().forEach(builder::setPiece);
+        builder.removePiece(this.pieceToMove.getPiecePosition());
 
         final Pawn movedPawn = (Pawn) this.pieceToMove.movePiece(this);
 
@@ -44,11 +44,9 @@ public class PawnPromotion extends PawnMove {
     @Override
     public VirtualBoard run() {
         final VirtualBoard movedPawnBoard = this.moveDecorator.run();
-        final BoardConfigurator builder = new BoardConfigurator();
-
-        movedPawnBoard.getCurrentPlayer().getActivePieces().stream().filter(piece -> !this.promotedPawn.equals(piece)).forEach(builder::setPiece);
-        movedPawnBoard.getCurrentPlayer().getOpponent().getActivePieces().forEach(builder::setPiece);
+        final BoardConfigurator builder = new BoardConfigurator(movedPawnBoard);
 
+        // Il pedone si trova già sulla cella di destinazione: la pedina promossa lo sostituisce
         builder.setPiece(this.promotionPiece.movePiece(this));
         builder.setMoveMaker(movedPawnBoard.getCurrentPlayer().getUtils());
         builder.setMoveTransition(this);
@@ -56,6 +54,13 @@ public class PawnPromotion extends PawnMove {
         return builder.build();
     }
 
+    /**
+     * @return la pedina nella quale viene promosso il pedone
+     */
+    public Piece getPromotionPiece() {
+        return this.promotionPiece;
+    }
+
     /**
      * @return la pedina sotto attacco
      */
@@ -1,17 +1,14 @@
 package core.pieces;
 
+import core.board.SliderAttacks;
 import core.board.VirtualBoard;
-import core.board.VirtualBoardUtils;
-import core.move.*;
+import core.move.Move;
 import core.pieces.piece.Piece;
 import core.pieces.piece.PieceType;
 import core.pieces.piece.PieceUtils;
 import core.utils.Utils;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
 
 /**
  * Questa classe serve per rappresentare l'alfiere ed estende la classe {@link Piece}
@@ -19,10 +16,6 @@ import java.util.List;
  */
 public class Bishop extends Piece {
 
-    // Questo array serve a contenere i valori da utilizzare durante il calcolo delle possibili mosse quando si aggiungono
-    // i valori alla possibile coordinata.
-    private static final int[] OPERATION_MOVE = { -9, -7, 7, 9 };
-
     /**
      * Questo costruttore viene utilizzato quando l'alfiere sarà in gioco. Quindi non obbligatoriamente sarà la sua prima mossa
      * @param piecePosition coordinata sulla quale è posizionata la torre
@@ -62,36 +55,8 @@ public class Bishop extends Piece {
      */
     @Override
     public Collection<Move> calculateMoves(final VirtualBoard board) {
-        final List<Move> usableMoves = new ArrayList<>();
-
-        for(final int candidateOffset : OPERATION_MOVE) {
-            int candidateCoordinate = this.piecePosition;
-
-            while(VirtualBoardUtils.isValidTileCoordinate(candidateCoordinate)) {
-                if(firstColumnExclusion(candidateOffset, candidateCoordinate) ||
-                    eighthColumnExclusion(candidateOffset, candidateCoordinate))
-                    break;
-
-                candidateCoordinate += candidateOffset;
-
-                if(VirtualBoardUtils.isValidTileCoordinate(candidateCoordinate)) {
-                    final Piece pieceAtDestination = board.getPiece(candidateCoordinate);
-
-                    if(pieceAtDestination == null)
-                        usableMoves.add(new MajorMove(board, this, candidateCoordinate));
-                    else {
-                        final Utils pieceAtDestinationUtils = pieceAtDestination.getPieceUtils();
-
-                        if(this.pieceUtils != pieceAtDestinationUtils)
-                            usableMoves.add(new MajorAttackMove(board, this, candidateCoordinate, pieceAtDestination));
-
-                        break;
-                    }
-                }
-            }
-        }
-
-        return Collections.unmodifiableList(usableMoves);
+        return calculateMovesByTargets(board,
+                SliderAttacks.bishopAttacks(this.piecePosition, board.getOccupancy()) & ~board.getOccupancy(this.pieceUtils));
     }
 
     /**
@@ -124,24 +89,4 @@ public class Bishop extends Piece {
     public String toString() {
         return this.pieceType.toString();
     }
-
-    /**
-     * Questo metodo serve a capire se la coordinata candidata andrà sull'ultima riga, per il bianco
-     * @param candidateOffset valore di calcolo attuale
-     * @param candidateCoordinate coordinata della pedina
-     * @return "TRUE" se la pedina è posizionata sull'ultima riga
-     */
-    private static boolean firstColumnExclusion(final int candidateOffset, final int candidateCoordinate) {
-        return VirtualBoardUtils.INSTANCE.FIRST_COLUMN.get(candidateCoordinate) && (candidateOffset == -9 || candidateOffset == 7);
-    }
-
-    /**
-     * Questo metodo serve a capire se la coordinata candidata andrà sull'ultima riga, per il nero
-     * @param candidateOffset valore di calcolo attuale
-     * @param candidateCoordinate coordinata della pedina
-     * @return "TRUE" se la pedina è posizionata sull'ultima riga
-     */
-    private static boolean eighthColumnExclusion(final int candidateOffset, final int candidateCoordinate) {
-        return VirtualBoardUtils.INSTANCE.EIGHTH_COLUMN.get(candidateCoordinate) && (candidateOffset == -7 || candidateOffset == 9);
-    }
 }
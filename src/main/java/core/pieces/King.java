@@ -1,18 +1,14 @@
 package core.pieces;
 
+import core.board.LeaperAttacks;
 import core.board.VirtualBoard;
-import core.board.VirtualBoardUtils;
-import core.move.MajorMove;
-import core.move.MajorAttackMove;
 import core.utils.Utils;
 import core.move.Move;
 import core.pieces.piece.Piece;
 import core.pieces.piece.PieceType;
+import core.pieces.piece.PieceUtils;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
 
 /**
  * Questa classe serve per rappresentare la pedina del Re ed estende la classe {@link Piece}
@@ -20,10 +16,6 @@ import java.util.List;
  */
 public class King extends Piece {
 
-    // Questo array serve a contenere i valori da utilizzare durante il calcolo delle possibili mosse quando si aggiungono
-    // i valori alla possibile coordinata.
-    private static final int[] OPERATION_MOVE = { -9, -8, -7, -1, 1, 7, 8, 9 };
-
     private final boolean isCastled;
     private final boolean isCastledByKing;
     private final boolean isCastledByQueen;
@@ -99,34 +91,7 @@ public class King extends Piece {
      */
     @Override
     public Collection<Move> calculateMoves(final VirtualBoard board) {
-        final List<Move> usableMoves = new ArrayList<>();
-
-        for(final int currentCandidate : OPERATION_MOVE) {
-            if(firstColumnExclusion(this.piecePosition, currentCandidate) ||
-                eighthColumnExclusion(this.piecePosition, currentCandidate)) {
-                continue;
-            }
-
-            final int candidateDestination = this.piecePosition + currentCandidate;
-
-            if(VirtualBoardUtils.isValidTileCoordinate(candidateDestination)) {
-                final Piece pieceAtDestination = board.getPiece(candidateDestination);
-
-                if(pieceAtDestination == null) {
-                    usableMoves.add(new MajorMove(board, this, candidateDestination));
-                } else {
-                    final Utils pieceAtDestinationUtils = pieceAtDestination.getPieceUtils();
-
-                    if(this.pieceUtils != pieceAtDestinationUtils) {
-                        usableMoves.add(new MajorAttackMove(board, this, candidateDestination, pieceAtDestination));
-                    }
-                }
-            }
-        }
-
-
-        // Ritorna la lista completa di tutti i movimenti possibili
-        return Collections.unmodifiableList(usableMoves);
+        return calculateMovesByTargets(board, LeaperAttacks.kingAttacks(this.piecePosition) & ~board.getOccupancy(this.pieceUtils));
     }
 
     /**
@@ -136,7 +101,7 @@ public class King extends Piece {
      */
     @Override
     public Piece movePiece(final Move move) {
-        return new King(move.getDestinationCoordinate(), this.pieceUtils, false, move.isCastlingMove(), false, false);
+        return PieceUtils.INSTANCE.getKing(move.getDestinationCoordinate(), this.pieceUtils, false, move.isCastlingMove(), false, false);
     }
 
     /**
@@ -211,24 +176,4 @@ public class King extends Piece {
     public String toString() {
         return this.pieceType.toString();
     }
-
-    /**
-     * Questo metodo ha l'obbiettivo di controllare se la coordinata candidata è situata sulla prima riga, per i bianchi
-     * @param currentCandidate candidata corrente dove è situata la pedina
-     * @param candidateOffset valore di calcolo corrente
-     * @return un valore booleano "TRUE" se le condizioni sono vere, altrimenti "FALSE"
-     */
-    private static boolean firstColumnExclusion(final int currentCandidate, final int candidateOffset) {
-        return VirtualBoardUtils.INSTANCE.FIRST_COLUMN.get(currentCandidate) && (candidateOffset == -9 || candidateOffset == -1 || candidateOffset == 7);
-    }
-
-    /**
-     * Questo metodo ha l'obbiettivo di controllare se la coordinata candidata è situata sulla ottava riga, per i neri
-     * @param currentCandidate candidata corrente dove è situata la pedina
-     * @param candidateOffset valore di calcolo corrente
-     * @return un valore booleano "TRUE" se le condizioni sono vere, altrimenti "FALSE"
-     */
-    private static boolean eighthColumnExclusion(final int currentCandidate, final int candidateOffset) {
-        return VirtualBoardUtils.INSTANCE.EIGHTH_COLUMN.get(currentCandidate) && (candidateOffset == -7 || candidateOffset == 1 || candidateOffset == 9);
-    }
 }
@@ -1,26 +1,17 @@
 package core.pieces;
 
+import core.board.LeaperAttacks;
 import core.board.VirtualBoard;
-import core.board.VirtualBoardUtils;
-import core.move.MajorMove;
 import core.move.Move;
-import core.move.MajorAttackMove;
 import core.pieces.piece.Piece;
 import core.pieces.piece.PieceType;
 import core.pieces.piece.PieceUtils;
 import core.utils.Utils;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
 
 public class Knight extends Piece {
 
-    // Questo array serve a contenere i valori da utilizzare durante il calcolo delle possibili mosse quando si aggiungono
-    // i valori alla possibile coordinata.
-    private static final int[] OPERATION_MOVE = { -17, -15, -10, -6, 6, 10, 15, 17 };
-
     /**
      * Questo costruttore viene utilizzato quando il cavallo sarà in gioco. Quindi non obbligatoriamente sarà la sua prima mossa
      * @param piecePosition coordinata sulla quale è posizionata la torre
@@ -60,32 +51,7 @@ public class Knight extends Piece {
      */
     @Override
     public Collection<Move> calculateMoves(final VirtualBoard board) {
-        final List<Move> usableMoves = new ArrayList<>();
-
-        for(final int candidateOffset : OPERATION_MOVE) {
-            if(firstColumnExclusion(this.piecePosition, candidateOffset) ||
-                secondColumnExclusion(this.piecePosition, candidateOffset) ||
-                seventhColumnExclusion(this.piecePosition, candidateOffset) ||
-                eighthColumnExclusion(this.piecePosition, candidateOffset))
-                continue;
-
-            final int candidateCoordinate = this.piecePosition + candidateOffset;
-
-            if(VirtualBoardUtils.isValidTileCoordinate(candidateCoordinate)) {
-                final Piece pieceAtDestination = board.getPiece(candidateCoordinate);
-
-                if(pieceAtDestination == null)
-                    usableMoves.add(new MajorMove(board, this, candidateCoordinate));
-                else {
-                    final Utils pieceAtDestinationUtils = pieceAtDestination.getPieceUtils();
-
-                    if(pieceAtDestinationUtils != this.pieceUtils)
-                        usableMoves.add(new MajorAttackMove(board, this, candidateCoordinate, pieceAtDestination));
-                }
-            }
-        }
-
-        return Collections.unmodifiableList(usableMoves);
+        return calculateMovesByTargets(board, LeaperAttacks.knightAttacks(this.piecePosition) & ~board.getOccupancy(this.pieceUtils));
     }
 
     /**
@@ -118,45 +84,4 @@ public class Knight extends Piece {
     public String toString() {
         return this.pieceType.toString();
     }
-
-
-    /**
-     * Questo metodo serve a capire se la coordinata candidata andrà sulla prima riga, per il bianco
-     * @param currentCoordinate coordinata della pedina
-     * @param candidateOffset valore di calcolo attuale
-     * @return "TRUE" se la pedina è posizionata sulla prima riga
-     */
-    private static boolean firstColumnExclusion(final int currentCoordinate, final int candidateOffset) {
-        return VirtualBoardUtils.INSTANCE.FIRST_COLUMN.get(currentCoordinate) && (candidateOffset == -17 || candidateOffset == -10 || candidateOffset == 6 || candidateOffset == 15);
-    }
-
-    /**
-     * Questo metodo serve a capire se la coordinata candidata andrà sulla seconda riga, per il bianco
-     * @param currentCoordinate coordinata della pedina
-     * @param candidateOffset valore di calcolo attuale
-     * @return "TRUE" se la pedina è posizionata sulla seconda riga
-     */
-    private static boolean secondColumnExclusion(final int currentCoordinate, final int candidateOffset) {
-        return VirtualBoardUtils.INSTANCE.SECOND_COLUMN.get(currentCoordinate) && (candidateOffset == -10 || candidateOffset == 6);
-    }
-
-    /**
-     * Questo metodo serve a capire se la coordinata candidata andrà sulla seconda riga, per il nero
-     * @param currentCoordinate coordinata della pedina
-     * @param candidateOffset valore di calcolo attuale
-     * @return "TRUE" se la pedina è posizionata sulla seconda riga
-     */
-    private static boolean seventhColumnExclusion(final int currentCoordinate, final int candidateOffset) {
-        return VirtualBoardUtils.INSTANCE.SEVENTH_COLUMN.get(currentCoordinate) && (candidateOffset == -6 || candidateOffset == 10);
-    }
-
-    /**
-     * Questo metodo serve a capire se la coordinata candidata andrà sulla seconda riga, per il nero
-     * @param currentCoordinate coordinata della pedina
-     * @param candidateOffset valore di calcolo attuale
-     * @return "TRUE" se la pedina è posizionata sulla seconda riga
-     */
-    private static boolean eighthColumnExclusion(final int currentCoordinate, final int candidateOffset) {
-        return VirtualBoardUtils.INSTANCE.EIGHTH_COLUMN.get(currentCoordinate) && (candidateOffset == -15 || candidateOffset == -6 || candidateOffset == 10 || candidateOffset == 17);
-    }
 }
@@ -1,5 +1,7 @@
 package core.pieces;
 
+import core.board.BitBoardUtils;
+import core.board.LeaperAttacks;
 import core.board.VirtualBoard;
 import core.move.*;
 import core.utils.Utils;
@@ -19,10 +21,6 @@ import java.util.List;
  */
 public class Pawn extends Piece {
 
-    // Questo array serve a contenere i valori da utilizzare durante il calcolo delle possibili mosse quando si aggiungono
-    // i valori alla possibile coordinata.
-    private static final int[] OPERATION_MOVE = { 8, 16, 7, 9 };
-
     /**
      * Questo costruttore viene utilizzato quando il pedone sarà in gioco. Quindi non obbligatoriamente sarà la sua prima mossa
      * @param piecePosition coordinata sulla quale è posizionata la torre
@@ -56,81 +54,52 @@ public class Pawn extends Piece {
     }
 
     /**
-     * Questo metodo viene utilizzato per rilevare quali sono le mosse possibili per la pedina
+     * Questo metodo viene utilizzato per rilevare quali sono le mosse possibili per la pedina.
+     * Le catture sono lette dalla tabella di {@link LeaperAttacks}, cosi non bisogna controllare i bordi della scacchiera
      * @param board scacchiera virtuale di riferimento
      * @return Una lista di mosse praticabili dalla pedina allo stato corrente
      */
     @Override
     public Collection<Move> calculateMoves(final VirtualBoard board) {
         final List<Move> usableMoves = new ArrayList<>();
+        final int forwardOffset = this.pieceUtils.getDirection() * VirtualBoardUtils.NUM_TILES_ROW;
+        final int candidateCoordinate = this.piecePosition + forwardOffset;
+
+        if(VirtualBoardUtils.isValidTileCoordinate(candidateCoordinate) && board.getPiece(candidateCoordinate) == null) {
+            if(this.pieceUtils.isPawnPromotionSquare(candidateCoordinate))
+                this.addPromotions(usableMoves, new PawnMove(board, this, candidateCoordinate));
+            else
+                usableMoves.add(new PawnMove(board, this, candidateCoordinate));
+
+            final int jumpCoordinate = candidateCoordinate + forwardOffset;
+            final long startRow = this.pieceUtils.isWhite() ? BitBoardUtils.RANK_2 : BitBoardUtils.RANK_7;
 
-        for(final int candidateOffset : OPERATION_MOVE) {
-            int candidateCoordinate = this.piecePosition + (this.pieceUtils.getDirection() * candidateOffset);
-
-            if(!VirtualBoardUtils.isValidTileCoordinate(candidateCoordinate))
-                continue;
-
-            if(candidateOffset == 8 && board.getPiece(candidateCoordinate) == null) {
-                if(this.pieceUtils.isPawnPromotionSquare(candidateCoordinate)) {
-                    usableMoves.add(new PawnPromotion(new PawnMove(board, this, candidateCoordinate), PieceUtils.INSTANCE.getPieceAtCoordinate(Queen.class, this.pieceUtils, candidateCoordinate)));
-                    usableMoves.add(new PawnPromotion(new PawnMove(board, this, candidateCoordinate), PieceUtils.INSTANCE.getPieceAtCoordinate(Rook.class, this.pieceUtils, candidateCoordinate)));
-                    usableMoves.add(new PawnPromotion(new PawnMove(board, this, candidateCoordinate), PieceUtils.INSTANCE.getPieceAtCoordinate(Bishop.class, this.pieceUtils, candidateCoordinate)));
-                    usableMoves.add(new PawnPromotion(new PawnMove(board, this, candidateCoordinate), PieceUtils.INSTANCE.getPieceAtCoordinate(Knight.class, this.pieceUtils, candidateCoordinate)));
-                } else {
-                    usableMoves.add(new PawnMove(board, this, candidateCoordinate));
-                }
-            } else if(candidateOffset == 16 && this.isFirstMove() && ((VirtualBoardUtils.INSTANCE.SECOND_ROW.get(this.piecePosition)
-                    && this.pieceUtils.isBlack()) || (VirtualBoardUtils.INSTANCE.SEVENTH_ROW.get(this.piecePosition)
-                    && this.pieceUtils.isWhite()))) {
-                final int behindCandidateCoordinate = this.piecePosition + (this.pieceUtils.getDirection() * 8);
-
-                if(board.getPiece(candidateCoordinate) == null && board.getPiece(behindCandidateCoordinate) == null)
-                    usableMoves.add(new PawnJump(board, this, candidateCoordinate));
-            } else if (candidateOffset == 7 && !((VirtualBoardUtils.INSTANCE.EIGHTH_COLUMN.get(this.piecePosition)
-                    && this.pieceUtils.isWhite()) || (VirtualBoardUtils.INSTANCE.FIRST_COLUMN.get(this.piecePosition)
-                    && this.pieceUtils.isBlack()))) {
-                if(board.getPiece(candidateCoordinate) != null) {
-                    final Piece pieceAtDestination = board.getPiece(candidateCoordinate);
-
-                    if(this.pieceUtils != pieceAtDestination.getPieceUtils()) {
-                        if(this.pieceUtils.isPawnPromotionSquare(candidateCoordinate)) {
-                            usableMoves.add(new PawnPromotion(new PawnAttackMove(board, this, candidateCoordinate, pieceAtDestination), PieceUtils.INSTANCE.getPieceAtCoordinate(Queen.class, this.pieceUtils, candidateCoordinate)));
-                            usableMoves.add(new PawnPromotion(new PawnAttackMove(board, this, candidateCoordinate, pieceAtDestination), PieceUtils.INSTANCE.getPieceAtCoordinate(Rook.class, this.pieceUtils, candidateCoordinate)));
-                            usableMoves.add(new PawnPromotion(new PawnAttackMove(board, this, candidateCoordinate, pieceAtDestination), PieceUtils.INSTANCE.getPieceAtCoordinate(Bishop.class, this.pieceUtils, candidateCoordinate)));
-                            usableMoves.add(new PawnPromotion(new PawnAttackMove(board, this, candidateCoordinate, pieceAtDestination), PieceUtils.INSTANCE.getPieceAtCoordinate(Knight.class, this.pieceUtils, candidateCoordinate)));
-                        } else {
-                            usableMoves.add(new PawnAttackMove(board, this, candidateCoordinate, pieceAtDestination));
-                        }
-                    }
-                } else if(board.getEnPassantPawn() != null && board.getEnPassantPawn().getPiecePosition() ==
-                        (this.piecePosition + (this.pieceUtils.getOppositeDirection()))) {
-                    final Piece pieceAtDestination = board.getEnPassantPawn();
-
-                    if(this.pieceUtils != pieceAtDestination.getPieceUtils())
-                        usableMoves.add(new PawnEnPassantAttack(board, this, candidateCoordinate, pieceAtDestination));
-                }
-            } else if (candidateOffset == 9 && !((VirtualBoardUtils.INSTANCE.FIRST_COLUMN.get(this.piecePosition)
-                    && this.pieceUtils.isWhite()) || (VirtualBoardUtils.INSTANCE.EIGHTH_COLUMN.get(this.piecePosition)
-                    && this.pieceUtils.isBlack()))) {
-                if(board.getPiece(candidateCoordinate) != null) {
-                    if (this.pieceUtils != board.getPiece(candidateCoordinate).getPieceUtils()) {
-                        if (this.pieceUtils.isPawnPromotionSquare(candidateCoordinate)) {
-                            usableMoves.add(new PawnPromotion(new PawnAttackMove(board, this, candidateCoordinate, board.getPiece(candidateCoordinate)), PieceUtils.INSTANCE.getPieceAtCoordinate(Queen.class, this.pieceUtils, candidateCoordinate)));
-                            usableMoves.add(new PawnPromotion(new PawnAttackMove(board, this, candidateCoordinate, board.getPiece(candidateCoordinate)), PieceUtils.INSTANCE.getPieceAtCoordinate(Rook.class, this.pieceUtils, candidateCoordinate)));
-                            usableMoves.add(new PawnPromotion(new PawnAttackMove(board, this, candidateCoordinate, board.getPiece(candidateCoordinate)), PieceUtils.INSTANCE.getPieceAtCoordinate(Bishop.class, this.pieceUtils, candidateCoordinate)));
-                            usableMoves.add(new PawnPromotion(new PawnAttackMove(board, this, candidateCoordinate, board.getPiece(candidateCoordinate)), PieceUtils.INSTANCE.getPieceAtCoordinate(Knight.class, this.pieceUtils, candidateCoordinate)));
-                        } else {
-                            usableMoves.add(new PawnAttackMove(board, this, candidateCoordinate, board.getPiece(candidateCoordinate)));
-                        }
-                    }
-                } else if (board.getEnPassantPawn() != null && board.getEnPassantPawn().getPiecePosition() ==
-                        (this.piecePosition - (this.pieceUtils.getOppositeDirection()))) {
-                    final Piece pieceAtDestination = board.getEnPassantPawn();
-
-                    if (this.pieceUtils != pieceAtDestination.getPieceUtils())
-                        usableMoves.add(new PawnEnPassantAttack(board, this, candidateCoordinate, pieceAtDestination));
-                }
-            }
+            if(this.isFirstMove() && (BitBoardUtils.squareMask(this.piecePosition) & startRow) != 0L && board.getPiece(jumpCoordinate) == null)
+                usableMoves.add(new PawnJump(board, this, jumpCoordinate));
+        }
+
+        final long attacks = LeaperAttacks.pawnAttacks(this.piecePosition, this.pieceUtils);
+        long captures = attacks & board.getOccupancy(this.pieceUtils.getOpponentUtils());
+
+        while(captures != 0L) {
+            final int captureCoordinate = Long.numberOfTrailingZeros(captures);
+            final Move attackMove = new PawnAttackMove(board, this, captureCoordinate, board.getPiece(captureCoordinate));
+
+            if(this.pieceUtils.isPawnPromotionSquare(captureCoordinate))
+                this.addPromotions(usableMoves, attackMove);
+            else
+                usableMoves.add(attackMove);
+
+            captures &= captures - 1;
+        }
+
+        final Pawn enPassantPawn = board.getEnPassantPawn();
+
+        if(enPassantPawn != null && enPassantPawn.getPieceUtils() != this.pieceUtils) {
+            final int enPassantCoordinate = enPassantPawn.getPiecePosition() + forwardOffset;
+
+            if((attacks & BitBoardUtils.squareMask(enPassantCoordinate)) != 0L)
+                usableMoves.add(new PawnEnPassantAttack(board, this, enPassantCoordinate, enPassantPawn));
         }
 
         return Collections.unmodifiableList(usableMoves);
@@ -166,4 +135,18 @@ public class Pawn extends Piece {
     public String toString() {
         return this.pieceType.toString();
     }
+
+    /**
+     * Questo metodo aggiunge le quattro promozioni possibili della mossa: regina, torre, alfiere e cavallo
+     * @param usableMoves lista delle mosse praticabili
+     * @param move mossa che porta il pedone sull'ultima riga
+     */
+    private void addPromotions(final List<Move> usableMoves, final Move move) {
+        final int destinationCoordinate = move.getDestinationCoordinate();
+
+        usableMoves.add(new PawnPromotion(move, PieceUtils.INSTANCE.getPieceAtCoordinate(Queen.class, this.pieceUtils, destinationCoordinate)));
+        usableMoves.add(new PawnPromotion(move, PieceUtils.INSTANCE.getPieceAtCoordinate(Rook.class, this.pieceUtils, destinationCoordinate)));
+        usableMoves.add(new PawnPromotion(move, PieceUtils.INSTANCE.getPieceAtCoordinate(Bishop.class, this.pieceUtils, destinationCoordinate)));
+        usableMoves.add(new PawnPromotion(move, PieceUtils.INSTANCE.getPieceAtCoordinate(Knight.class, this.pieceUtils, destinationCoordinate)));
+    }
 }
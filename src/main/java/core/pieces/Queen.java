@@ -1,19 +1,14 @@
 package core.pieces;
 
+import core.board.SliderAttacks;
 import core.board.VirtualBoard;
-import core.board.VirtualBoardUtils;
-import core.move.MajorAttackMove;
-import core.move.MajorMove;
 import core.move.Move;
 import core.pieces.piece.Piece;
 import core.pieces.piece.PieceType;
 import core.pieces.piece.PieceUtils;
 import core.utils.Utils;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
 
 /**
  * Questa classe serve per rappresentare la regina ed estende la classe {@link Piece}
@@ -21,10 +16,6 @@ import java.util.List;
  */
 public class Queen extends Piece {
 
-    // Questo array serve a contenere i valori da utilizzare durante il calcolo delle possibili mosse quando si aggiungono
-    // i valori alla possibile coordinata.
-    private static final int[] OPERATION_MOVE = { -9, -8, -7, -1, 1, 7, 8, 9 };
-
     /**
      * Questo costruttore viene utilizzato quando la regina sarà in gioco. Quindi non obbligatoriamente sarà la sua prima mossa
      * @param piecePosition coordinata sulla quale è posizionata la torre
@@ -64,39 +55,8 @@ public class Queen extends Piece {
      */
     @Override
     public Collection<Move> calculateMoves(final VirtualBoard board) {
-        final List<Move> usableMoves = new ArrayList<>();
-
-        for (final int currentCandidateOffset : OPERATION_MOVE) {
-            int candidateDestinationCoordinate = this.piecePosition;
-
-            while (true) {
-                if (firstColumnExclusion(currentCandidateOffset, candidateDestinationCoordinate) ||
-                        eighthColumnExclusion(currentCandidateOffset, candidateDestinationCoordinate)) {
-                    break;
-                }
-
-                candidateDestinationCoordinate += currentCandidateOffset;
-
-                if (!VirtualBoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                    break;
-                } else {
-                    final Piece pieceAtDestination = board.getPiece(candidateDestinationCoordinate);
-
-                    if (pieceAtDestination == null) {
-                        usableMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-                    } else {
-                        final Utils pieceAtDestinationAllegiance = pieceAtDestination.getPieceUtils();
-
-                        if (this.pieceUtils != pieceAtDestinationAllegiance)
-                            usableMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
-
-                        break;
-                    }
-                }
-            }
-        }
-
-        return Collections.unmodifiableList(usableMoves);
+        return calculateMovesByTargets(board,
+                SliderAttacks.queenAttacks(this.piecePosition, board.getOccupancy()) & ~board.getOccupancy(this.pieceUtils));
     }
 
     /**
@@ -129,24 +89,4 @@ public class Queen extends Piece {
     public String toString() {
         return this.pieceType.toString();
     }
-
-    /**
-     * Questo metodo serve a capire se la coordinata candidata andrà sulla prima riga, per il bianco
-     * @param candidateOffset valore di calcolo attuale
-     * @param candidateCoordinate coordinata della pedina
-     * @return "TRUE" se la pedina è posizionata sull'ultima riga
-     */
-    private static boolean firstColumnExclusion(final int candidateOffset, final int candidateCoordinate) {
-        return VirtualBoardUtils.INSTANCE.FIRST_COLUMN.get(candidateCoordinate) && (candidateOffset == -9 || candidateOffset == -1 || candidateOffset == 7);
-    }
-
-    /**
-     * Questo metodo serve a capire se la coordinata candidata andrà sulla prima riga, per il nero
-     * @param candidateOffset valore di calcolo attuale
-     * @param candidateCoordinate coordinata della pedina
-     * @return "TRUE" se la pedina è posizionata sull'ultima riga
-     */
-    private static boolean eighthColumnExclusion(final int candidateOffset, final int candidateCoordinate) {
-        return VirtualBoardUtils.INSTANCE.EIGHTH_COLUMN.get(candidateCoordinate) && (candidateOffset == -7 || candidateOffset == 1 || candidateOffset == 9);
-    }
 }
@@ -1,19 +1,14 @@
 package core.pieces;
 
+import core.board.SliderAttacks;
 import core.board.VirtualBoard;
-import core.utils.Utils;
-import core.board.VirtualBoardUtils;
-import core.move.MajorAttackMove;
-import core.move.MajorMove;
 import core.move.Move;
 import core.pieces.piece.Piece;
 import core.pieces.piece.PieceType;
 import core.pieces.piece.PieceUtils;
+import core.utils.Utils;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
 
 /**
  * Questa classe serve per rappresentare la pedina della torre ed estende la classe {@link Piece}
@@ -21,10 +16,6 @@ import java.util.List;
  */
 public class Rook extends Piece {
 
-    // Questo array serve a contenere i valori da utilizzare durante il calcolo delle possibili mosse quando si aggiungono
-    // i valori alla possibile coordinata.
-    private static final int[] OPERATION_MOVE = { -8, -1, 1, 8 };
-
     /**
      * Questo costruttore viene utilizzato quando la torre sarà in gioco. Quindi non obbligatoriamente sarà la sua prima mossa
      * @param piecePosition coordinata sulla quale è posizionata la torre
@@ -64,34 +55,8 @@ public class Rook extends Piece {
      */
     @Override
     public Collection<Move> calculateMoves(final VirtualBoard board) {
-        final List<Move> usableMoves = new ArrayList<>();
-
-        for (final int currentCandidateOffset : OPERATION_MOVE) {
-            int candidateDestinationCoordinate = this.piecePosition;
-
-            while (VirtualBoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                if (isColumnExclusion(currentCandidateOffset, candidateDestinationCoordinate))
-                    break;
-
-                candidateDestinationCoordinate += currentCandidateOffset;
-
-                if (VirtualBoardUtils.isValidTileCoordinate(candidateDestinationCoordinate)) {
-                    final Piece pieceAtDestination = board.getPiece(candidateDestinationCoordinate);
-
-                    if (pieceAtDestination == null) {
-                        usableMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
-                    } else {
-                        final Utils pieceAtDestinationAllegiance = pieceAtDestination.getPieceUtils();
-
-                        if (this.pieceUtils != pieceAtDestinationAllegiance)
-                            usableMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
-                        break;
-                    }
-                }
-            }
-        }
-
-        return Collections.unmodifiableList(usableMoves);
+        return calculateMovesByTargets(board,
+                SliderAttacks.rookAttacks(this.piecePosition, board.getOccupancy()) & ~board.getOccupancy(this.pieceUtils));
     }
 
     /**
@@ -124,15 +89,4 @@ public class Rook extends Piece {
     public String toString() {
         return this.pieceType.toString();
     }
-
-    /**
-     * Questo metodo ha l'obbiettivo di controllare se la coordinata candidata è situata sulla prima o ultima riga della scacchiera
-     * @param currentCandidate candidata corrente dove è situata la pedina
-     * @param candidateCoordinate coordinata candidata per l'analisi
-     * @return un valore booleano "TRUE" se le condizioni sono vere, altrimenti "FALSE"
-     */
-    private static boolean isColumnExclusion(final int currentCandidate, final int candidateCoordinate) {
-        return (VirtualBoardUtils.INSTANCE.FIRST_COLUMN.get(candidateCoordinate) && (currentCandidate == -1)) ||
-                (VirtualBoardUtils.INSTANCE.EIGHTH_COLUMN.get(candidateCoordinate) && (currentCandidate == 1));
-    }
 }
@@ -1,9 +1,18 @@
 package core.pieces.piece;
 
+import core.board.VirtualBoard;
 import core.board.VirtualBoardUtils;
+import core.move.MajorAttackMove;
+import core.move.MajorMove;
+import core.move.Move;
 import core.utils.Utils;
 import lombok.Getter;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Questa classe rappresenta la pedina che però deve essere implementata da ogni singola classe di pedina
  */
@@ -122,6 +131,31 @@ public abstract class Piece implements IPiece {
         return this.pieceType.getPieceValue();
     }
 
+    /**
+     * Questo metodo converte la maschera delle celle raggiungibili in mosse.
+     * Le celle vuote diventano {@link MajorMove}, quelle occupate dall'avversario {@link MajorAttackMove}
+     * @param board scacchiera virtuale di riferimento
+     * @param targets maschera a 64 bit delle celle raggiungibili, senza le celle occupate dalle proprie pedine
+     * @return Una lista di mosse praticabili dalla pedina
+     */
+    protected Collection<Move> calculateMovesByTargets(final VirtualBoard board, long targets) {
+        final List<Move> usableMoves = new ArrayList<>(Long.bitCount(targets));
+
+        while(targets != 0L) {
+            final int candidateDestinationCoordinate = Long.numberOfTrailingZeros(targets);
+            final Piece pieceAtDestination = board.getPiece(candidateDestinationCoordinate);
+
+            if(pieceAtDestination == null)
+                usableMoves.add(new MajorMove(board, this, candidateDestinationCoordinate));
+            else
+                usableMoves.add(new MajorAttackMove(board, this, candidateDestinationCoordinate, pieceAtDestination));
+
+            targets &= targets - 1;
+        }
+
+        return Collections.unmodifiableList(usableMoves);
+    }
+
     /**
      * Questo metodo serve a calcolare l'hashcode della pedina
      * @return numero intero utilizzato come hash
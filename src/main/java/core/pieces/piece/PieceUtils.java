@@ -1,7 +1,5 @@
 package core.pieces.piece;
 
-import com.google.common.collect.ImmutableTable;
-import com.google.common.collect.Table;
 import core.pieces.*;
 import core.utils.Utils;
 import core.board.VirtualBoardUtils;
@@ -12,31 +10,34 @@ import static util.Constants.*;
  * Questa classe serve a contenere gli utils per le pedine.
  * Una funzione di utilità e quella di creare tutte le pedine di tutti e 6 tipi su layer diversi e poterle ottenere.
  * Cosi che il gioco sia più veloce perché gli oggetti sono già stati creati prima di effettuare una mossa.
+ * Le pedine sono immutabili, quindi vengono create tutte all'avvio per ogni colore, cella e stato (prima mossa e arrocchi del RE)
+ * e dopo l'avvio non viene più creata nessuna pedina.
  */
 @SuppressWarnings("ALL")
 public enum PieceUtils {
 
     INSTANCE;
 
-    private final Table<Utils, Integer, Rook> ALL_ROOKS = PieceUtils.createAllPieces(Rook.class);
-    private final Table<Utils, Integer, Bishop> ALL_BISHOPS = PieceUtils.createAllPieces(Bishop.class);
-    private final Table<Utils, Integer, Knight> ALL_KNIGHTS = PieceUtils.createAllPieces(Knight.class);
-    private final Table<Utils, Integer, Pawn> ALL_PAWNS = PieceUtils.createAllPieces(Pawn.class);
-    private final Table<Utils, Integer, Queen> ALL_QUEENS = PieceUtils.createAllPieces(Queen.class);
+    private static final int NUM_STATES = 2;
+    private static final int NUM_UTILS = 2;
+
+    private final Piece[] ALL_PIECES = PieceUtils.createAllPieces();
+    private final King[] ALL_KINGS = PieceUtils.createAllKings();
 
     /**
-     * Questo metodo serve a ritornare una pedina
+     * Questo metodo serve a ritornare una pedina che non è alla sua prima mossa
      * @param utils colore della pedina da cercare
      * @param destinationCoordinate coordinata dove si vuole atterrare con il movimento
      * @return una pedina
      */
     public <T extends Piece> T getPieceAtCoordinate(final Class<T> pieceClass, final Utils utils, final int destinationCoordinate) {
         return switch (pieceClass.getName()) {
-            case ROOK_PACKAGE -> (T) ALL_ROOKS.get(utils, destinationCoordinate);
-            case BISHOP_PACKAGE -> (T) ALL_BISHOPS.get(utils, destinationCoordinate);
-            case KNIGHT_PACKAGE -> (T) ALL_KNIGHTS.get(utils, destinationCoordinate);
-            case PAWN_PACKAGE -> (T) ALL_PAWNS.get(utils, destinationCoordinate);
-            case QUEEN_PACKAGE -> (T) ALL_QUEENS.get(utils, destinationCoordinate);
+            case ROOK_PACKAGE -> pieceClass.cast(this.getPiece(PieceType.ROOK, utils, destinationCoordinate, false));
+            case BISHOP_PACKAGE -> pieceClass.cast(this.getPiece(PieceType.BISHOP, utils, destinationCoordinate, false));
+            case KNIGHT_PACKAGE -> pieceClass.cast(this.getPiece(PieceType.KNIGHT, utils, destinationCoordinate, false));
+            case PAWN_PACKAGE -> pieceClass.cast(this.getPiece(PieceType.PAWN, utils, destinationCoordinate, false));
+            case QUEEN_PACKAGE -> pieceClass.cast(this.getPiece(PieceType.QUEEN, utils, destinationCoordinate, false));
+            case KING_PACKAGE -> pieceClass.cast(this.getKing(destinationCoordinate, utils, false, false, false, false));
             default -> {
                 try {
                     throw new ClassNotFoundException(CLASS_NOT_FOUND);
@@ -48,26 +49,111 @@ public enum PieceUtils {
     }
 
     /**
-     * Questo metodo serve a creare una tabella con 64 pedine dello stesso tipo, cosi da poter prendere la pedina alla coordinata
-     * di destinazione già creata in precedenza
-     * @param classPiece classe dell'oggetto da creare
-     * @return tabella con le 64 pedine, etichettate da Il colore, l'intero (posizione) e l'oggetto
-     * @param <T> tipo della pedina
+     * Questo metodo serve a ritornare una pedina già creata. Per il RE bisogna usare {@link #getKing}, perché ha anche gli arrocchi
+     * @param pieceType tipo della pedina, tutti tranne il RE
+     * @param utils colore della pedina
+     * @param coordinate cella della pedina
+     * @param isFirstMove "TRUE" se la pedina non si è ancora mossa
+     * @return una pedina
+     */
+    public Piece getPiece(final PieceType pieceType, final Utils utils, final int coordinate, final boolean isFirstMove) {
+        if(pieceType == PieceType.KING)
+            throw new IllegalArgumentException("Il RE ha anche gli arrocchi, bisogna usare getKing");
+
+        return ALL_PIECES[pieceIndex(pieceType, utils, coordinate, isFirstMove)];
+    }
+
+    /**
+     * Questo metodo serve a ritornare un RE già creato
+     * @param coordinate cella del RE
+     * @param utils colore del RE
+     * @param isFirstMove "TRUE" se il RE non si è ancora mosso
+     * @param isCastled "TRUE" se il RE ha appena arroccato
+     * @param isCastledByKing "TRUE" se il RE può ancora arroccare verso il RE
+     * @param isCastledByQueen "TRUE" se il RE può ancora arroccare verso la regina
+     * @return il RE
+     */
+    public King getKing(final int coordinate, final Utils utils, final boolean isFirstMove, final boolean isCastled,
+                        final boolean isCastledByKing, final boolean isCastledByQueen) {
+        return ALL_KINGS[kingIndex(coordinate, utils, isFirstMove, isCastled, isCastledByKing, isCastledByQueen)];
+    }
+
+    /**
+     * @return indice della pedina nella tabella: tipo, colore, prima mossa e cella
+     */
+    private static int pieceIndex(final PieceType pieceType, final Utils utils, final int coordinate, final boolean isFirstMove) {
+        return ((pieceType.ordinal() * NUM_UTILS + utils.ordinal()) * NUM_STATES + state(isFirstMove)) * VirtualBoardUtils.NUM_TILES + coordinate;
+    }
+
+    /**
+     * @return indice del RE nella tabella: colore, prima mossa, arrocco, arrocchi disponibili e cella
+     */
+    private static int kingIndex(final int coordinate, final Utils utils, final boolean isFirstMove, final boolean isCastled,
+                                 final boolean isCastledByKing, final boolean isCastledByQueen) {
+        final int states = (((utils.ordinal() * NUM_STATES + state(isFirstMove)) * NUM_STATES + state(isCastled)) * NUM_STATES +
+                state(isCastledByKing)) * NUM_STATES + state(isCastledByQueen);
+
+        return states * VirtualBoardUtils.NUM_TILES + coordinate;
+    }
+
+    /**
+     * @return 1 se lo stato è attivo, altrimenti 0
      */
-    private static <T extends Piece> Table<Utils, Integer, T> createAllPieces(final Class<T> classPiece) {
-        final ImmutableTable.Builder<Utils, Integer, T> pieces = ImmutableTable.builder();
-        final PieceAssistant pieceAssistant = new PieceAssistant();
+    private static int state(final boolean flag) {
+        return flag ? 1 : 0;
+    }
+
+    /**
+     * Questo metodo serve a creare tutte le pedine (tranne il RE) per ogni colore, cella e prima mossa,
+     * cosi da poter prendere la pedina alla coordinata di destinazione già creata in precedenza
+     * @return tabella con le pedine, indicizzata da {@link #pieceIndex}
+     */
+    private static Piece[] createAllPieces() {
+        final Piece[] pieces = new Piece[PieceType.values().length * NUM_UTILS * NUM_STATES * VirtualBoardUtils.NUM_TILES];
+        final boolean[] states = { false, true };
+
+        for(final PieceType pieceType : PieceType.values()) {
+            for(final Utils utils : Utils.values()) {
+                for(int i = 0; i < VirtualBoardUtils.NUM_TILES; i++) {
+                    for(final boolean isFirstMove : states) {
+                        pieces[pieceIndex(pieceType, utils, i, isFirstMove)] = switch (pieceType) {
+                            case PAWN -> new Pawn(i, utils, isFirstMove);
+                            case KNIGHT -> new Knight(i, utils, isFirstMove);
+                            case BISHOP -> new Bishop(i, utils, isFirstMove);
+                            case ROOK -> new Rook(i, utils, isFirstMove);
+                            case QUEEN -> new Queen(i, utils, isFirstMove);
+                            case KING -> null;
+                        };
+                    }
+                }
+            }
+        }
+
+        return pieces;
+    }
+
+    /**
+     * Questo metodo serve a creare tutti i RE per ogni colore, cella e combinazione di prima mossa e arrocchi
+     * @return tabella con i RE, indicizzata da {@link #kingIndex}
+     */
+    private static King[] createAllKings() {
+        final King[] kings = new King[NUM_UTILS * NUM_STATES * NUM_STATES * NUM_STATES * NUM_STATES * VirtualBoardUtils.NUM_TILES];
+        final boolean[] states = { false, true };
 
         for(final Utils utils : Utils.values()) {
             for(int i = 0; i < VirtualBoardUtils.NUM_TILES; i++) {
-                try {
-                    pieces.put(utils, i, pieceAssistant.init(classPiece, i, utils, false, false, false));
-                } catch(final ClassNotFoundException e) {
-                    e.printStackTrace();
+                for(final boolean isFirstMove : states) {
+                    for(final boolean isCastled : states) {
+                        for(final boolean isCastledByKing : states) {
+                            for(final boolean isCastledByQueen : states)
+                                kings[kingIndex(i, utils, isFirstMove, isCastled, isCastledByKing, isCastledByQueen)] =
+                                        new King(i, utils, isFirstMove, isCastled, isCastledByKing, isCastledByQueen);
+                        }
+                    }
                 }
             }
         }
 
-        return pieces.build();
+        return kings;
     }
 }
@@ -23,38 +23,35 @@ public class BlackPlayer extends Player {
 
     /**
      * @param board scacchiera "virtuale" di riferimento
-     * @param blackUsableMoves mosse usabili dal giocatore nero
-     * @param whiteUsableMoves mosse usabili dal giocatore bianco, avversario
+     * @param isDrawingMode "TRUE" se la scacchiera serve solamente per essere disegnata
      */
-    public BlackPlayer(final VirtualBoard board, final Collection<Move> whiteUsableMoves,
-                       final Collection<Move> blackUsableMoves, boolean isDrawingMode) {
-        super(board, blackUsableMoves, whiteUsableMoves, isDrawingMode);
+    public BlackPlayer(final VirtualBoard board, boolean isDrawingMode) {
+        super(board, isDrawingMode);
     }
 
     /**
      * Questo metodo serve per calcolare tutte le mosse che mettono sotto scacco i RE
      * Ogni giocatore ha una specializzazione del metodo stesso
      *
-     * @param playerUsableMoves   tutte le mosse praticabili dal giocatore corrente
-     * @param opponentPlayerMoves tutte le mosse praticabili dal giocatore opposto
+     * @param playerUsableMoves tutte le mosse praticabili dal giocatore corrente
      * @return tutte le mosse che soddisfino la condizione, cosi da poterle aggiungere
      */
     @Override
-    public Collection<Move> calculateKingCastles(Collection<Move> playerUsableMoves, Collection<Move> opponentPlayerMoves) {
+    public Collection<Move> calculateKingCastles(Collection<Move> playerUsableMoves) {
         if (!hasCastleOpportunities())
             return Collections.emptyList();
 
         final List<Move> kingCastles = new ArrayList<>();
 
-        if (this.playerKing.isFirstMove() && this.playerKing.getPiecePosition() == 4 && !this.isInCheck) {
+        if (this.playerKing.isFirstMove() && this.playerKing.getPiecePosition() == 4 && !this.isInCheck()) {
 
             //blacks king side castle
             if (this.board.getPiece(5) == null && this.board.getPiece(6) == null) {
                 final Piece kingSideRook = this.board.getPiece(7);
 
                 if (kingSideRook != null && kingSideRook.isFirstMove() &&
-                        Player.calculateAttacksOnTile(5, opponentPlayerMoves).isEmpty() &&
-                        Player.calculateAttacksOnTile(6, opponentPlayerMoves).isEmpty() &&
+                        !this.board.isSquareAttacked(5, Utils.WHITE) &&
+                        !this.board.isSquareAttacked(6, Utils.WHITE) &&
                         kingSideRook.getPieceType() == ROOK) {
 
                     if (!VirtualBoardUtils.isKingPawnTrap(this.board, this.playerKing, 12))
@@ -68,8 +65,8 @@ public class BlackPlayer extends Player {
                 final Piece queenSideRook = this.board.getPiece(0);
 
                 if (queenSideRook != null && queenSideRook.isFirstMove() &&
-                        Player.calculateAttacksOnTile(2, opponentPlayerMoves).isEmpty() &&
-                        Player.calculateAttacksOnTile(3, opponentPlayerMoves).isEmpty() &&
+                        !this.board.isSquareAttacked(2, Utils.WHITE) &&
+                        !this.board.isSquareAttacked(3, Utils.WHITE) &&
                         queenSideRook.getPieceType() == ROOK) {
 
                     if (!VirtualBoardUtils.isKingPawnTrap(this.board, this.playerKing, 12))
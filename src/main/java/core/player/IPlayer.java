@@ -30,8 +30,7 @@ public interface IPlayer {
      * Questo metodo serve per calcolare tutte le mosse che mettono sotto scacco i RE
      * Ogni giocatore ha una specializzazione del metodo stesso
      * @param playerUsableMoves tutte le mosse praticabili dal giocatore corrente
-     * @param opponentPlayerMoves tutte le mosse praticabili dal giocatore opposto
      * @return tutte le mosse che soddisfino la condizione, cosi da poterle aggiungere
      */
-    Collection<Move> calculateKingCastles(Collection<Move> playerUsableMoves, Collection<Move> opponentPlayerMoves);
+    Collection<Move> calculateKingCastles(Collection<Move> playerUsableMoves);
 }
@@ -1,19 +1,20 @@
 package core.player;
 
+import core.board.BitBoard;
 import core.board.VirtualBoard;
+import core.move.BitMove;
 import core.move.Move;
+import core.move.MoveIndex;
 import core.move.MoveStatus;
 import core.move.MoveTransition;
 import core.pieces.King;
+import lombok.AccessLevel;
 import lombok.Getter;
 import util.Configuration;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.stream.Collectors;
-
-import static java.util.stream.Collectors.collectingAndThen;
-import static core.pieces.piece.PieceType.KING;
 
 /**
  * Questa classe serve a rappresentare il giocatore generico che deve essere
@@ -23,28 +24,64 @@ import static core.pieces.piece.PieceType.KING;
 public abstract class Player implements IPlayer {
     protected final VirtualBoard board;
     protected final King playerKing;
-    protected final Collection<Move> usableMoves;
-    protected final boolean isInCheck;
+    @Getter(AccessLevel.NONE)
+    private Collection<Move> usableMoves;
+    @Getter(AccessLevel.NONE)
+    private MoveIndex moveIndex;
+    @Getter(AccessLevel.NONE)
+    private boolean isInCheck;
+    @Getter(AccessLevel.NONE)
+    private boolean isCheckCalculated;
+    @Getter(AccessLevel.NONE)
+    private BitBoard legalityBoard;
 
     /**
-     *
-     * @param board
-     * @param playerUsable
-     * @param opponentUsable
+     * Le mosse praticabili e lo scacco non vengono calcolati qui ma alla prima richiesta,
+     * vedi {@link #getUsableMoves()} e {@link #isInCheck()}
+     * @param board scacchiera "virtuale" di riferimento
+     * @param isDrawingMode "TRUE" se la scacchiera serve solamente per essere disegnata
      */
-    public Player(final VirtualBoard board, final Collection<Move> playerUsable, final Collection<Move> opponentUsable, boolean isDrawingMode) {
+    public Player(final VirtualBoard board, boolean isDrawingMode) {
         this.board = board;
+        this.playerKing = !isDrawingMode ? this.detectKing() : null;
+    }
 
-        if(!isDrawingMode) {
-            this.playerKing = this.detectKing();
-            this.isInCheck = !calculateAttacksOnTile(this.playerKing.getPiecePosition(), opponentUsable).isEmpty();
-            playerUsable.addAll(calculateKingCastles(playerUsable, opponentUsable));
+    /**
+     * Le mosse vengono calcolate alla prima richiesta e poi riutilizzate per tutta la vita della scacchiera
+     * @return mosse praticabili dal giocatore, arrocchi compresi
+     */
+    public Collection<Move> getUsableMoves() {
+        if(this.usableMoves == null && this.playerKing != null) {
+            final Collection<Move> playerUsable = new ArrayList<>(this.board.getPieceMoves(this.getUtils()));
+
+            playerUsable.addAll(this.calculateKingCastles(playerUsable));
             this.usableMoves = Collections.unmodifiableCollection(playerUsable);
-        } else {
-            this.playerKing = null;
-            this.isInCheck = false;
-            this.usableMoves = null;
+            this.moveIndex = new MoveIndex(playerUsable);
         }
+
+        return this.usableMoves;
+    }
+
+    /**
+     * L'indice viene creato insieme alle mosse praticabili, vedi {@link #getUsableMoves()}
+     * @return indice per cercare le mosse praticabili per cella di partenza, destinazione e promozione
+     */
+    public MoveIndex getMoveIndex() {
+        this.getUsableMoves();
+        return this.moveIndex;
+    }
+
+    /**
+     * Lo scacco viene calcolato alla prima richiesta e poi riutilizzato per tutta la vita della scacchiera
+     * @return valore booleano "TRUE" se il RE del giocatore è sotto scacco
+     */
+    public boolean isInCheck() {
+        if(!this.isCheckCalculated && this.playerKing != null) {
+            this.isInCheck = this.board.isSquareAttacked(this.playerKing.getPiecePosition(), this.getUtils().getOpponentUtils());
+            this.isCheckCalculated = true;
+        }
+
+        return this.isInCheck;
     }
 
     /**
@@ -52,7 +89,7 @@ public abstract class Player implements IPlayer {
      * @return valore booleano "TRUE" se in scacco matto
      */
     public boolean isInCheckMate() {
-        return this.isInCheck && !this.findEscapeMoves();
+        return this.isInCheck() && !this.findEscapeMoves();
     }
 
     /**
@@ -60,7 +97,7 @@ public abstract class Player implements IPlayer {
      * @return valore booleano "TRUE" se in stallo
      */
     public boolean isInStaleMate() {
-        return !this.isInCheck && !this.findEscapeMoves();
+        return !this.isInCheck() && !this.findEscapeMoves();
     }
 
     /**
@@ -98,16 +135,15 @@ public abstract class Player implements IPlayer {
      * @return Una mossa di transizione che può essere "terminata", "sotto scacco". Altrimenti è "invalida"
      */
     public MoveTransition doMove(final Move move) {
-        if (!this.usableMoves.contains(move)) {
+        if (!this.getMoveIndex().contains(move)) {
             System.out.println(move.getDestinationCoordinate());
             return new MoveTransition(this.board, this.board, move, MoveStatus.ILLEGAL_MOVE);
         }
 
-        final VirtualBoard transitionedBoard = move.run();
+        if (!this.getLegalityBoard().isLegal(BitMove.fromMove(move)))
+            return new MoveTransition(this.board, this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK);
 
-        return transitionedBoard.getCurrentPlayer().getOpponent().isInCheck() ?
-                new MoveTransition(this.board, this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK) :
-                new MoveTransition(this.board, transitionedBoard, move, MoveStatus.DONE);
+        return new MoveTransition(this.board, move.run(), move, MoveStatus.DONE);
     }
 
     /**
@@ -119,45 +155,45 @@ public abstract class Player implements IPlayer {
         return new MoveTransition(this.board, move.undo(), move, MoveStatus.DONE);
     }
 
-    /**
-     * Questo metodo serve per trovare le mosse possibili che portano ad arrivare alla coordinata passata
-     * @param tileId coordinata di riferimento ==> coordinata di destinazione
-     * @param moves lista di movimenti tra la quale cercare
-     * @return movimenti filtrati in funzione di "tileId"
-     */
-    public static Collection<Move> calculateAttacksOnTile(final int tileId, final Collection<Move> moves) {
-        return moves.stream()
-                .filter(move -> move.getDestinationCoordinate() == tileId)
-                .collect(collectingAndThen(Collectors.toList(), Collections::unmodifiableList));
-    }
-
     /**
      * Questo metodo serve a capire se ci sono ancora apportunità di scacco
      * @return valore booleano
      */
     protected boolean hasCastleOpportunities() {
-        return !this.isInCheck && !this.playerKing.isCastled() &&
+        return !this.isInCheck() && !this.playerKing.isCastled() &&
                 (this.playerKing.isCastledByKing() || this.playerKing.isCastledByQueen());
     }
 
     /**
-     * Questo metodo serve a trovare il re tra le pedine attive
+     * Questo metodo serve a trovare il re tra le pedine attive, leggendolo direttamente dalla lista dei RE della scacchiera
      * @return il re per poterlo impostare
      */
     private King detectKing() {
-        return (King) getActivePieces().stream()
-                .filter(piece -> piece.getPieceType() == KING)
-                .findAny()
-                .orElseThrow(RuntimeException::new);
+        final King king = this.board.getKing(this.getUtils());
+
+        if(king == null)
+            throw new RuntimeException();
+
+        return king;
     }
 
     /**
-     * Questo metodo esegue tutte le mosse possibili e se ce ne sono ancora che andranno a buon fine.
+     * Questo metodo verifica se ci sono ancora mosse legali, senza eseguirle.
+     * Solo il giocatore che deve muovere può essere in scacco matto o in stallo.
      * @return "TRUE" se ci sono ancora mosse eseguibili con esito positivo. Altrimenti "FALSE"
      */
     private boolean findEscapeMoves() {
-        return this.usableMoves.stream()
-                .anyMatch(move -> doMove(move)
-                        .moveStatus().isDone());
+        return this.board.getCurrentPlayer() != this || this.getLegalityBoard().hasLegalMoves();
+    }
+
+    /**
+     * Questo metodo crea (una sola volta) la scacchiera a bit usata per verificare le mosse senza eseguirle
+     * @return scacchiera a bit con la stessa posizione della scacchiera virtuale
+     */
+    private BitBoard getLegalityBoard() {
+        if (this.legalityBoard == null)
+            this.legalityBoard = BitBoard.fromVirtualBoard(this.board);
+
+        return this.legalityBoard;
     }
 }
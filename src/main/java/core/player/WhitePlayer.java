@@ -23,24 +23,21 @@ public class WhitePlayer extends Player {
 
     /**
      * @param board scacchiera "virtuale" di riferimento
-     * @param whiteUsableMoves mosse usabili dal giocatore bianco
-     * @param blackUsableMoves mosse usabili dal giocatore nero, avversario
+     * @param isDrawingMode "TRUE" se la scacchiera serve solamente per essere disegnata
      */
-    public WhitePlayer(final VirtualBoard board, final Collection<Move> whiteUsableMoves,
-                       final Collection<Move> blackUsableMoves, boolean isDrawingMode) {
-        super(board, whiteUsableMoves, blackUsableMoves, isDrawingMode);
+    public WhitePlayer(final VirtualBoard board, boolean isDrawingMode) {
+        super(board, isDrawingMode);
     }
 
     /**
      * Questo metodo serve per calcolare tutte le mosse che mettono sotto scacco i RE
      * Ogni giocatore ha una specializzazione del metodo stesso
      *
-     * @param playerUsableMoves   tutte le mosse praticabili dal giocatore corrente
-     * @param opponentPlayerMoves tutte le mosse praticabili dal giocatore opposto
+     * @param playerUsableMoves tutte le mosse praticabili dal giocatore corrente
      * @return tutte le mosse che soddisfino la condizione, cosi da poterle aggiungere
      */
     @Override
-    public Collection<Move> calculateKingCastles(Collection<Move> playerUsableMoves, Collection<Move> opponentPlayerMoves) {
+    public Collection<Move> calculateKingCastles(Collection<Move> playerUsableMoves) {
         if(!hasCastleOpportunities())
             return Collections.emptyList();
 
@@ -53,8 +50,8 @@ public class WhitePlayer extends Player {
                 final Piece kingSideRook = this.board.getPiece(63);
 
                 if(kingSideRook != null && kingSideRook.isFirstMove()) {
-                    if(Player.calculateAttacksOnTile(61, opponentPlayerMoves).isEmpty() &&
-                            Player.calculateAttacksOnTile(62, opponentPlayerMoves).isEmpty() &&
+                    if(!this.board.isSquareAttacked(61, Utils.BLACK) &&
+                            !this.board.isSquareAttacked(62, Utils.BLACK) &&
                             kingSideRook.getPieceType() == ROOK) {
 
                         if(!VirtualBoardUtils.isKingPawnTrap(this.board, this.playerKing, 52))
@@ -69,8 +66,8 @@ public class WhitePlayer extends Player {
                 final Piece queenSideRook = this.board.getPiece(56);
 
                 if(queenSideRook != null && queenSideRook.isFirstMove()) {
-                    if(Player.calculateAttacksOnTile(58, opponentPlayerMoves).isEmpty() &&
-                            Player.calculateAttacksOnTile(59, opponentPlayerMoves).isEmpty() && queenSideRook.getPieceType() == ROOK) {
+                    if(!this.board.isSquareAttacked(58, Utils.BLACK) &&
+                            !this.board.isSquareAttacked(59, Utils.BLACK) && queenSideRook.getPieceType() == ROOK) {
 
                         if(!VirtualBoardUtils.isKingPawnTrap(this.board, this.playerKing, 52))
                             kingCastles.add(new QueenSideCastleMove(this.board, this.playerKing, 58, (Rook) queenSideRook, queenSideRook.getPiecePosition(), 59));
@@ -1,5 +1,6 @@
 package core.player.ai;
 
+import core.board.BitBoard;
 import core.board.VirtualBoard;
 
 public interface IBoardEvaluator {
@@ -11,4 +12,12 @@ public interface IBoardEvaluator {
      * @return numero intero
      */
     int evaluate(VirtualBoard board, int depth);
+
+    /**
+     * Questo metodo serve per valutare la scacchiera a bit, senza doverla convertire in una {@link VirtualBoard}
+     * @param board scacchiera a bit di riferimento
+     * @param depth profondità di pensiero del valutatore
+     * @return numero intero
+     */
+    int evaluate(BitBoard board, int depth);
 }
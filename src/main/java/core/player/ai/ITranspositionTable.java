@@ -0,0 +1,49 @@
+package core.player.ai;
+
+/**
+ * Questa interfaccia rappresenta la tabella delle trasposizioni della ricerca: per ogni posizione, identificata dalla
+ * sua chiave {@link core.board.ZobristKeys}, ricorda profondità, punteggio, tipo di limite, mossa migliore ed età,
+ * cosi una posizione raggiunta per strade diverse (o di nuovo alla mossa successiva) non viene ricercata da capo.
+ * Gli elementi sono codificati con {@link TranspositionEntry}.
+ */
+public interface ITranspositionTable {
+
+    /**
+     * @param key chiave della posizione
+     * @return l'elemento salvato per la posizione oppure {@link TranspositionEntry#NO_ENTRY}
+     */
+    long probe(long key);
+
+    /**
+     * Questo metodo salva il risultato della ricerca di una posizione, se la politica di sostituzione lo permette
+     * @param key chiave della posizione
+     * @param depth profondità della ricerca
+     * @param score punteggio della posizione
+     * @param bound tipo di limite: {@link TranspositionEntry#EXACT}, LOWER_BOUND o UPPER_BOUND
+     * @param bestMove mossa migliore trovata oppure NULL_MOVE
+     */
+    void store(long key, int depth, int score, int bound, int bestMove);
+
+    /**
+     * Questo metodo va chiamato all'inizio di ogni ricerca: gli elementi delle ricerche precedenti restano utilizzabili
+     * ma diventano i primi a essere sostituiti
+     */
+    void newSearch();
+
+    /**
+     * Questo metodo svuota la tabella, ad esempio all'inizio di una nuova partita
+     */
+    void clear();
+
+    /**
+     * @return dimensione della tabella in MB
+     */
+    int getSizeMb();
+
+    /**
+     * Questo metodo va chiamato quando la sessione finisce, per restituire la memoria della tabella.
+     * Le tabelle nello heap non hanno nulla da fare: vengono raccolte dal garbage collector come ogni altro oggetto.
+     */
+    default void release() {
+    }
+}
@@ -0,0 +1,261 @@
+package core.player.ai;
+
+import core.board.BitBoard;
+import core.move.BitMove;
+import core.move.MoveList;
+import core.pieces.piece.PieceType;
+
+import static core.board.VirtualBoardUtils.mvvlva;
+
+/**
+ * Questa classe fornisce le mosse di un nodo della ricerca una alla volta, generandole "a fasi":
+ * prima la mossa della tabella hash, poi le catture vantaggiose (MVVLVA, verificate con lo scambio statico),
+ * poi le mosse "killer" che hanno causato un taglio allo stesso livello, poi le mosse tranquille ordinate
+ * per punteggio storico e infine le catture svantaggiose.
+ * Ogni fase viene generata solamente quando la precedente è finita: se la prima mossa causa un taglio
+ * le mosse tranquille non vengono mai generate.
+ * Se il RE è sotto scacco vengono generate solamente le mosse che parano lo scacco, prima le catture.
+ * Nei nodi di quiescenza vengono fornite solamente le catture vantaggiose e le promozioni: le mosse tranquille non vengono mai generate.
+ * Esiste un'istanza per ogni livello della ricerca, riutilizzata a ogni nodo.
+ */
+public final class MovePicker {
+
+    private enum Stage {
+        HASH_MOVE,
+        GENERATE_EVASIONS,
+        EVASIONS,
+        GENERATE_CAPTURES,
+        GOOD_CAPTURES,
+        KILLERS,
+        GENERATE_QUIETS,
+        QUIETS,
+        BAD_CAPTURES,
+        DONE
+    }
+
+    private static final int NUM_KILLERS = 2;
+    private static final int BAD_CAPTURE = -(1 << 26);
+    private static final int EVASION_CAPTURE = 1 << 27;
+    private static final int MAX_HISTORY = 1 << 20;
+    private static final int QUIET_TIE_BREAK = 64;
+    private static final int KING_VALUE = PieceType.KING.getPieceValue();
+
+    private final MoveList captures;
+    private final MoveList quiets;
+    private final int[] killers;
+    private BitBoard board;
+    private int[] history;
+    private int hashMove;
+    private boolean isQuiescence;
+    private Stage stage;
+    private int captureIndex;
+    private int killerIndex;
+    private int quietIndex;
+
+    public MovePicker() {
+        this.captures = new MoveList();
+        this.quiets = new MoveList();
+        this.killers = new int[NUM_KILLERS];
+    }
+
+    /**
+     * Questo metodo prepara il selezionatore per un nuovo nodo. Le mosse killer del livello vengono mantenute.
+     * @param board scacchiera a bit del nodo
+     * @param hashMove mossa migliore salvata per la posizione oppure NULL_MOVE
+     * @param history punteggi storici del colore che muove, indicizzati per partenza * 64 + destinazione
+     */
+    public void init(final BitBoard board, final int hashMove, final int[] history) {
+        this.board = board;
+        this.hashMove = hashMove;
+        this.history = history;
+        this.isQuiescence = false;
+        this.stage = Stage.HASH_MOVE;
+        this.captureIndex = 0;
+        this.killerIndex = 0;
+        this.quietIndex = 0;
+    }
+
+    /**
+     * Questo metodo prepara il selezionatore per un nodo di quiescenza: solamente catture vantaggiose e promozioni,
+     * oppure tutte le mosse che parano lo scacco se il RE è sotto scacco
+     * @param board scacchiera a bit del nodo
+     * @param history punteggi storici del colore che muove, usati per ordinare le mosse che parano lo scacco
+     */
+    public void initQuiescence(final BitBoard board, final int[] history) {
+        this.init(board, BitMove.NULL_MOVE, history);
+        this.isQuiescence = true;
+    }
+
+    /**
+     * @return la prossima mossa legale da cercare oppure NULL_MOVE se le mosse sono finite
+     */
+    public int next() {
+        while(true) {
+            switch (this.stage) {
+                case HASH_MOVE -> {
+                    this.stage = this.board.isInCheck(this.board.getMoveMaker()) ? Stage.GENERATE_EVASIONS : Stage.GENERATE_CAPTURES;
+                    if(this.board.isValidMove(this.hashMove))
+                        return this.hashMove;
+                }
+                case GENERATE_EVASIONS -> {
+                    this.scoreEvasions();
+                    this.stage = Stage.EVASIONS;
+                }
+                case EVASIONS -> {
+                    if(this.quietIndex < this.quiets.size()) {
+                        final int move = this.quiets.get(this.quietIndex++);
+                        if(move != this.hashMove)
+                            return move;
+                    } else {
+                        this.stage = Stage.DONE;
+                    }
+                }
+                case GENERATE_CAPTURES -> {
+                    this.scoreCaptures();
+                    this.stage = Stage.GOOD_CAPTURES;
+                }
+                case GOOD_CAPTURES -> {
+                    if(this.captureIndex < this.captures.size() && this.captures.getScore(this.captureIndex) >= 0) {
+                        final int move = this.captures.get(this.captureIndex++);
+                        if(move != this.hashMove)
+                            return move;
+                    } else {
+                        this.stage = this.isQuiescence ? Stage.DONE : Stage.KILLERS;
+                    }
+                }
+                case KILLERS -> {
+                    if(this.killerIndex < NUM_KILLERS) {
+                        final int killer = this.killers[this.killerIndex++];
+                        if(killer != this.hashMove && !BitMove.isAttack(killer) && this.board.isValidMove(killer))
+                            return killer;
+                    } else {
+                        this.stage = Stage.GENERATE_QUIETS;
+                    }
+                }
+                case GENERATE_QUIETS -> {
+                    this.scoreQuiets();
+                    this.stage = Stage.QUIETS;
+                }
+                case QUIETS -> {
+                    if(this.quietIndex < this.quiets.size()) {
+                        final int move = this.quiets.get(this.quietIndex++);
+                        if(move != this.hashMove && !this.isKiller(move))
+                            return move;
+                    } else {
+                        this.stage = Stage.BAD_CAPTURES;
+                    }
+                }
+                case BAD_CAPTURES -> {
+                    if(this.captureIndex < this.captures.size()) {
+                        final int move = this.captures.get(this.captureIndex++);
+                        if(move != this.hashMove)
+                            return move;
+                    } else {
+                        this.stage = Stage.DONE;
+                    }
+                }
+                case DONE -> {
+                    return BitMove.NULL_MOVE;
+                }
+            }
+        }
+    }
+
+    /**
+     * Questo metodo aggiorna le mosse killer e i punteggi storici quando una mossa tranquilla causa un taglio
+     * @param move mossa che ha causato il taglio
+     * @param depth profondità rimanente del nodo, più è alta e più la mossa viene premiata
+     */
+    public void recordCutoff(final int move, final int depth) {
+        if(BitMove.isAttack(move))
+            return;
+
+        if(this.killers[0] != move) {
+            this.killers[1] = this.killers[0];
+            this.killers[0] = move;
+        }
+
+        final int historyIndex = historyIndex(move);
+        this.history[historyIndex] += depth * depth;
+
+        // Quando un punteggio diventa troppo alto tutti i punteggi vengono dimezzati, cosi quelli vecchi contano meno
+        if(this.history[historyIndex] > MAX_HISTORY) {
+            for(int i = 0; i < this.history.length; i++)
+                this.history[i] >>= 1;
+        }
+    }
+
+    /**
+     * @param move mossa codificata
+     * @return indice della mossa nella tabella dei punteggi storici
+     */
+    public static int historyIndex(final int move) {
+        return BitMove.getFrom(move) * 64 + BitMove.getTo(move);
+    }
+
+    /**
+     * Questo metodo genera le catture e le ordina per MVVLVA.
+     * Le catture di una pedina di valore più basso di quella che cattura vengono verificate con lo scambio statico:
+     * se perdono materiale finiscono in fondo, dopo le mosse tranquille. Nella quiescenza vengono generate anche le promozioni.
+     */
+    private void scoreCaptures() {
+        final int numMoves = this.isQuiescence ? this.captures.generateTacticalMoves(this.board) : this.captures.generateCaptures(this.board);
+
+        for(int i = 0; i < numMoves; i++) {
+            final int move = this.captures.get(i);
+            final int score = mvvlva(this.board, move);
+            final boolean isGood = !BitMove.isAttack(move) || BitMove.isEnPassant(move) ||
+                    this.board.getPieceType(BitMove.getTo(move)).getPieceValue() >= this.board.getPieceType(BitMove.getFrom(move)).getPieceValue() ||
+                    this.board.staticExchange(move) >= 0;
+
+            this.captures.setScore(i, isGood ? score : BAD_CAPTURE + score);
+        }
+
+        this.captures.sort();
+    }
+
+    /**
+     * Questo metodo genera le mosse tranquille e le ordina per punteggio storico.
+     * A parità di punteggio vengono prima gli arrocchi e poi le pedine di valore più basso, come nell'ordinamento MVVLVA
+     */
+    private void scoreQuiets() {
+        final int numMoves = this.quiets.generateQuiets(this.board);
+
+        for(int i = 0; i < numMoves; i++) {
+            final int move = this.quiets.get(i);
+            final int tieBreak = BitMove.isCastlingMove(move) ? QUIET_TIE_BREAK - 1 : mvvlva(this.board, move) * QUIET_TIE_BREAK / KING_VALUE;
+            this.quiets.setScore(i, this.history[historyIndex(move)] * QUIET_TIE_BREAK + tieBreak);
+        }
+
+        this.quiets.sort();
+    }
+
+    /**
+     * Questo metodo genera le mosse che parano lo scacco e le ordina: prima le catture per MVVLVA, poi le altre per punteggio storico
+     */
+    private void scoreEvasions() {
+        final int numMoves = this.quiets.generateEvasions(this.board);
+
+        for(int i = 0; i < numMoves; i++) {
+            final int move = this.quiets.get(i);
+            this.quiets.setScore(i, BitMove.isAttack(move) ?
+                    EVASION_CAPTURE + mvvlva(this.board, move) :
+                    this.history[historyIndex(move)] * QUIET_TIE_BREAK + mvvlva(this.board, move) * QUIET_TIE_BREAK / KING_VALUE);
+        }
+
+        this.quiets.sort();
+    }
+
+    /**
+     * @param move mossa codificata
+     * @return "TRUE" se la mossa è una delle mosse killer del livello
+     */
+    private boolean isKiller(final int move) {
+        for(final int killer : this.killers) {
+            if(killer == move)
+                return true;
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,254 @@
+package core.player.ai;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Questa classe è la tabella delle trasposizioni salvata fuori dallo heap, in buffer diretti di al massimo 1 GB ciascuno.
+ * Cosi una tabella di diversi GB non fa crescere lo heap e non allunga il lavoro del garbage collector:
+ * la dimensione non dipende da -Xmx ma solamente dalla memoria della macchina (e da -XX:MaxDirectMemorySize).
+ * Gli elementi sono organizzati come nella {@link SharedTranspositionTable}: gruppi di due elementi, ognuno con la chiave
+ * in XOR con l'elemento, quindi la tabella può essere condivisa tra più thread senza lock.
+ * Il JDK azzera i buffer diretti quando li crea, quindi per diversi GB la creazione richiede tempo:
+ * con {@link #resize(int, boolean)} la creazione può essere fatta da un thread separato, intanto la tabella risulta vuota.
+ * Con {@link #release()} la tabella abbandona i buffer quando la sessione finisce: il JDK 17 non ha un modo pubblico
+ * per liberare subito un buffer diretto (l'API della memoria esterna è ancora in incubazione), quindi la memoria
+ * viene restituita dal garbage collector quando raccoglie i buffer.
+ * Il ridimensionamento non va chiamato mentre una ricerca sta usando la tabella.
+ */
+public final class OffHeapTranspositionTable implements ITranspositionTable {
+
+    private static final int BYTES_PER_ENTRY = 2 * Long.BYTES;
+    private static final int BYTES_PER_BUCKET = TranspositionEntry.BUCKET_SIZE * BYTES_PER_ENTRY;
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_BYTES = 1L << CHUNK_SHIFT;
+    private static final int ZERO_PAGE_BYTES = 64 * 1024;
+
+    private volatile ByteBuffer[] chunks;
+    private volatile Thread allocator;
+    private volatile OutOfMemoryError allocationError;
+    private long bucketMask;
+    private int sizeMb;
+    private volatile int age;
+
+    /**
+     * @param sizeMb dimensione della tabella in MB, viene usata la potenza di 2 di gruppi che ci sta
+     */
+    public OffHeapTranspositionTable(final int sizeMb) {
+        this(sizeMb, false);
+    }
+
+    /**
+     * @param sizeMb dimensione della tabella in MB, viene usata la potenza di 2 di gruppi che ci sta
+     * @param isBackground "TRUE" per creare i buffer in un thread separato, vedi {@link #awaitReady()}
+     */
+    public OffHeapTranspositionTable(final int sizeMb, final boolean isBackground) {
+        this.resize(sizeMb, isBackground);
+    }
+
+    /**
+     * Questo metodo libera la memoria attuale e crea una tabella vuota della nuova dimensione
+     * @param sizeMb dimensione della tabella in MB
+     * @param isBackground "TRUE" per creare i buffer in un thread separato, vedi {@link #awaitReady()}
+     */
+    public void resize(final int sizeMb, final boolean isBackground) {
+        if(sizeMb <= 0)
+            throw new IllegalArgumentException("La dimensione della tabella deve essere positiva: " + sizeMb);
+
+        this.release();
+
+        final long numBuckets = Long.highestOneBit(Math.max(1L, sizeMb * BYTES_PER_MB / BYTES_PER_BUCKET));
+
+        this.sizeMb = sizeMb;
+        this.bucketMask = numBuckets - 1;
+        this.age = 0;
+
+        if(!isBackground) {
+            this.chunks = allocateChunks(numBuckets * BYTES_PER_BUCKET);
+            return;
+        }
+
+        final Thread thread = new Thread(() -> {
+            try {
+                this.chunks = allocateChunks(numBuckets * BYTES_PER_BUCKET);
+            } catch (final OutOfMemoryError e) {
+                // Senza buffer la tabella resta vuota: l'errore viene ripetuto da awaitReady()
+                this.allocationError = e;
+                e.printStackTrace();
+            }
+        }, "tt-allocator");
+        thread.setDaemon(true);
+        this.allocator = thread;
+        thread.start();
+    }
+
+    /**
+     * Questo metodo aspetta che il thread del ridimensionamento abbia finito di creare i buffer
+     * @throws IllegalStateException se il thread non è riuscito a creare i buffer per mancanza di memoria
+     */
+    public void awaitReady() {
+        this.joinAllocator();
+
+        final OutOfMemoryError error = this.allocationError;
+
+        if(error != null)
+            throw new IllegalStateException("Memoria insufficiente per una tabella di " + this.sizeMb + " MB", error);
+    }
+
+    /**
+     * @return "TRUE" se i buffer sono pronti; finché non lo sono le letture non trovano nulla e le scritture vengono ignorate
+     */
+    public boolean isReady() {
+        return this.chunks != null;
+    }
+
+    /**
+     * Questo metodo abbandona i buffer, cosi il garbage collector può restituire la memoria fuori dallo heap.
+     * Dopo il rilascio la tabella resta vuota finché non viene ridimensionata con {@link #resize(int, boolean)}.
+     * Una ricerca in corso continua a usare i buffer che ha già letto, quindi il rilascio non la disturba.
+     */
+    @Override
+    public void release() {
+        this.joinAllocator();
+        this.allocator = null;
+        this.allocationError = null;
+        this.chunks = null;
+    }
+
+    @Override
+    public long probe(final long key) {
+        final ByteBuffer[] buffers = this.chunks;
+
+        if(buffers == null)
+            return TranspositionEntry.NO_ENTRY;
+
+        final long bucket = this.bucketOffset(key);
+        final ByteBuffer chunk = buffers[(int) (bucket >>> CHUNK_SHIFT)];
+        final int offset = (int) (bucket & (CHUNK_BYTES - 1));
+
+        for(int i = offset; i < offset + BYTES_PER_BUCKET; i += BYTES_PER_ENTRY) {
+            final long entry = chunk.getLong(i + Long.BYTES);
+
+            if(isSameKey(chunk, i, entry, key))
+                return entry;
+        }
+
+        return TranspositionEntry.NO_ENTRY;
+    }
+
+    @Override
+    public void store(final long key, final int depth, final int score, final int bound, final int bestMove) {
+        final ByteBuffer[] buffers = this.chunks;
+
+        if(buffers == null)
+            return;
+
+        final long bucket = this.bucketOffset(key);
+        final ByteBuffer chunk = buffers[(int) (bucket >>> CHUNK_SHIFT)];
+        final int offset = (int) (bucket & (CHUNK_BYTES - 1));
+        final int currentAge = this.age;
+        final long first = chunk.getLong(offset + Long.BYTES);
+        final long second = chunk.getLong(offset + BYTES_PER_ENTRY + Long.BYTES);
+        final boolean isFirstSameKey = isSameKey(chunk, offset, first, key);
+        final boolean isSecondSameKey = isSameKey(chunk, offset + BYTES_PER_ENTRY, second, key);
+        final int slot = TranspositionEntry.selectVictim(first, isFirstSameKey, second, isSecondSameKey, currentAge);
+        final int victim = offset + slot * BYTES_PER_ENTRY;
+        final long entry = TranspositionEntry.replace(slot == 0 ? first : second, slot == 0 ? isFirstSameKey : isSecondSameKey,
+                depth, score, bound, bestMove, currentAge);
+
+        if(entry == TranspositionEntry.NO_ENTRY)
+            return;
+
+        chunk.putLong(victim + Long.BYTES, entry);
+        chunk.putLong(victim, key ^ entry);
+    }
+
+    @Override
+    public void newSearch() {
+        this.age = (this.age + 1) % TranspositionEntry.NUM_AGES;
+    }
+
+    /**
+     * Questo metodo azzera tutti i buffer. Non va chiamato mentre la ricerca è in corso.
+     */
+    @Override
+    public void clear() {
+        this.joinAllocator();
+
+        final ByteBuffer[] buffers = this.chunks;
+
+        if(buffers != null) {
+            for(final ByteBuffer chunk : buffers)
+                zeroFill(chunk);
+        }
+
+        this.age = 0;
+    }
+
+    @Override
+    public int getSizeMb() {
+        return this.sizeMb;
+    }
+
+    /**
+     * @param key chiave della posizione
+     * @return posizione in byte del gruppo della posizione, contando dall'inizio del primo buffer
+     */
+    private long bucketOffset(final long key) {
+        return (key & this.bucketMask) * BYTES_PER_BUCKET;
+    }
+
+    /**
+     * Questo metodo crea i buffer diretti, già azzerati, con l'ordine dei byte della macchina
+     * @param totalBytes dimensione totale della tabella, multipla della dimensione di un gruppo
+     * @return buffer da 1 GB, l'ultimo può essere più piccolo
+     */
+    private static ByteBuffer[] allocateChunks(final long totalBytes) {
+        final ByteBuffer[] chunks = new ByteBuffer[(int) ((totalBytes + CHUNK_BYTES - 1) >>> CHUNK_SHIFT)];
+
+        for(int i = 0; i < chunks.length; i++) {
+            final long chunkBytes = Math.min(CHUNK_BYTES, totalBytes - ((long) i << CHUNK_SHIFT));
+            chunks[i] = ByteBuffer.allocateDirect((int) chunkBytes).order(ByteOrder.nativeOrder());
+        }
+
+        return chunks;
+    }
+
+    /**
+     * @param chunk buffer da azzerare, copiando una pagina di zeri alla volta
+     */
+    private static void zeroFill(final ByteBuffer chunk) {
+        final byte[] zeroPage = new byte[ZERO_PAGE_BYTES];
+
+        for(int i = 0; i < chunk.capacity(); i += ZERO_PAGE_BYTES)
+            chunk.put(i, zeroPage, 0, Math.min(ZERO_PAGE_BYTES, chunk.capacity() - i));
+    }
+
+    /**
+     * @param chunk buffer che contiene l'elemento
+     * @param offset posizione in byte dell'elemento nel buffer
+     * @param entry elemento letto dal buffer
+     * @param key chiave della posizione
+     * @return "TRUE" se l'elemento è della posizione, cioè la chiave salvata in XOR con l'elemento corrisponde
+     */
+    private static boolean isSameKey(final ByteBuffer chunk, final int offset, final long entry, final long key) {
+        return entry != TranspositionEntry.NO_ENTRY && (chunk.getLong(offset) ^ entry) == key;
+    }
+
+    /**
+     * Questo metodo aspetta il thread del ridimensionamento, se c'è, senza controllare se ha creato i buffer
+     */
+    private void joinAllocator() {
+        final Thread thread = this.allocator;
+
+        if(thread == null)
+            return;
+
+        try {
+            thread.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
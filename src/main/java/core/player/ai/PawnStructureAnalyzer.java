@@ -1,11 +1,11 @@
 package core.player.ai;
 
+import core.board.BitBoardUtils;
 import core.pieces.piece.Piece;
 import core.pieces.piece.PieceType;
 import core.player.Player;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
 
 public final class PawnStructureAnalyzer {
 
@@ -34,8 +34,18 @@ public final class PawnStructureAnalyzer {
         return calculatePawnColumnStack(pawnsOnColumnTable) + calculateIsolatedPawnPenalty(pawnsOnColumnTable);
     }
 
+    /**
+     * Questo metodo serve per calcolare il punteggio della struttura dei pedoni partendo dalla maschera a bit dei pedoni
+     * @param pawns maschera dei pedoni del giocatore
+     * @return numero intero
+     */
+    public int pawnStructureScore(final long pawns) {
+        final int[] pawnsOnColumnTable = createPawnColumnTable(pawns);
+        return calculatePawnColumnStack(pawnsOnColumnTable) + calculateIsolatedPawnPenalty(pawnsOnColumnTable);
+    }
+
     private static Collection<Piece> calculatePlayerPawns(final Player player) {
-        return player.getActivePieces().stream().filter(piece -> piece.getPieceType() == PieceType.PAWN).collect(Collectors.toList());
+        return player.getBoard().getPieceList(PieceType.PAWN, player.getUtils());
     }
 
     /**
@@ -87,5 +97,19 @@ public final class PawnStructureAnalyzer {
 
         return table;
     }
+
+    /**
+     * Questo metodo serve per create la tabella di pedine di tipo pedone partendo dalla maschera a bit
+     * @param pawns maschera dei pedoni
+     * @return matrice di numeri interi
+     */
+    private static int[] createPawnColumnTable(final long pawns) {
+        final int[] table = new int[8];
+        for(int column = 0; column < table.length; column++) {
+            table[column] = Long.bitCount(pawns & (BitBoardUtils.FILE_A << column));
+        }
+
+        return table;
+    }
 }
 
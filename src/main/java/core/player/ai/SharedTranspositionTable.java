@@ -0,0 +1,172 @@
+package core.player.ai;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Questa classe è la tabella delle trasposizioni da condividere tra tutti i thread di una ricerca parallela, senza lock.
+ * Tutti gli elementi stanno in un unico array di long, divisi in gruppi ("bucket") di due elementi:
+ * ogni elemento occupa due long, la chiave in XOR con l'elemento e l'elemento stesso.
+ * Se due thread scrivono lo stesso elemento nello stesso momento la chiave salvata non corrisponde più
+ * e la lettura viene semplicemente considerata un'assenza, come nella tabella hash del {@link core.board.Perft}.
+ * L'elemento del gruppo da sostituire viene scelto con {@link TranspositionEntry#selectVictim}.
+ * La tabella conta le letture riuscite e le sostituzioni di altre posizioni, per misurarne l'efficacia.
+ */
+public final class SharedTranspositionTable implements ITranspositionTable {
+
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int LONGS_PER_BUCKET = TranspositionEntry.BUCKET_SIZE * LONGS_PER_ENTRY;
+    private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    private static final long MAX_BUCKETS = 1L << 28;
+    private static final int PERMILLE = 1000;
+
+    private final int sizeMb;
+    private final long[] table;
+    private final int bucketMask;
+    private final LongAdder probes;
+    private final LongAdder hits;
+    private final LongAdder stores;
+    private final LongAdder collisions;
+    private volatile int age;
+
+    /**
+     * @param sizeMb dimensione della tabella in MB, viene usata la potenza di 2 di gruppi che ci sta
+     */
+    public SharedTranspositionTable(final int sizeMb) {
+        if(sizeMb <= 0)
+            throw new IllegalArgumentException("La dimensione della tabella deve essere positiva: " + sizeMb);
+
+        final int numBuckets = (int) Long.highestOneBit(Math.max(1L, Math.min(sizeMb * BYTES_PER_MB / BYTES_PER_BUCKET, MAX_BUCKETS)));
+
+        this.sizeMb = sizeMb;
+        this.table = new long[numBuckets * LONGS_PER_BUCKET];
+        this.bucketMask = numBuckets - 1;
+        this.probes = new LongAdder();
+        this.hits = new LongAdder();
+        this.stores = new LongAdder();
+        this.collisions = new LongAdder();
+        this.age = 0;
+    }
+
+    @Override
+    public long probe(final long key) {
+        final int bucket = this.bucketIndex(key);
+        this.probes.increment();
+
+        for(int i = bucket; i < bucket + LONGS_PER_BUCKET; i += LONGS_PER_ENTRY) {
+            // Prima l'elemento e poi la chiave: se nel frattempo un altro thread li ha cambiati, la verifica fallisce
+            final long entry = this.table[i + 1];
+
+            if(this.isSameKey(i, entry, key)) {
+                this.hits.increment();
+                return entry;
+            }
+        }
+
+        return TranspositionEntry.NO_ENTRY;
+    }
+
+    @Override
+    public void store(final long key, final int depth, final int score, final int bound, final int bestMove) {
+        final int bucket = this.bucketIndex(key);
+        final int currentAge = this.age;
+        final long first = this.table[bucket + 1];
+        final long second = this.table[bucket + LONGS_PER_ENTRY + 1];
+        final boolean isFirstSameKey = this.isSameKey(bucket, first, key);
+        final boolean isSecondSameKey = this.isSameKey(bucket + LONGS_PER_ENTRY, second, key);
+        final int slot = TranspositionEntry.selectVictim(first, isFirstSameKey, second, isSecondSameKey, currentAge);
+        final int victim = bucket + slot * LONGS_PER_ENTRY;
+        final long oldEntry = slot == 0 ? first : second;
+        final boolean isSameKey = slot == 0 ? isFirstSameKey : isSecondSameKey;
+        final long entry = TranspositionEntry.replace(oldEntry, isSameKey, depth, score, bound, bestMove, currentAge);
+
+        if(entry == TranspositionEntry.NO_ENTRY)
+            return;
+
+        this.stores.increment();
+
+        if(!isSameKey && oldEntry != TranspositionEntry.NO_ENTRY)
+            this.collisions.increment();
+
+        this.table[victim + 1] = entry;
+        this.table[victim] = key ^ entry;
+    }
+
+    @Override
+    public void newSearch() {
+        this.age = (this.age + 1) % TranspositionEntry.NUM_AGES;
+    }
+
+    /**
+     * Questo metodo svuota la tabella e azzera le statistiche. Non va chiamato mentre la ricerca è in corso.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(this.table, 0L);
+        this.probes.reset();
+        this.hits.reset();
+        this.stores.reset();
+        this.collisions.reset();
+        this.age = 0;
+    }
+
+    @Override
+    public int getSizeMb() {
+        return this.sizeMb;
+    }
+
+    /**
+     * @return frazione delle letture che hanno trovato la posizione, da 0 a 1
+     */
+    public double getHitRate() {
+        final long numProbes = this.probes.sum();
+        return numProbes == 0 ? 0.0 : (double) this.hits.sum() / numProbes;
+    }
+
+    /**
+     * @return frazione delle scritture che hanno sostituito un'altra posizione, da 0 a 1
+     */
+    public double getCollisionRate() {
+        final long numStores = this.stores.sum();
+        return numStores == 0 ? 0.0 : (double) this.collisions.sum() / numStores;
+    }
+
+    /**
+     * Questo metodo stima il riempimento della tabella contando gli elementi della ricerca attuale
+     * nei primi mille elementi, senza dover scorrere tutta la tabella
+     * @return elementi della ricerca attuale ogni mille, da 0 a 1000
+     */
+    public int getPermilleFull() {
+        final int numEntries = Math.min(PERMILLE, this.table.length / LONGS_PER_ENTRY);
+        final int currentAge = this.age;
+        int used = 0;
+
+        for(int i = 0; i < numEntries * LONGS_PER_ENTRY; i += LONGS_PER_ENTRY) {
+            final long entry = this.table[i + 1];
+
+            if(entry != TranspositionEntry.NO_ENTRY && TranspositionEntry.getAge(entry) == currentAge)
+                used++;
+        }
+
+        return used * PERMILLE / numEntries;
+    }
+
+    /**
+     * @param key chiave della posizione
+     * @return indice del primo long del gruppo della posizione
+     */
+    private int bucketIndex(final long key) {
+        return ((int) key & this.bucketMask) * LONGS_PER_BUCKET;
+    }
+
+    /**
+     * @param index indice del primo long dell'elemento
+     * @param entry elemento letto dalla tabella
+     * @param key chiave della posizione
+     * @return "TRUE" se l'elemento è della posizione, cioè la chiave salvata in XOR con l'elemento corrisponde
+     */
+    private boolean isSameKey(final int index, final long entry, final long key) {
+        return entry != TranspositionEntry.NO_ENTRY && (this.table[index] ^ entry) == key;
+    }
+}
@@ -1,10 +1,14 @@
 package core.player.ai;
 
+import core.board.BitBoard;
 import core.board.VirtualBoard;
 import core.move.Move;
 import core.pieces.piece.Piece;
 import core.pieces.piece.PieceType;
 import core.player.Player;
+import core.utils.Utils;
+
+import static core.board.BitBoardUtils.*;
 
 public class StandardBoardEvaluator implements IBoardEvaluator {
 
@@ -34,6 +38,17 @@ public class StandardBoardEvaluator implements IBoardEvaluator {
         return score(board.getWhitePlayer(), depth) - score(board.getBlackPlayer(), depth);
     }
 
+    /**
+     * Questo metodo serve per valutare la scacchiera a bit, con gli stessi criteri della {@link VirtualBoard}
+     * @param board scacchiera a bit di riferimento
+     * @param depth profondità di pensiero del valutatore
+     * @return numero intero
+     */
+    @Override
+    public int evaluate(final BitBoard board, final int depth) {
+        return score(board, Utils.WHITE, depth) - score(board, Utils.BLACK, depth);
+    }
+
     /**
      * Questo metodo serve per calcolare il punteggio del giocatore
      * @param player giocatore corrente
@@ -159,4 +174,125 @@ public class StandardBoardEvaluator implements IBoardEvaluator {
     private static int pawnStructure(final Player player) {
         return PawnStructureAnalyzer.get().pawnStructureScore(player);
     }
+
+    /**
+     * Questo metodo serve per calcolare il punteggio del giocatore sulla scacchiera a bit
+     * @param board scacchiera a bit di riferimento
+     * @param utils colore del giocatore
+     * @param depth profondità di pensiero
+     * @return numero intero, indica il punteggio
+     */
+    private static int score(final BitBoard board, final Utils utils, final int depth) {
+        return mobility(board, utils) +
+                kingThreats(board, utils, depth) +
+                attacks(board, utils) +
+                (board.isCastled(utils) ? CASTLE_BONUS : 0) +
+                pieceEvaluations(board, utils) +
+                PawnStructureAnalyzer.get().pawnStructureScore(board.getPieces(PieceType.PAWN, utils));
+    }
+
+    /**
+     * Questo metodo calcola la mobilità del giocatore sulla scacchiera a bit
+     * @param board scacchiera a bit di riferimento
+     * @param utils colore del giocatore
+     * @return numero intero
+     */
+    private static int mobility(final BitBoard board, final Utils utils) {
+        final int opponentMoves = board.countUsableMoves(utils.getOpponentUtils());
+
+        if(opponentMoves == 0)
+            return 0;
+
+        return MOBILITY_MULTIPLAYER * (int)((board.countUsableMoves(utils) * 10.0f) / opponentMoves);
+    }
+
+    /**
+     * Questo metodo calcola lo scacco matto o lo scacco del giocatore avversario sulla scacchiera a bit
+     * @param board scacchiera a bit di riferimento
+     * @param utils colore del giocatore
+     * @param depth profondità di pensiero
+     * @return numero intero
+     */
+    private static int kingThreats(final BitBoard board, final Utils utils, final int depth) {
+        final Utils opponent = utils.getOpponentUtils();
+
+        if(board.getMoveMaker() == opponent && board.isInCheckMate())
+            return CHECK_MATE_BONUS * depthBonus(depth);
+
+        return board.isInCheck(opponent) ? CHECK_BONUS : 0;
+    }
+
+    /**
+     * Questo metodo conta gli attacchi verso pedine di valore maggiore o uguale sulla scacchiera a bit
+     * @param board scacchiera a bit di riferimento
+     * @param utils colore del giocatore
+     * @return numero intero
+     */
+    private static int attacks(final BitBoard board, final Utils utils) {
+        final long enemies = board.getOccupancy(utils.getOpponentUtils());
+        final long enPassant = utils == board.getMoveMaker() && board.getEnPassantSquare() != BitBoard.NO_SQUARE ?
+                squareMask(board.getEnPassantSquare()) : EMPTY;
+        final long promotionRank = utils.isWhite() ? RANK_8 : RANK_1;
+        long pieces = board.getOccupancy(utils);
+        int attackScore = 0;
+
+        while(pieces != EMPTY) {
+            final int square = firstSquare(pieces);
+            final PieceType movedType = board.getPieceType(square);
+            long attacked = board.calculateAttacks(square) & (movedType == PieceType.PAWN ? enemies | enPassant : enemies);
+
+            while(attacked != EMPTY) {
+                final PieceType attackedType = board.getPieceType(firstSquare(attacked));
+
+                // La cattura enpassant attacca il pedone che ha appena saltato, la cattura con promozione vale 4 mosse
+                if(movedType.getPieceValue() <= (attackedType == null ? PieceType.PAWN : attackedType).getPieceValue())
+                    attackScore += movedType == PieceType.PAWN && (Long.lowestOneBit(attacked) & promotionRank) != EMPTY ? 4 : 1;
+
+                attacked &= attacked - 1;
+            }
+
+            pieces &= pieces - 1;
+        }
+
+        return attackScore * ATTACK_MULTIPLAYER;
+    }
+
+    /**
+     * Questo metodo calcola il valore delle pedine attive sulla scacchiera a bit
+     * @param board scacchiera a bit di riferimento
+     * @param utils colore del giocatore
+     * @return numero intero
+     */
+    private static int pieceEvaluations(final BitBoard board, final Utils utils) {
+        long pieces = board.getOccupancy(utils);
+        int pieceValuationScore = 0;
+
+        while(pieces != EMPTY) {
+            final int square = firstSquare(pieces);
+            final PieceType pieceType = board.getPieceType(square);
+
+            pieceValuationScore += pieceType.getPieceValue() + locationBonus(pieceType, utils, square);
+            pieces &= pieces - 1;
+        }
+
+        return pieceValuationScore + (count(board.getPieces(PieceType.BISHOP, utils)) == 2 ? TWO_BISHOPS_BONUS : 0);
+    }
+
+    /**
+     * Questo metodo ritorna il bonus di posizione, come {@link Piece#locationBonus()}
+     * @param pieceType tipo della pedina
+     * @param utils colore della pedina
+     * @param square cella della pedina
+     * @return numero intero positivo o negativo
+     */
+    private static int locationBonus(final PieceType pieceType, final Utils utils, final int square) {
+        return switch (pieceType) {
+            case PAWN -> utils.pawnBonus(square);
+            case KNIGHT -> utils.knightBonus(square);
+            case BISHOP -> utils.bishopBonus(square);
+            case ROOK -> utils.rookBonus(square);
+            case QUEEN -> utils.queenBonus(square);
+            case KING -> utils.kingBonus(square);
+        };
+    }
 }
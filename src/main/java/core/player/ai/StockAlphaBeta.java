@@ -2,62 +2,119 @@ package core.player.ai;
 
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.Ordering;
+import core.board.BitBoard;
 import core.board.VirtualBoard;
 import core.board.VirtualBoardUtils;
+import core.move.BitMove;
 import core.move.Move;
 import core.move.MoveFactory;
-import core.move.MoveTransition;
 import core.player.Player;
+import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Observable;
 
 import static core.board.VirtualBoardUtils.mvvlva;
+import static util.Constants.HASH_SIZE_MB;
 
 /**
  * Questa classe serve come punto d'entrata per l'AI
  */
 @Getter
 public class StockAlphaBeta extends Observable implements IMoveStrategy {
+    // Profondità da usare quando decide il tempo: l'approfondimento iterativo si ferma prima, quando il tempo finisce
+    public static final int MAX_SEARCH_DEPTH = TranspositionEntry.MAX_DEPTH;
     private final IBoardEvaluator evaluator;
     private final int searchDepth;
     private long boardsEvaluated;
     private int quiescenceCount;
     private static final int MAX_QUIESCENCE = 5000 * 5;
+    private static final int INITIAL_PLY_PICKERS = 64;
+    private static final int DRAW_SCORE = 0;
+    private static final int NO_CUTOFF = Integer.MIN_VALUE;
+    private static final int NODE_CHECK_MASK = 1024 - 1;
+    private static final SearchStoppedException SEARCH_STOPPED = new SearchStoppedException();
+    @Getter(AccessLevel.NONE)
+    private MovePicker[] movePickers;
+    @Getter(AccessLevel.NONE)
+    private final int[][] history;
+    private final ITranspositionTable transpositionTable;
+    @Getter(AccessLevel.NONE)
+    private volatile boolean isStopped;
+    private int completedDepth;
+    private final TimeManager timeManager;
+    @Getter(AccessLevel.NONE)
+    private long searchedNodes;
+    @Getter(AccessLevel.NONE)
+    private int rootScore;
+
+    /**
+     * Questa eccezione interrompe la ricerca risalendo subito fino alla radice, senza salvare risultati parziali.
+     * Viene creata una sola volta e senza stack, perché serve solamente a uscire dalla ricorsione.
+     */
+    private static final class SearchStoppedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private SearchStoppedException() {
+            super(null, null, false, false);
+        }
+    }
 
     private enum MoveSorter {
 
-        STANDARD {
-            @Override
-            Collection<Move> sort(final Collection<Move> moves) {
-                return Ordering.from((Comparator<Move>) (move1, move2) -> ComparisonChain.start()
-                        .compareTrueFirst(move1.isCastlingMove(), move2.isCastlingMove())
-                        .compare(mvvlva(move2), mvvlva(move1))
-                        .result()).immutableSortedCopy(moves);
-            }
-        },
         EXPENSIVE {
             @Override
-            Collection<Move> sort(final Collection<Move> moves) {
+            Collection<Move> sort(final BitBoard board, final Collection<Move> moves) {
+                // Lo scacco viene calcolato una sola volta per mossa, non a ogni confronto dell'ordinamento
+                final Map<Move, Boolean> checks = new IdentityHashMap<>();
+                for (final Move move : moves)
+                    checks.put(move, board.givesCheck(BitMove.fromMove(move)));
+
                 return Ordering.from((Comparator<Move>) (move1, move2) -> ComparisonChain.start()
-                        .compareTrueFirst(VirtualBoardUtils.kingThreat(move1), VirtualBoardUtils.kingThreat(move2))
+                        .compareTrueFirst(checks.get(move1), checks.get(move2))
                         .compareTrueFirst(move1.isCastlingMove(), move2.isCastlingMove())
                         .compare(mvvlva(move2), mvvlva(move1))
                         .result()).immutableSortedCopy(moves);
             }
         };
 
-        abstract  Collection<Move> sort(Collection<Move> moves);
+        abstract  Collection<Move> sort(BitBoard board, Collection<Move> moves);
     }
 
 
     public StockAlphaBeta(final int searchDepth) {
+        this(searchDepth, new TranspositionTable(HASH_SIZE_MB));
+    }
+
+    /**
+     * @param searchDepth profondità della ricerca
+     * @param transpositionTable tabella delle trasposizioni, può essere riutilizzata tra le mosse della stessa partita
+     */
+    public StockAlphaBeta(final int searchDepth, final ITranspositionTable transpositionTable) {
+        this(searchDepth, transpositionTable, TimeManager.unlimited());
+    }
+
+    /**
+     * @param searchDepth profondità massima della ricerca
+     * @param transpositionTable tabella delle trasposizioni, può essere riutilizzata tra le mosse della stessa partita
+     * @param timeManager limiti di tempo della mossa: la ricerca si ferma prima della profondità massima se il tempo finisce
+     */
+    public StockAlphaBeta(final int searchDepth, final ITranspositionTable transpositionTable, final TimeManager timeManager) {
+        this.transpositionTable = transpositionTable;
+        this.timeManager = timeManager;
         this.evaluator = StandardBoardEvaluator.get();
         this.searchDepth = searchDepth;
         this.boardsEvaluated = 0;
         this.quiescenceCount = 0;
+        this.movePickers = new MovePicker[0];
+        this.history = new int[2][VirtualBoardUtils.NUM_TILES * VirtualBoardUtils.NUM_TILES];
     }
 
     @Override
@@ -68,61 +125,173 @@ public class StockAlphaBeta extends Observable implements IMoveStrategy {
     @Override
     public Move execute(final VirtualBoard board) {
         final long startTime = System.currentTimeMillis();
+        this.timeManager.start();
         final Player getCurrentPlayer = board.getCurrentPlayer();
+        System.out.println(board.getCurrentPlayer() + " THINKING with depth = " + this.searchDepth);
+        final BitBoard searchBoard = BitBoard.fromVirtualBoard(board);
+        searchBoard.enableAttackMap();
+        this.transpositionTable.newSearch();
+        this.isStopped = false;
+        this.completedDepth = 0;
+        this.searchedNodes = 0;
+        final List<Move> rootMoves = new ArrayList<>(MoveSorter.EXPENSIVE.sort(searchBoard, getCurrentPlayer.getUsableMoves()));
+        // Anche la prima iterazione può essere interrotta dal limite rigido: in quel caso resta questa mossa
+        Move bestMove = this.findFallbackMove(searchBoard, rootMoves);
+
+        // Approfondimento iterativo: ogni iterazione riempie la tabella delle trasposizioni e le mosse killer
+        // per la successiva, e se la ricerca viene fermata resta la mossa dell'ultima iterazione completata
+        for (int depth = 1; depth <= this.searchDepth; depth++) {
+            final Move iterationMove;
+            try {
+                iterationMove = this.searchRoot(searchBoard, getCurrentPlayer, rootMoves, depth);
+            } catch (final SearchStoppedException e) {
+                break;
+            }
+            if (iterationMove == MoveFactory.getNullMove()) {
+                break;
+            }
+            bestMove = iterationMove;
+            this.completedDepth = depth;
+            moveToFront(rootMoves, bestMove);
+            if (this.isCheckMate(searchBoard, bestMove)) {
+                break;
+            }
+            this.timeManager.iterationCompleted(BitMove.fromMove(bestMove),
+                    getCurrentPlayer.getUtils().isWhite() ? this.rootScore : -this.rootScore);
+            if (!this.timeManager.canStartIteration()) {
+                break;
+            }
+        }
+
+        final long executionTime = System.currentTimeMillis() - startTime;
+        final String result = board.getCurrentPlayer() + " SELECTS " +bestMove+ " [#boards evaluated = " +this.boardsEvaluated+
+                " time taken = " + executionTime /1000+ " rate = " +(1000 * ((double)this.boardsEvaluated/ executionTime));
+        System.out.printf("%s SELECTS %s [#boards evaluated = %d, depth = %d, time taken = %d ms, rate = %.1f\n", board.getCurrentPlayer(),
+                bestMove, this.boardsEvaluated, this.completedDepth, executionTime, (1000 * ((double)this.boardsEvaluated/ executionTime)));
+        setChanged();
+        notifyObservers(result);
+        return bestMove;
+    }
+
+    /**
+     * Questo metodo ferma la ricerca in corso, anche da un altro thread.
+     * La ricerca restituisce la mossa migliore dell'ultima iterazione completata, oppure la mossa di riserva
+     * se nessuna iterazione è stata completata.
+     */
+    public void stop() {
+        this.isStopped = true;
+    }
+
+    /**
+     * Questo metodo cerca tutte le mosse della radice a una profondità fissa, nell'ordine della lista:
+     * la prima mossa è la migliore dell'iterazione precedente, cosi la finestra si stringe subito
+     * @param searchBoard scacchiera a bit della radice
+     * @param getCurrentPlayer giocatore che deve muovere
+     * @param rootMoves mosse praticabili della radice, ordinate
+     * @param depth profondità dell'iterazione
+     * @return la mossa migliore dell'iterazione oppure la mossa nulla se non ci sono mosse legali
+     */
+    private Move searchRoot(final BitBoard searchBoard,
+                            final Player getCurrentPlayer,
+                            final List<Move> rootMoves,
+                            final int depth) {
         Move bestMove = MoveFactory.getNullMove();
         int highestSeenValue = Integer.MIN_VALUE;
         int lowestSeenValue = Integer.MAX_VALUE;
         int currentValue;
-        System.out.println(board.getCurrentPlayer() + " THINKING with depth = " + this.searchDepth);
         int moveCounter = 1;
-        int numMoves = board.getCurrentPlayer().getUsableMoves().size();
-        for (final Move move : MoveSorter.EXPENSIVE.sort((board.getCurrentPlayer().getUsableMoves()))) {
-            final MoveTransition moveTransition = board.getCurrentPlayer().doMove(move);
+        final int numMoves = rootMoves.size();
+        for (final Move move : rootMoves) {
             this.quiescenceCount = 0;
             final String s;
-            if (moveTransition.moveStatus().isDone()) {
+            final int bitMove = BitMove.fromMove(move);
+            if (searchBoard.isLegal(bitMove)) {
+                searchBoard.makeMove(bitMove);
                 final long candidateMoveStartTime = System.nanoTime();
                 currentValue = getCurrentPlayer.getUtils().isWhite() ?
-                        min(moveTransition.toBoard(), this.searchDepth - 1, highestSeenValue, lowestSeenValue) :
-                        max(moveTransition.toBoard(), this.searchDepth - 1, highestSeenValue, lowestSeenValue);
+                        min(searchBoard, depth - 1, highestSeenValue, lowestSeenValue, false) :
+                        max(searchBoard, depth - 1, highestSeenValue, lowestSeenValue, false);
+                final boolean isCheckMate = searchBoard.isInCheckMate();
+                searchBoard.unmakeMove();
                 if (getCurrentPlayer.getUtils().isWhite() && currentValue > highestSeenValue) {
                     highestSeenValue = currentValue;
                     bestMove = move;
-                    if(moveTransition.toBoard().getBlackPlayer().isInCheckMate()) {
+                    if(isCheckMate) {
                         break;
                     }
                 }
                 else if (getCurrentPlayer.getUtils().isBlack() && currentValue < lowestSeenValue) {
                     lowestSeenValue = currentValue;
                     bestMove = move;
-                    if(moveTransition.toBoard().getWhitePlayer().isInCheckMate()) {
+                    if(isCheckMate) {
                         break;
                     }
                 }
 
                 final String quiescenceInfo = " " + score(getCurrentPlayer, highestSeenValue, lowestSeenValue) + " q: " +this.quiescenceCount;
-                s = "\t" + this + "(" +this.searchDepth+ "), m: (" +moveCounter+ "/" +numMoves+ ") " + move + ", best:  " + bestMove
+                s = "\t" + this + "(" +depth+ "), m: (" +moveCounter+ "/" +numMoves+ ") " + move + ", best:  " + bestMove
 
                         + quiescenceInfo + ", t: " +calculateTimeTaken(candidateMoveStartTime, System.nanoTime());
             } else {
-                s = "\t" + this + "(" +this.searchDepth + ")" + ", m: (" +moveCounter+ "/" +numMoves+ ") " + move + " is illegal! best: " +bestMove;
+                s = "\t" + this + "(" +depth + ")" + ", m: (" +moveCounter+ "/" +numMoves+ ") " + move + " is illegal! best: " +bestMove;
             }
             System.out.println(s);
             setChanged();
             notifyObservers(s);
             moveCounter++;
         }
-
-        final long executionTime = System.currentTimeMillis() - startTime;
-        final String result = board.getCurrentPlayer() + " SELECTS " +bestMove+ " [#boards evaluated = " +this.boardsEvaluated+
-                " time taken = " + executionTime /1000+ " rate = " +(1000 * ((double)this.boardsEvaluated/ executionTime));
-        System.out.printf("%s SELECTS %s [#boards evaluated = %d, time taken = %d ms, rate = %.1f\n", board.getCurrentPlayer(),
-                bestMove, this.boardsEvaluated, executionTime, (1000 * ((double)this.boardsEvaluated/ executionTime)));
-        setChanged();
-        notifyObservers(result);
+        this.rootScore = getCurrentPlayer.getUtils().isWhite() ? highestSeenValue : lowestSeenValue;
         return bestMove;
     }
 
+    /**
+     * Questo metodo sceglie la mossa da giocare se la ricerca viene fermata prima di completare un'iterazione:
+     * la mossa della tabella delle trasposizioni se c'è, altrimenti la prima mossa legale nell'ordine della radice
+     * @param searchBoard scacchiera a bit della radice
+     * @param rootMoves mosse praticabili della radice, ordinate
+     * @return la mossa di riserva oppure la mossa nulla se non ci sono mosse legali
+     */
+    private Move findFallbackMove(final BitBoard searchBoard, final List<Move> rootMoves) {
+        final int hashMove = TranspositionEntry.getMove(this.transpositionTable.probe(searchBoard.getZobristKey()));
+        Move fallbackMove = MoveFactory.getNullMove();
+        for (final Move move : rootMoves) {
+            final int bitMove = BitMove.fromMove(move);
+            if (!searchBoard.isLegal(bitMove)) {
+                continue;
+            }
+            if (bitMove == hashMove) {
+                return move;
+            }
+            if (fallbackMove == MoveFactory.getNullMove()) {
+                fallbackMove = move;
+            }
+        }
+        return fallbackMove;
+    }
+
+    /**
+     * @return "TRUE" se la mossa della radice dà scacco matto: non serve cercare più in profondità
+     */
+    private boolean isCheckMate(final BitBoard searchBoard, final Move move) {
+        searchBoard.makeMove(BitMove.fromMove(move));
+        final boolean isCheckMate = searchBoard.isInCheckMate();
+        searchBoard.unmakeMove();
+        return isCheckMate;
+    }
+
+    /**
+     * Questo metodo sposta la mossa in testa alla lista, cercandola per identità:
+     * le promozioni dello stesso pedone sono uguali per {@link Move#equals}
+     */
+    private static void moveToFront(final List<Move> moves, final Move move) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == move) {
+                moves.add(0, moves.remove(i));
+                return;
+            }
+        }
+    }
+
     private static String score(final Player getCurrentPlayer,
                                 final int highestSeenValue,
                                 final int lowestSeenValue) {
@@ -135,61 +304,185 @@ public class StockAlphaBeta extends Observable implements IMoveStrategy {
         throw new RuntimeException("bad bad boy!");
     }
 
-    private int max(final VirtualBoard board,
+    /**
+     * Questo metodo interrompe la ricerca se è stata fermata; ogni {@link #NODE_CHECK_MASK} + 1 nodi controlla anche
+     * il limite rigido del tempo, cosi la lettura dell'orologio non pesa sulla ricerca.
+     * Il limite vale anche durante la prima iterazione, perché c'è sempre la mossa di riserva.
+     */
+    private void checkStopped() {
+        if ((++this.searchedNodes & NODE_CHECK_MASK) == 0 && this.timeManager.isHardLimitReached()) {
+            this.isStopped = true;
+        }
+        if (this.isStopped) {
+            throw SEARCH_STOPPED;
+        }
+    }
+
+    private int max(final BitBoard board,
                     final int depth,
                     final int highest,
-                    final int lowest) {
-        if (depth == 0 || VirtualBoardUtils.isEndGame(board)) {
+                    final int lowest,
+                    final boolean isQuiescence) {
+        this.checkStopped();
+        if (board.isDraw()) {
+            return DRAW_SCORE;
+        }
+        if (depth == 0) {
             this.boardsEvaluated++;
             return this.evaluator.evaluate(board, depth);
         }
+        final long entry = isQuiescence ? TranspositionEntry.NO_ENTRY : this.transpositionTable.probe(board.getZobristKey());
+        final int hashCutoff = probeCutoff(entry, depth, highest, lowest);
+        if (hashCutoff != NO_CUTOFF) {
+            return hashCutoff;
+        }
         int currentHighest = highest;
-        for (final Move move : MoveSorter.STANDARD.sort((board.getCurrentPlayer().getUsableMoves()))) {
-            final MoveTransition moveTransition = board.getCurrentPlayer().doMove(move);
-            if (moveTransition.moveStatus().isDone()) {
-                final VirtualBoard toVirtualBoard = moveTransition.toBoard();
-                currentHighest = Math.max(currentHighest, min(toVirtualBoard,
-                        calculateQuiescenceDepth(toVirtualBoard, depth), currentHighest, lowest));
-                if (currentHighest >= lowest) {
-                    return lowest;
-                }
+        final boolean isStandPat = isQuiescence && !board.isInCheck(board.getMoveMaker());
+        if (isStandPat) {
+            this.boardsEvaluated++;
+            currentHighest = Math.max(currentHighest, this.evaluator.evaluate(board, depth));
+            if (currentHighest >= lowest) {
+                return lowest;
             }
         }
+        final MovePicker movePicker = getMovePicker(board, isQuiescence, TranspositionEntry.getMove(entry));
+        int numMoves = 0;
+        int bestMove = BitMove.NULL_MOVE;
+        int move;
+        while ((move = movePicker.next()) != BitMove.NULL_MOVE) {
+            numMoves++;
+            board.makeMove(move);
+            final int childDepth = isQuiescence ? depth - 1 : calculateQuiescenceDepth(board, depth);
+            final int value = min(board, childDepth, currentHighest, lowest, isQuiescence || childDepth >= depth);
+            board.unmakeMove();
+            if (value > currentHighest) {
+                currentHighest = value;
+                bestMove = move;
+            }
+            if (currentHighest >= lowest) {
+                movePicker.recordCutoff(move, depth);
+                this.storeNode(board, isQuiescence, depth, lowest, TranspositionEntry.LOWER_BOUND, move);
+                return lowest;
+            }
+        }
+        if (numMoves == 0 && isStandPat) {
+            return currentHighest;
+        }
+        if (numMoves == 0) {
+            this.boardsEvaluated++;
+            final int score = this.evaluator.evaluate(board, depth);
+            this.storeNode(board, isQuiescence, depth, score, TranspositionEntry.EXACT, BitMove.NULL_MOVE);
+            return score;
+        }
+        this.storeNode(board, isQuiescence, depth, currentHighest,
+                bestMove == BitMove.NULL_MOVE ? TranspositionEntry.UPPER_BOUND : TranspositionEntry.EXACT, bestMove);
         return currentHighest;
     }
 
-    private int min(final VirtualBoard board,
+    private int min(final BitBoard board,
                     final int depth,
                     final int highest,
-                    final int lowest) {
-        if (depth == 0 || VirtualBoardUtils.isEndGame(board)) {
+                    final int lowest,
+                    final boolean isQuiescence) {
+        this.checkStopped();
+        if (board.isDraw()) {
+            return DRAW_SCORE;
+        }
+        if (depth == 0) {
             this.boardsEvaluated++;
             return this.evaluator.evaluate(board, depth);
         }
+        final long entry = isQuiescence ? TranspositionEntry.NO_ENTRY : this.transpositionTable.probe(board.getZobristKey());
+        final int hashCutoff = probeCutoff(entry, depth, highest, lowest);
+        if (hashCutoff != NO_CUTOFF) {
+            return hashCutoff;
+        }
         int currentLowest = lowest;
-        for (final Move move : MoveSorter.STANDARD.sort((board.getCurrentPlayer().getUsableMoves()))) {
-            final MoveTransition moveTransition = board.getCurrentPlayer().doMove(move);
-            if (moveTransition.moveStatus().isDone()) {
-                final VirtualBoard toVirtualBoard = moveTransition.toBoard();
-                currentLowest = Math.min(currentLowest, max(toVirtualBoard,
-                        calculateQuiescenceDepth(toVirtualBoard, depth), highest, currentLowest));
-                if (currentLowest <= highest) {
-                    return highest;
-                }
+        final boolean isStandPat = isQuiescence && !board.isInCheck(board.getMoveMaker());
+        if (isStandPat) {
+            this.boardsEvaluated++;
+            currentLowest = Math.min(currentLowest, this.evaluator.evaluate(board, depth));
+            if (currentLowest <= highest) {
+                return highest;
             }
         }
+        final MovePicker movePicker = getMovePicker(board, isQuiescence, TranspositionEntry.getMove(entry));
+        int numMoves = 0;
+        int bestMove = BitMove.NULL_MOVE;
+        int move;
+        while ((move = movePicker.next()) != BitMove.NULL_MOVE) {
+            numMoves++;
+            board.makeMove(move);
+            final int childDepth = isQuiescence ? depth - 1 : calculateQuiescenceDepth(board, depth);
+            final int value = max(board, childDepth, highest, currentLowest, isQuiescence || childDepth >= depth);
+            board.unmakeMove();
+            if (value < currentLowest) {
+                currentLowest = value;
+                bestMove = move;
+            }
+            if (currentLowest <= highest) {
+                movePicker.recordCutoff(move, depth);
+                this.storeNode(board, isQuiescence, depth, highest, TranspositionEntry.UPPER_BOUND, move);
+                return highest;
+            }
+        }
+        if (numMoves == 0 && isStandPat) {
+            return currentLowest;
+        }
+        if (numMoves == 0) {
+            this.boardsEvaluated++;
+            final int score = this.evaluator.evaluate(board, depth);
+            this.storeNode(board, isQuiescence, depth, score, TranspositionEntry.EXACT, BitMove.NULL_MOVE);
+            return score;
+        }
+        this.storeNode(board, isQuiescence, depth, currentLowest,
+                bestMove == BitMove.NULL_MOVE ? TranspositionEntry.LOWER_BOUND : TranspositionEntry.EXACT, bestMove);
         return currentLowest;
     }
 
-    private int calculateQuiescenceDepth(final VirtualBoard toVirtualBoard,
+    /**
+     * Questo metodo controlla se l'elemento della tabella delle trasposizioni basta per chiudere il nodo senza cercarlo.
+     * I punteggi sono sempre dal punto di vista del bianco, quindi la regola è la stessa per i nodi max e min:
+     * un limite inferiore sopra la finestra taglia come un taglio beta, un limite superiore sotto la finestra come un taglio alfa.
+     * @param entry elemento della tabella oppure NO_ENTRY
+     * @param depth profondità rimanente del nodo
+     * @param highest limite inferiore della finestra (alfa)
+     * @param lowest limite superiore della finestra (beta)
+     * @return il punteggio del nodo oppure NO_CUTOFF se il nodo va cercato
+     */
+    private static int probeCutoff(final long entry, final int depth, final int highest, final int lowest) {
+        if (entry == TranspositionEntry.NO_ENTRY || TranspositionEntry.getDepth(entry) < depth) {
+            return NO_CUTOFF;
+        }
+        final int score = TranspositionEntry.getScore(entry);
+        return switch (TranspositionEntry.getBound(entry)) {
+            case TranspositionEntry.EXACT -> score;
+            case TranspositionEntry.LOWER_BOUND -> score >= lowest ? lowest : NO_CUTOFF;
+            case TranspositionEntry.UPPER_BOUND -> score <= highest ? highest : NO_CUTOFF;
+            default -> NO_CUTOFF;
+        };
+    }
+
+    /**
+     * Questo metodo salva il risultato di un nodo nella tabella delle trasposizioni. I nodi di quiescenza non vengono salvati,
+     * perché la loro profondità conta solamente le catture
+     */
+    private void storeNode(final BitBoard board, final boolean isQuiescence, final int depth,
+                           final int score, final int bound, final int bestMove) {
+        if (!isQuiescence) {
+            this.transpositionTable.store(board.getZobristKey(), depth, score, bound, bestMove);
+        }
+    }
+
+    private int calculateQuiescenceDepth(final BitBoard toBoard,
                                          final int depth) {
         if(depth == 1 && this.quiescenceCount < MAX_QUIESCENCE) {
             int activityMeasure = 0;
-            if (toVirtualBoard.getCurrentPlayer().isInCheck()) {
+            if (toBoard.isInCheck(toBoard.getMoveMaker())) {
                 activityMeasure += 1;
             }
-            for(final Move move: VirtualBoardUtils.lastNMoves(toVirtualBoard, 2)) {
-                if(move.isAttack()) {
+            for(int i = 0; i < 2; i++) {
+                if(BitMove.isAttack(toBoard.getLastMove(i))) {
                     activityMeasure += 1;
                 }
             }
@@ -201,6 +494,32 @@ public class StockAlphaBeta extends Observable implements IMoveStrategy {
         return depth - 1;
     }
 
+    /**
+     * Questo metodo prepara il selezionatore di mosse del livello corrente della ricerca.
+     * I selezionatori vengono creati solamente la prima volta che un livello viene raggiunto.
+     * @param board scacchiera a bit del nodo
+     * @param isQuiescence "TRUE" se il nodo fa parte dell'estensione di quiescenza: solamente catture e promozioni
+     * @param hashMove mossa migliore salvata nella tabella delle trasposizioni oppure NULL_MOVE
+     * @return selezionatore del livello, pronto a fornire le mosse del nodo
+     */
+    private MovePicker getMovePicker(final BitBoard board, final boolean isQuiescence, final int hashMove) {
+        final int ply = board.getPly();
+        if (ply >= this.movePickers.length) {
+            final int previousLength = this.movePickers.length;
+            this.movePickers = Arrays.copyOf(this.movePickers, Math.max(INITIAL_PLY_PICKERS, ply * 2));
+            for (int i = previousLength; i < this.movePickers.length; i++) {
+                this.movePickers[i] = new MovePicker();
+            }
+        }
+        final MovePicker movePicker = this.movePickers[ply];
+        if (isQuiescence) {
+            movePicker.initQuiescence(board, this.history[board.getMoveMaker().ordinal()]);
+        } else {
+            movePicker.init(board, hashMove, this.history[board.getMoveMaker().ordinal()]);
+        }
+        return movePicker;
+    }
+
     private static String calculateTimeTaken(final long start, final long end) {
         final long timeTaken = (end - start) / 1000000;
         return timeTaken + " ms";
@@ -0,0 +1,139 @@
+package core.player.ai;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Questa classe decide quanto tempo può pensare l'AI per una mossa, partendo dal tempo rimasto sull'orologio,
+ * dall'incremento per mossa e dal numero di mosse che mancano al controllo del tempo.
+ * Calcola due limiti: quello morbido viene controllato tra un'iterazione e l'altra dell'approfondimento iterativo,
+ * quello rigido ferma la ricerca anche a metà di un'iterazione.
+ * Il limite morbido si adatta durante la ricerca: si accorcia se la mossa migliore resta la stessa per più iterazioni
+ * e si allunga se la mossa migliore cambia o se il punteggio scende rispetto all'iterazione precedente,
+ * senza mai superare il limite rigido.
+ */
+@Getter
+public final class TimeManager {
+    public static final long NO_LIMIT = Long.MAX_VALUE;
+
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final long MOVE_OVERHEAD_MS = 50;
+    private static final int INCREMENT_PERCENT = 75;
+    private static final int HARD_LIMIT_FACTOR = 4;
+    private static final int MAX_USAGE_PERCENT = 80;
+    private static final long NANOS_PER_MS = 1_000_000L;
+
+    // Un'iterazione costa di solito più di tutte le precedenti insieme: non conviene iniziarla oltre questa frazione
+    private static final double NEXT_ITERATION_FRACTION = 0.6;
+    private static final int STABLE_ITERATIONS = 3;
+    private static final double STABLE_FACTOR = 0.6;
+    private static final double CHANGED_FACTOR = 1.4;
+    private static final int SMALL_SCORE_DROP = 25;
+    private static final int BIG_SCORE_DROP = 60;
+    private static final double SMALL_DROP_FACTOR = 1.3;
+    private static final double BIG_DROP_FACTOR = 1.6;
+
+    private final long softLimitMs;
+    private final long hardLimitMs;
+    @Getter(AccessLevel.NONE)
+    private long startTime;
+    @Getter(AccessLevel.NONE)
+    private int numIterations;
+    @Getter(AccessLevel.NONE)
+    private int previousMove;
+    @Getter(AccessLevel.NONE)
+    private int previousScore;
+    @Getter(AccessLevel.NONE)
+    private int stableIterations;
+    private double scale;
+
+    /**
+     * @param remainingMs tempo rimasto sull'orologio in millisecondi
+     * @param incrementMs incremento aggiunto dopo ogni mossa in millisecondi
+     * @param movesToGo mosse che mancano al prossimo controllo del tempo, 0 se il tempo deve bastare per tutta la partita
+     */
+    public TimeManager(final long remainingMs, final long incrementMs, final int movesToGo) {
+        if(remainingMs < 0 || incrementMs < 0 || movesToGo < 0)
+            throw new IllegalArgumentException("Parametri del tempo non validi: " + remainingMs + ", " + incrementMs + ", " + movesToGo);
+
+        final long available = Math.max(0, remainingMs - MOVE_OVERHEAD_MS);
+        final long maxUsage = movesToGo == 1 ? available : available * MAX_USAGE_PERCENT / 100;
+        final long soft = available / (movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO) + incrementMs * INCREMENT_PERCENT / 100;
+
+        this.hardLimitMs = Math.min(soft * HARD_LIMIT_FACTOR, maxUsage);
+        this.softLimitMs = Math.min(soft, this.hardLimitMs);
+        this.start();
+    }
+
+    private TimeManager() {
+        this.softLimitMs = NO_LIMIT;
+        this.hardLimitMs = NO_LIMIT;
+        this.start();
+    }
+
+    /**
+     * @return un gestore senza limiti di tempo: la ricerca arriva sempre alla profondità richiesta
+     */
+    public static TimeManager unlimited() {
+        return new TimeManager();
+    }
+
+    /**
+     * Questo metodo fa partire l'orologio della mossa e dimentica le iterazioni della mossa precedente
+     */
+    public void start() {
+        this.startTime = System.nanoTime();
+        this.numIterations = 0;
+        this.stableIterations = 0;
+        this.scale = 1.0;
+    }
+
+    /**
+     * @return millisecondi passati dall'inizio della mossa
+     */
+    public long getElapsedMs() {
+        return (System.nanoTime() - this.startTime) / NANOS_PER_MS;
+    }
+
+    /**
+     * Questo metodo è abbastanza economico da essere chiamato durante la ricerca, ogni qualche migliaio di nodi
+     * @return "TRUE" se la ricerca deve fermarsi subito
+     */
+    public boolean isHardLimitReached() {
+        return this.hardLimitMs != NO_LIMIT && this.getElapsedMs() >= this.hardLimitMs;
+    }
+
+    /**
+     * Questo metodo va chiamato alla fine di ogni iterazione completata, per adattare il limite morbido
+     * @param bestMove mossa migliore dell'iterazione, codificata con {@link core.move.BitMove}
+     * @param score punteggio della mossa dal punto di vista del giocatore che muove
+     */
+    public void iterationCompleted(final int bestMove, final int score) {
+        if(this.numIterations > 0) {
+            this.stableIterations = bestMove == this.previousMove ? this.stableIterations + 1 : 0;
+
+            final double stabilityFactor = this.stableIterations >= STABLE_ITERATIONS ? STABLE_FACTOR :
+                    this.stableIterations == 0 ? CHANGED_FACTOR : 1.0;
+            final int scoreDrop = this.previousScore - score;
+            final double scoreFactor = scoreDrop >= BIG_SCORE_DROP ? BIG_DROP_FACTOR :
+                    scoreDrop >= SMALL_SCORE_DROP ? SMALL_DROP_FACTOR : 1.0;
+
+            this.scale = stabilityFactor * scoreFactor;
+        }
+
+        this.numIterations++;
+        this.previousMove = bestMove;
+        this.previousScore = score;
+    }
+
+    /**
+     * @return "TRUE" se c'è abbastanza tempo per completare un'altra iterazione prima del limite morbido adattato
+     */
+    public boolean canStartIteration() {
+        if(this.softLimitMs == NO_LIMIT)
+            return true;
+
+        final double adjustedSoftLimit = Math.min(this.softLimitMs * this.scale, this.hardLimitMs);
+        return this.getElapsedMs() < adjustedSoftLimit * NEXT_ITERATION_FRACTION;
+    }
+}
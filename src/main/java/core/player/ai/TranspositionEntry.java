@@ -0,0 +1,164 @@
+package core.player.ai;
+
+import core.move.BitMove;
+
+/**
+ * Questa classe serve a rappresentare un elemento della tabella delle trasposizioni come un unico numero a 64 bit,
+ * cosi le tabelle possono essere semplici array di long senza creare un oggetto per ogni posizione.
+ * Composizione: bit 0-19 mossa migliore ({@link BitMove}), bit 20-25 profondità, bit 26-27 tipo di limite,
+ * bit 28-31 età (numero della ricerca che l'ha salvato), bit 32-63 punteggio.
+ * Un elemento salvato ha sempre un tipo di limite, quindi non vale mai {@link #NO_ENTRY}.
+ */
+public final class TranspositionEntry {
+    public static final long NO_ENTRY = 0L;
+
+    // Il punteggio è esatto, oppure è solamente un limite inferiore (taglio) o superiore (nessuna mossa migliora la finestra)
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    public static final int MAX_DEPTH = 0x3F;
+    public static final int NUM_AGES = 16;
+
+    // Le tabelle a gruppi ("bucket") scelgono l'elemento da sostituire tra questi due
+    public static final int BUCKET_SIZE = 2;
+
+    private static final long MOVE_MASK = 0xFFFFF;
+    private static final int DEPTH_SHIFT = 20;
+    private static final int BOUND_SHIFT = 26;
+    private static final int BOUND_MASK = 0x3;
+    private static final int AGE_SHIFT = 28;
+    private static final int AGE_MASK = NUM_AGES - 1;
+    private static final int SCORE_SHIFT = 32;
+    private static final int EMPTY_VALUE = -2;
+    private static final int OLD_VALUE = -1;
+
+    /**
+     * Il costruttore della classe è privato perché la classe contiene solamente metodi statici
+     */
+    private TranspositionEntry() {
+        throw new RuntimeException("Ma come pensi di potermi istanziare!?");
+    }
+
+    /**
+     * @param depth profondità della ricerca che ha calcolato il punteggio, limitata a {@link #MAX_DEPTH}
+     * @param score punteggio della posizione
+     * @param bound tipo di limite: EXACT, LOWER_BOUND o UPPER_BOUND
+     * @param bestMove mossa migliore trovata oppure NULL_MOVE
+     * @param age età della ricerca, da 0 a NUM_AGES - 1
+     * @return l'elemento codificato
+     */
+    public static long create(final int depth, final int score, final int bound, final int bestMove, final int age) {
+        if(bound < EXACT || bound > UPPER_BOUND)
+            throw new IllegalArgumentException("Tipo di limite non valido: " + bound);
+
+        return (bestMove & MOVE_MASK) | ((long) Math.min(Math.max(depth, 0), MAX_DEPTH) << DEPTH_SHIFT) |
+                ((long) bound << BOUND_SHIFT) | ((long) (age & AGE_MASK) << AGE_SHIFT) | ((long) score << SCORE_SHIFT);
+    }
+
+    /**
+     * @param entry elemento codificato
+     * @return mossa migliore oppure NULL_MOVE
+     */
+    public static int getMove(final long entry) {
+        return (int) (entry & MOVE_MASK);
+    }
+
+    /**
+     * @param entry elemento codificato
+     * @return profondità della ricerca che ha calcolato il punteggio
+     */
+    public static int getDepth(final long entry) {
+        return (int) (entry >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+    /**
+     * @param entry elemento codificato
+     * @return tipo di limite: EXACT, LOWER_BOUND o UPPER_BOUND
+     */
+    public static int getBound(final long entry) {
+        return (int) (entry >>> BOUND_SHIFT) & BOUND_MASK;
+    }
+
+    /**
+     * @param entry elemento codificato
+     * @return età della ricerca che ha salvato l'elemento
+     */
+    public static int getAge(final long entry) {
+        return (int) (entry >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+    /**
+     * @param entry elemento codificato
+     * @return punteggio della posizione
+     */
+    public static int getScore(final long entry) {
+        return (int) (entry >> SCORE_SHIFT);
+    }
+
+    /**
+     * Questo metodo decide se un nuovo elemento può prendere il posto di quello salvato:
+     * un elemento di una ricerca precedente viene sempre sostituito, altrimenti vince la profondità maggiore
+     * @param oldEntry elemento salvato
+     * @param depth profondità del nuovo elemento
+     * @param age età della ricerca attuale
+     * @return "TRUE" se il nuovo elemento deve sostituire quello salvato
+     */
+    public static boolean isReplaceable(final long oldEntry, final int depth, final int age) {
+        return oldEntry == NO_ENTRY || getAge(oldEntry) != (age & AGE_MASK) || depth >= getDepth(oldEntry);
+    }
+
+    /**
+     * Questo metodo crea l'elemento da scrivere al posto di quello salvato, se la politica di sostituzione lo permette.
+     * Un limite senza mossa non cancella la mossa migliore già trovata per la stessa posizione.
+     * @param oldEntry elemento salvato oppure NO_ENTRY
+     * @param isSameKey "TRUE" se l'elemento salvato è della stessa posizione: in quel caso viene sempre aggiornato
+     * @param depth profondità della ricerca
+     * @param score punteggio della posizione
+     * @param bound tipo di limite: EXACT, LOWER_BOUND o UPPER_BOUND
+     * @param bestMove mossa migliore trovata oppure NULL_MOVE
+     * @param age età della ricerca attuale
+     * @return il nuovo elemento oppure NO_ENTRY se l'elemento salvato deve restare
+     */
+    public static long replace(final long oldEntry, final boolean isSameKey, final int depth, final int score,
+                               final int bound, final int bestMove, final int age) {
+        if(!isSameKey && !isReplaceable(oldEntry, depth, age))
+            return NO_ENTRY;
+
+        final int move = bestMove == BitMove.NULL_MOVE && isSameKey ? getMove(oldEntry) : bestMove;
+        return create(depth, score, bound, move, age);
+    }
+
+    /**
+     * Questo metodo sceglie quale elemento di un gruppo di {@link #BUCKET_SIZE} elementi sostituire:
+     * quello della stessa posizione se c'è, altrimenti prima uno vuoto, poi uno di una ricerca precedente, poi il meno profondo
+     * @param first primo elemento del gruppo
+     * @param isFirstSameKey "TRUE" se il primo elemento è della posizione da salvare
+     * @param second secondo elemento del gruppo
+     * @param isSecondSameKey "TRUE" se il secondo elemento è della posizione da salvare
+     * @param age età della ricerca attuale
+     * @return 0 per sostituire il primo elemento, 1 per il secondo
+     */
+    public static int selectVictim(final long first, final boolean isFirstSameKey, final long second,
+                                   final boolean isSecondSameKey, final int age) {
+        if(isFirstSameKey)
+            return 0;
+
+        if(isSecondSameKey)
+            return 1;
+
+        return replacementValue(second, age) < replacementValue(first, age) ? 1 : 0;
+    }
+
+    /**
+     * @param entry elemento salvato
+     * @param age età della ricerca attuale
+     * @return utilità dell'elemento: tra gli elementi di un gruppo viene sostituito quello con il valore più basso
+     */
+    private static int replacementValue(final long entry, final int age) {
+        if(entry == NO_ENTRY)
+            return EMPTY_VALUE;
+
+        return getAge(entry) != (age & AGE_MASK) ? OLD_VALUE : getDepth(entry);
+    }
+}
@@ -0,0 +1,72 @@
+package core.player.ai;
+
+import java.util.Arrays;
+
+/**
+ * Questa classe è la tabella delle trasposizioni a dimensione fissa, con un elemento per ogni cella.
+ * Le chiavi e gli elementi sono salvati in due array di long, come nella tabella hash del {@link core.board.Perft}.
+ * Non è pensata per essere condivisa tra più thread.
+ */
+public final class TranspositionTable implements ITranspositionTable {
+
+    private static final int BYTES_PER_ENTRY = 16;
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+    private static final long MAX_ENTRIES = 1L << 30;
+
+    private final int sizeMb;
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+    private int age;
+
+    /**
+     * @param sizeMb dimensione della tabella in MB, viene usata la potenza di 2 di elementi che ci sta
+     */
+    public TranspositionTable(final int sizeMb) {
+        if(sizeMb <= 0)
+            throw new IllegalArgumentException("La dimensione della tabella deve essere positiva: " + sizeMb);
+
+        final int numEntries = (int) Long.highestOneBit(Math.min(sizeMb * BYTES_PER_MB / BYTES_PER_ENTRY, MAX_ENTRIES));
+
+        this.sizeMb = sizeMb;
+        this.keys = new long[numEntries];
+        this.entries = new long[numEntries];
+        this.mask = numEntries - 1;
+        this.age = 0;
+    }
+
+    @Override
+    public long probe(final long key) {
+        final int index = (int) key & this.mask;
+        return this.keys[index] == key ? this.entries[index] : TranspositionEntry.NO_ENTRY;
+    }
+
+    @Override
+    public void store(final long key, final int depth, final int score, final int bound, final int bestMove) {
+        final int index = (int) key & this.mask;
+        final long entry = TranspositionEntry.replace(this.entries[index], this.keys[index] == key, depth, score, bound, bestMove, this.age);
+
+        if(entry == TranspositionEntry.NO_ENTRY)
+            return;
+
+        this.keys[index] = key;
+        this.entries[index] = entry;
+    }
+
+    @Override
+    public void newSearch() {
+        this.age = (this.age + 1) % TranspositionEntry.NUM_AGES;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.keys, 0L);
+        Arrays.fill(this.entries, TranspositionEntry.NO_ENTRY);
+        this.age = 0;
+    }
+
+    @Override
+    public int getSizeMb() {
+        return this.sizeMb;
+    }
+}
@@ -37,6 +37,11 @@ public interface IUtils {
      */
     int getOppositeDirection();
 
+    /**
+     * @return gli utility del colore avversario. Implementato nel "WHITE" ritornerà "BLACK" e viceversa
+     */
+    Utils getOpponentUtils();
+
     /**
      * Scegli tra i due colori di giocatori quale usare.
      * Implementato nel "WHITE" ritornerà il giocatore bianco e viceversa
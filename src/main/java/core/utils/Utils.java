@@ -55,6 +55,14 @@ public enum Utils implements IUtils {
             return DOWN_DIRECTION;
         }
 
+        /**
+         * @return gli utility del colore avversario
+         */
+        @Override
+        public Utils getOpponentUtils() {
+            return BLACK;
+        }
+
         /**
          * Scegli tra i due colori di giocatori quale usare.
          * Implementato nel "WHITE" ritornerà il giocatore bianco e viceversa
@@ -169,6 +177,14 @@ public enum Utils implements IUtils {
             return UP_DIRECTION;
         }
 
+        /**
+         * @return gli utility del colore avversario
+         */
+        @Override
+        public Utils getOpponentUtils() {
+            return WHITE;
+        }
+
         /**
          * Scegli tra i due colori di giocatori quale usare.
          * Implementato nel "WHITE" ritornerà il giocatore bianco e viceversa
@@ -5,8 +5,14 @@ import core.move.*;
 import core.board.VirtualBoard;
 import core.board.VirtualBoardUtils;
 import core.pieces.piece.Piece;
+import core.player.ai.ITranspositionTable;
+import core.player.ai.OffHeapTranspositionTable;
 import core.player.ai.PlayerType;
 import core.player.ai.StockAlphaBeta;
+import core.player.ai.TimeManager;
+import core.player.ai.TranspositionTable;
+import core.utils.Utils;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import util.Configuration;
@@ -16,6 +22,8 @@ import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.image.BufferedImage;
@@ -26,7 +34,10 @@ import java.util.List;
 
 import static javax.swing.SwingUtilities.*;
 import static util.Constants.RESOURCE_BASE_PATH;
-import static util.Constants.SEARCH_DEPTH;
+import static util.Constants.HASH_SIZE_MB;
+import static util.Constants.ENGINE_TIME_MS;
+import static util.Constants.ENGINE_INCREMENT_MS;
+import static util.Constants.ENGINE_MOVES_TO_GO;
 
 /**
  * Questa classe rappresenta la GUI e i suoi elementi collegati.
@@ -39,6 +50,7 @@ public final class Window extends Observable {
     private final TakenPiecesPanel takenPiecesPanel;
     private final DrawingGame drawingGame;
     private final GameSetup gameSetup;
+    private volatile ITranspositionTable transpositionTable;
 
     private VirtualBoard virtualBoard;
     private BoardDirection boardDirection;
@@ -48,6 +60,9 @@ public final class Window extends Observable {
     private Move computerMove;
     private boolean highlightLegalMoves;
     private String pieceIconPath;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Map<Utils, Long> clocksMs;
 
     private static final Window INSTANCE = new Window();
 
@@ -66,10 +81,20 @@ public final class Window extends Observable {
         this.takenPiecesPanel = new TakenPiecesPanel();
         this.drawingGame = new DrawingGame(this.windowFrame, true);
         this.gameSetup = new GameSetup(this.windowFrame, true);
+        this.transpositionTable = createTranspositionTable();
+        this.clocksMs = new EnumMap<>(Utils.class);
+        this.resetClocks();
         this.addObserver(new WindowGameAIWatcher());
         this.windowFrame.add(this.takenPiecesPanel, BorderLayout.WEST);
         this.windowFrame.add(this.boardPanel, BorderLayout.CENTER);
         this.windowFrame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        this.windowFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(final WindowEvent e) {
+                // Fine della sessione: la memoria della tabella viene restituita prima di uscire
+                Window.get().getTranspositionTable().release();
+            }
+        });
         this.windowFrame.setSize(Constants.WINDOW_DIMENSION);
         this.windowFrame.setVisible(true);
     }
@@ -262,9 +287,47 @@ public final class Window extends Observable {
 
         preferencesMenu.add(cbLegalMoveHighlighter);
 
+        // Tabella delle trasposizioni fuori dallo heap
+        final JCheckBoxMenuItem cbOffHeapHash = new JCheckBoxMenuItem(
+                "Tabella delle trasposizioni fuori dallo heap", Configuration.isOffHeapHash);
+
+        cbOffHeapHash.addActionListener(e -> {
+            Configuration.isOffHeapHash = cbOffHeapHash.isSelected();
+            this.replaceTranspositionTable();
+        });
+
+        preferencesMenu.add(cbOffHeapHash);
+
+        // Partita a tempo: la profondità della ricerca la decide l'orologio
+        final JCheckBoxMenuItem cbTimedGame = new JCheckBoxMenuItem(
+                "Gioca a tempo", Configuration.isTimedGame);
+
+        cbTimedGame.addActionListener(e -> Configuration.isTimedGame = cbTimedGame.isSelected());
+
+        preferencesMenu.add(cbTimedGame);
+
         return preferencesMenu;
     }
 
+    /**
+     * Questo metodo crea la tabella delle trasposizioni scelta nella configurazione.
+     * La tabella fuori dallo heap viene creata in un thread separato, cosi la finestra non aspetta l'allocazione.
+     * @return tabella delle trasposizioni vuota
+     */
+    private static ITranspositionTable createTranspositionTable() {
+        return Configuration.isOffHeapHash ? new OffHeapTranspositionTable(HASH_SIZE_MB, true) : new TranspositionTable(HASH_SIZE_MB);
+    }
+
+    /**
+     * Questo metodo rilascia la tabella delle trasposizioni attuale e ne crea una nuova secondo la configurazione.
+     * Una ricerca in corso finisce con la tabella che aveva, la mossa successiva usa quella nuova.
+     */
+    private void replaceTranspositionTable() {
+        final ITranspositionTable oldTable = this.transpositionTable;
+        this.transpositionTable = createTranspositionTable();
+        oldTable.release();
+    }
+
     /**
      * Questo metodo viene utilizzato per annullare l'ultima mossa effettuata
      */
@@ -292,6 +355,31 @@ public final class Window extends Observable {
         Window.get().getBoardPanel().drawBoard(this.virtualBoard);
     }
 
+    /**
+     * @param utils colore del giocatore
+     * @return millisecondi rimasti sull'orologio del giocatore
+     */
+    public synchronized long getClockMs(final Utils utils) {
+        return this.clocksMs.get(utils);
+    }
+
+    /**
+     * Questo metodo toglie dall'orologio del giocatore il tempo pensato e aggiunge l'incremento, come in una partita a tempo
+     * @param utils colore del giocatore
+     * @param elapsedMs millisecondi usati per la mossa
+     */
+    public synchronized void chargeClock(final Utils utils, final long elapsedMs) {
+        this.clocksMs.put(utils, Math.max(0, this.clocksMs.get(utils) - elapsedMs) + ENGINE_INCREMENT_MS);
+    }
+
+    /**
+     * Questo metodo rimette il tempo iniziale sugli orologi di entrambi i giocatori
+     */
+    private synchronized void resetClocks() {
+        for(final Utils utils : Utils.values())
+            this.clocksMs.put(utils, ENGINE_TIME_MS);
+    }
+
     /**
      * Questo metodo serve per annullare tutte le mosse eseguite.
      * Viene utilizzato come metodo per reinizializzare una partita
@@ -303,6 +391,9 @@ public final class Window extends Observable {
         }
 
         this.computerMove = null;
+        // Una ricerca ancora in corso continua con la tabella vecchia: svuotarla ora mescolerebbe le sue celle
+        this.replaceTranspositionTable();
+        this.resetClocks();
         Window.get().getMoveLog().clear();
         Window.get().getTakenPiecesPanel().redo(Window.get().getMoveLog());
         Window.get().getBoardPanel().drawBoard(this.virtualBoard);
@@ -618,8 +709,20 @@ public final class Window extends Observable {
          */
         @Override
         protected Move doInBackground() {
-            final StockAlphaBeta strategy = new StockAlphaBeta(SEARCH_DEPTH);
-            return strategy.execute(Window.get().getVirtualBoard());
+            final Utils utils = Window.get().getVirtualBoard().getCurrentPlayer().getUtils();
+            final boolean isTimedGame = Configuration.isTimedGame;
+            // A tempo la ricerca si ferma quando lo decide l'orologio, altrimenti alla profondità scelta
+            final TimeManager timeManager = isTimedGame ?
+                    new TimeManager(Window.get().getClockMs(utils), ENGINE_INCREMENT_MS, ENGINE_MOVES_TO_GO) : TimeManager.unlimited();
+            final int searchDepth = isTimedGame ?
+                    StockAlphaBeta.MAX_SEARCH_DEPTH : Math.max(1, Window.get().getGameSetup().getSearchDepth());
+            final StockAlphaBeta strategy = new StockAlphaBeta(searchDepth, Window.get().getTranspositionTable(), timeManager);
+            final Move bestMove = strategy.execute(Window.get().getVirtualBoard());
+
+            if (isTimedGame)
+                Window.get().chargeClock(utils, timeManager.getElapsedMs());
+
+            return bestMove;
         }
 
         /**
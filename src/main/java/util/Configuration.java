@@ -3,4 +3,9 @@ package util;
 public class Configuration {
 
     public static boolean isDrawingMode = false;
+    // Si attiva anche all'avvio con -DoffHeapHash=true
+    public static boolean isOffHeapHash = Boolean.getBoolean("offHeapHash");
+    // Senza partita a tempo l'AI cerca fino alla profondità scelta; si attiva anche all'avvio con -DtimedGame=true.
+    // La scrive il thread della GUI e la legge quello dell'AI
+    public static volatile boolean isTimedGame = Boolean.getBoolean("timedGame");
 }
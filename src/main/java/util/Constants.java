@@ -24,5 +24,8 @@ public class Constants {
     // Throw error message
     public static final String CLASS_NOT_FOUND = "Classe non trovata!";
     public static final String RUNTIME_EXCEPTION = "Eccezione di runtime";
-    public static final Integer SEARCH_DEPTH = 3;
+    public static final Integer HASH_SIZE_MB = 16;
+    public static final long ENGINE_TIME_MS = 5 * 60 * 1000L;
+    public static final long ENGINE_INCREMENT_MS = 2000L;
+    public static final int ENGINE_MOVES_TO_GO = 0;
 }
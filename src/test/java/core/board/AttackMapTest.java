@@ -0,0 +1,132 @@
+package core.board;
+
+import core.move.BitMove;
+import core.utils.Utils;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifica che la {@link AttackMap} aggiornata a ogni mossa sia uguale a quella calcolata da zero
+ */
+public class AttackMapTest {
+
+    private static final int WALK_DEPTH = 3;
+    private static final int RANDOM_WALKS = 200;
+    private static final int RANDOM_WALK_PLIES = 80;
+    private static final long SEED = 20240917L;
+
+    @Test
+    public void incrementalMapMatchesRecomputedMap() {
+        for(final PerftPosition position : PerftPosition.values()) {
+            final BitBoard board = position.toBitBoard();
+            board.enableAttackMap();
+            walk(position.name(), board, WALK_DEPTH);
+        }
+    }
+
+    @Test
+    public void incrementalMapMatchesRecomputedMapOnRandomGames() {
+        final Random random = new Random(SEED);
+        final int[] moves = new int[BitBoard.MAX_MOVES];
+
+        for(final PerftPosition position : PerftPosition.values()) {
+            for(int walk = 0; walk < RANDOM_WALKS; walk++) {
+                final BitBoard board = position.toBitBoard();
+                board.enableAttackMap();
+                String path = position.name();
+                int plies = 0;
+
+                for(; plies < RANDOM_WALK_PLIES; plies++) {
+                    final int numMoves = board.generateLegalMoves(moves);
+
+                    if(numMoves == 0)
+                        break;
+
+                    final int move = moves[random.nextInt(numMoves)];
+                    path += " " + BitMove.toString(move);
+                    board.makeMove(move);
+                    assertSameMap(path, board);
+                }
+
+                // Annullando le mosse si torna indietro per la stessa strada
+                for(; plies > 0; plies--) {
+                    board.unmakeMove();
+                    assertSameMap(path + " (annullate " + plies + ")", board);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void copiedBoardKeepsAnIndependentMap() {
+        final BitBoard board = PerftPosition.KIWIPETE.toBitBoard();
+        board.enableAttackMap();
+
+        final BitBoard copy = new BitBoard(board);
+        final int[] moves = new int[BitBoard.MAX_MOVES];
+        copy.generateLegalMoves(moves);
+        copy.makeMove(moves[0]);
+
+        assertSameMap("originale", board);
+        assertSameMap("copia", copy);
+    }
+
+    @Test
+    public void mapAgreesWithBoardWithoutMap() {
+        for(final PerftPosition position : PerftPosition.values()) {
+            final BitBoard board = position.toBitBoard();
+            final BitBoard withMap = position.toBitBoard();
+            withMap.enableAttackMap();
+
+            for(int square = 0; square < VirtualBoardUtils.NUM_TILES; square++) {
+                assertEquals(position + " " + square, board.calculateAttacks(square), withMap.calculateAttacks(square));
+
+                for(final Utils utils : Utils.values())
+                    assertEquals(position + " " + square + " " + utils,
+                            board.isSquareAttacked(square, utils), withMap.isSquareAttacked(square, utils));
+            }
+        }
+    }
+
+    /**
+     * Esegue e annulla tutte le mosse fino alla profondità indicata, controllando la mappa dopo ogni operazione
+     */
+    private static void walk(final String path, final BitBoard board, final int depth) {
+        if(depth == 0)
+            return;
+
+        final int[] moves = new int[BitBoard.MAX_MOVES];
+        final int numMoves = board.generateLegalMoves(moves);
+
+        for(int i = 0; i < numMoves; i++) {
+            final String movePath = path + " " + BitMove.toString(moves[i]);
+
+            board.makeMove(moves[i]);
+            assertSameMap(movePath, board);
+            walk(movePath, board, depth - 1);
+            board.unmakeMove();
+            assertSameMap(movePath + " (annullata)", board);
+        }
+    }
+
+    /**
+     * Confronta la mappa della scacchiera con una mappa nuova calcolata da zero sulla stessa posizione
+     */
+    private static void assertSameMap(final String path, final BitBoard board) {
+        final AttackMap expected = new AttackMap(board);
+        final AttackMap actual = board.getAttackMap();
+
+        for(final Utils utils : Utils.values()) {
+            assertEquals(path + " " + utils, expected.getAttacked(utils), actual.getAttacked(utils));
+
+            for(int square = 0; square < VirtualBoardUtils.NUM_TILES; square++)
+                assertEquals(path + " " + utils + " " + square, expected.getAttackerCount(square, utils), actual.getAttackerCount(square, utils));
+        }
+
+        for(int square = 0; square < VirtualBoardUtils.NUM_TILES; square++)
+            assertEquals(path + " " + square, expected.getPieceAttacks(square), actual.getPieceAttacks(square));
+    }
+}
@@ -0,0 +1,131 @@
+package core.board;
+
+import core.move.BitMove;
+import core.move.Move;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifica le patte della {@link BitBoard}: ripetizione, regola delle 50 mosse e materiale insufficiente
+ */
+public class BitBoardDrawTest {
+
+    private static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    public void repetitionInsideSearch() {
+        final BitBoard board = BitBoard.fromFen(START_FEN);
+
+        play(board, "g1-f3", "g8-f6", "f3-g1");
+        assertFalse(board.isRepetition());
+
+        play(board, "f6-g8");
+        assertTrue(board.isRepetition());
+        assertTrue(board.isDraw());
+
+        board.unmakeMove();
+        assertFalse(board.isRepetition());
+    }
+
+    @Test
+    public void repetitionAfterIrreversibleMove() {
+        final BitBoard board = BitBoard.fromFen(START_FEN);
+
+        play(board, "g1-f3", "g8-f6", "e2-e3", "f6-g8", "f3-g1", "g8-f6");
+        assertEquals(3, board.getHalfMoveClock());
+        assertFalse(board.isRepetition());
+
+        play(board, "g1-f3");
+        assertTrue(board.isRepetition());
+    }
+
+    @Test
+    public void repetitionWithGameHistory() {
+        VirtualBoard virtualBoard = VirtualBoard.getDefaultBoard();
+
+        for(final String move : new String[]{"g1-f3", "g8-f6", "f3-g1", "f6-g8"})
+            virtualBoard = play(virtualBoard, move);
+
+        final BitBoard board = BitBoard.fromVirtualBoard(virtualBoard);
+        assertEquals(4, board.getHalfMoveClock());
+        assertTrue(board.isRepetition());
+
+        play(board, "g1-f3");
+        assertTrue(board.isRepetition());
+    }
+
+    @Test
+    public void fiftyMoveRule() {
+        final BitBoard board = BitBoard.fromFen("4k3/8/8/8/8/8/4P3/R3K3 w - - 99 80");
+        assertFalse(board.isFiftyMoveDraw());
+
+        play(board, "a1-a2");
+        assertEquals(100, board.getHalfMoveClock());
+        assertTrue(board.isFiftyMoveDraw());
+        assertTrue(board.isDraw());
+
+        board.unmakeMove();
+        assertEquals(99, board.getHalfMoveClock());
+
+        play(board, "e2-e4");
+        assertEquals(0, board.getHalfMoveClock());
+        assertFalse(board.isFiftyMoveDraw());
+    }
+
+    @Test
+    public void checkMateBeatsFiftyMoveRule() {
+        final BitBoard board = BitBoard.fromFen("7k/6Q1/6K1/8/8/8/8/8 b - - 100 80");
+
+        assertTrue(board.isFiftyMoveDraw());
+        assertTrue(board.isInCheckMate());
+        assertFalse(board.isDraw());
+    }
+
+    @Test
+    public void insufficientMaterial() {
+        assertTrue(BitBoard.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1").isInsufficientMaterial());
+        assertTrue(BitBoard.fromFen("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1").isInsufficientMaterial());
+        assertTrue(BitBoard.fromFen("4k3/8/8/8/8/8/8/1N2K3 w - - 0 1").isInsufficientMaterial());
+        // Alfieri sulle celle dello stesso colore: c1 e f8 sono entrambe scure
+        assertTrue(BitBoard.fromFen("4kb2/8/8/8/8/8/8/2B1K3 w - - 0 1").isInsufficientMaterial());
+        assertTrue(BitBoard.fromFen("4kb2/8/8/8/8/8/8/2B1K3 w - - 0 1").isDraw());
+
+        assertFalse(BitBoard.fromFen("4k3/8/8/8/8/8/8/1NB1K3 w - - 0 1").isInsufficientMaterial());
+        assertFalse(BitBoard.fromFen("4k3/8/8/8/8/8/8/1NN1K3 w - - 0 1").isInsufficientMaterial());
+        assertFalse(BitBoard.fromFen("4kb2/8/8/8/8/8/8/3BK3 w - - 0 1").isInsufficientMaterial());
+        assertFalse(BitBoard.fromFen("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1").isInsufficientMaterial());
+        assertFalse(BitBoard.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 0 1").isInsufficientMaterial());
+    }
+
+    /**
+     * Esegue le mosse indicate come coordinate, cercandole tra le mosse legali
+     */
+    private static void play(final BitBoard board, final String... moves) {
+        final int[] legalMoves = new int[BitBoard.MAX_MOVES];
+
+        for(final String move : moves) {
+            final int numMoves = board.generateLegalMoves(legalMoves);
+            int found = BitMove.NULL_MOVE;
+
+            for(int i = 0; i < numMoves; i++) {
+                if(BitMove.toString(legalMoves[i]).equals(move))
+                    found = legalMoves[i];
+            }
+
+            assertTrue("Mossa non legale: " + move, found != BitMove.NULL_MOVE);
+            board.makeMove(found);
+        }
+    }
+
+    private static VirtualBoard play(final VirtualBoard board, final String move) {
+        for(final Move usableMove : board.getCurrentPlayer().getUsableMoves()) {
+            if(BitMove.toString(BitMove.fromMove(usableMove)).equals(move))
+                return board.getCurrentPlayer().doMove(usableMove).toBoard();
+        }
+
+        throw new AssertionError("Mossa non legale: " + move);
+    }
+}
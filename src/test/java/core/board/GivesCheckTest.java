@@ -0,0 +1,146 @@
+package core.board;
+
+import core.move.BitMove;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifica che {@link BitBoard#givesCheck(int)}, che non esegue la mossa, dica lo stesso di
+ * {@link BitBoard#makeMove(int)} seguito da {@link BitBoard#isInCheck(core.utils.Utils)} sul giocatore avversario
+ */
+public class GivesCheckTest {
+
+    private static final int WALK_DEPTH = 3;
+    private static final int RANDOM_WALKS = 200;
+    private static final int RANDOM_WALK_PLIES = 80;
+    private static final long SEED = 20240917L;
+
+    @Test
+    public void givesCheckMatchesMakeMove() {
+        for(final PerftPosition position : PerftPosition.values())
+            walk(position.name(), position.toBitBoard(), WALK_DEPTH);
+    }
+
+    @Test
+    public void givesCheckMatchesMakeMoveOnRandomGames() {
+        final Random random = new Random(SEED);
+        final int[] moves = new int[BitBoard.MAX_MOVES];
+
+        for(final PerftPosition position : PerftPosition.values()) {
+            for(int walk = 0; walk < RANDOM_WALKS; walk++) {
+                final BitBoard board = position.toBitBoard();
+                String path = position.name();
+
+                for(int ply = 0; ply < RANDOM_WALK_PLIES; ply++) {
+                    final int numMoves = board.generateLegalMoves(moves);
+
+                    if(numMoves == 0)
+                        break;
+
+                    for(int i = 0; i < numMoves; i++)
+                        assertGivesCheck(path, board, moves[i]);
+
+                    final int move = moves[random.nextInt(numMoves)];
+                    path += " " + BitMove.toString(move);
+                    board.makeMove(move);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void discoveredCheck() {
+        final BitBoard board = BitBoard.fromFen("4k3/8/8/8/8/8/4N3/4R1K1 w - - 0 1");
+
+        assertGivesCheck(board, "e2-c3", true);
+        assertGivesCheck(board, "e2-g3", true);
+        assertGivesCheck(board, "g1-h1", false);
+    }
+
+    @Test
+    public void promotionCheck() {
+        final BitBoard rankBoard = BitBoard.fromFen("4k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+
+        assertGivesCheck(rankBoard, "a7-a8=Q", true);
+        assertGivesCheck(rankBoard, "a7-a8=R", true);
+        assertGivesCheck(rankBoard, "a7-a8=B", false);
+        assertGivesCheck(rankBoard, "a7-a8=N", false);
+
+        // Solamente il cavallo raggiunge il RE in d7
+        final BitBoard knightBoard = BitBoard.fromFen("8/1P1k4/8/8/8/8/8/4K3 w - - 0 1");
+
+        assertGivesCheck(knightBoard, "b7-b8=N", true);
+        assertGivesCheck(knightBoard, "b7-b8=Q", false);
+    }
+
+    @Test
+    public void enPassantCheck() {
+        // Il pedone catturato lascia libera la traversa tra la torre e il RE
+        final BitBoard discoveredBoard = BitBoard.fromFen("8/8/8/k2pP2R/8/8/8/4K3 w - d6 0 2");
+
+        assertGivesCheck(discoveredBoard, "e5-d6", true);
+        assertGivesCheck(discoveredBoard, "e5-e6", false);
+
+        final BitBoard directBoard = BitBoard.fromFen("8/2k5/8/3pP3/8/8/8/4K3 w - d6 0 2");
+
+        assertGivesCheck(directBoard, "e5-d6", true);
+        assertGivesCheck(directBoard, "e5-e6", false);
+    }
+
+    @Test
+    public void castlingCheck() {
+        assertGivesCheck(BitBoard.fromFen("5k2/8/8/8/8/8/8/4K2R w K - 0 1"), "e1-g1", true);
+        assertGivesCheck(BitBoard.fromFen("3k4/8/8/8/8/8/8/R3K3 w Q - 0 1"), "e1-c1", true);
+        assertGivesCheck(BitBoard.fromFen("6k1/8/8/8/8/8/8/4K2R w K - 0 1"), "e1-g1", false);
+    }
+
+    /**
+     * Controlla tutte le mosse fino alla profondità indicata
+     */
+    private static void walk(final String path, final BitBoard board, final int depth) {
+        if(depth == 0)
+            return;
+
+        final int[] moves = new int[BitBoard.MAX_MOVES];
+        final int numMoves = board.generateLegalMoves(moves);
+
+        for(int i = 0; i < numMoves; i++) {
+            assertGivesCheck(path, board, moves[i]);
+            board.makeMove(moves[i]);
+            walk(path + " " + BitMove.toString(moves[i]), board, depth - 1);
+            board.unmakeMove();
+        }
+    }
+
+    private static void assertGivesCheck(final String path, final BitBoard board, final int move) {
+        final boolean givesCheck = board.givesCheck(move);
+
+        board.makeMove(move);
+        final boolean isInCheck = board.isInCheck(board.getMoveMaker());
+        board.unmakeMove();
+
+        assertEquals(path + " " + BitMove.toString(move), isInCheck, givesCheck);
+    }
+
+    /**
+     * Cerca la mossa tra quelle legali e controlla sia il risultato atteso sia l'esecuzione della mossa
+     */
+    private static void assertGivesCheck(final BitBoard board, final String move, final boolean expected) {
+        final int[] moves = new int[BitBoard.MAX_MOVES];
+        final int numMoves = board.generateLegalMoves(moves);
+        int found = BitMove.NULL_MOVE;
+
+        for(int i = 0; i < numMoves; i++) {
+            if(BitMove.toString(moves[i]).equals(move))
+                found = moves[i];
+        }
+
+        assertTrue("Mossa non legale: " + move, found != BitMove.NULL_MOVE);
+        assertEquals(move, expected, board.givesCheck(found));
+        assertGivesCheck(board.toString(), board, found);
+    }
+}
@@ -0,0 +1,133 @@
+package core.board;
+
+import core.move.BitMove;
+import core.move.MoveList;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifica i generatori parziali della {@link BitBoard} e della {@link MoveList} confrontandoli con le mosse legali:
+ * catture e mosse tranquille si dividono le mosse legali, le mosse tattiche sono le catture più le promozioni
+ * e sotto scacco le mosse che parano lo scacco sono esattamente le mosse legali
+ */
+public class MoveGenerationTest {
+
+    private static final int WALK_DEPTH = 3;
+    private static final int RANDOM_WALKS = 200;
+    private static final int RANDOM_WALK_PLIES = 80;
+    private static final long SEED = 20240917L;
+
+    @Test
+    public void partialGeneratorsMatchLegalMoves() {
+        for(final PerftPosition position : PerftPosition.values())
+            walk(position.name(), position.toBitBoard(), WALK_DEPTH);
+    }
+
+    @Test
+    public void partialGeneratorsMatchLegalMovesOnRandomGames() {
+        final Random random = new Random(SEED);
+        final int[] moves = new int[BitBoard.MAX_MOVES];
+
+        for(final PerftPosition position : PerftPosition.values()) {
+            for(int walk = 0; walk < RANDOM_WALKS; walk++) {
+                final BitBoard board = position.toBitBoard();
+                String path = position.name();
+
+                for(int ply = 0; ply < RANDOM_WALK_PLIES; ply++) {
+                    assertGenerators(path, board);
+                    final int numMoves = board.generateLegalMoves(moves);
+
+                    if(numMoves == 0)
+                        break;
+
+                    final int move = moves[random.nextInt(numMoves)];
+                    path += " " + BitMove.toString(move);
+                    board.makeMove(move);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void evasionsOfDoubleCheckAreKingMoves() {
+        // Il cavallo in f6 e l'alfiere in b5 danno scacco insieme al RE in e8
+        final BitBoard board = BitBoard.fromFen("4k3/8/5N2/1B6/8/8/8/4K3 b - - 0 1");
+        final int[] moves = new int[BitBoard.MAX_MOVES];
+        final int numMoves = board.generateEvasions(moves);
+
+        assertTrue(numMoves > 0);
+
+        for(int i = 0; i < numMoves; i++)
+            assertEquals(BitMove.toString(moves[i]), board.getKingSquare(board.getMoveMaker()), BitMove.getFrom(moves[i]));
+
+        assertGenerators("scacco doppio", board);
+    }
+
+    /**
+     * Esegue tutte le mosse fino alla profondità indicata, controllando i generatori in ogni posizione
+     */
+    private static void walk(final String path, final BitBoard board, final int depth) {
+        assertGenerators(path, board);
+
+        if(depth == 0)
+            return;
+
+        final int[] moves = new int[BitBoard.MAX_MOVES];
+        final int numMoves = board.generateLegalMoves(moves);
+
+        for(int i = 0; i < numMoves; i++) {
+            board.makeMove(moves[i]);
+            walk(path + " " + BitMove.toString(moves[i]), board, depth - 1);
+            board.unmakeMove();
+        }
+    }
+
+    private static void assertGenerators(final String path, final BitBoard board) {
+        final int[] buffer = new int[BitBoard.MAX_MOVES];
+        final int[] legal = sorted(buffer, board.generateLegalMoves(buffer));
+        final int[] captures = sorted(buffer, board.generateCaptures(buffer));
+        final int[] quiets = sorted(buffer, board.generateQuiets(buffer));
+        final int[] tactical = sorted(buffer, board.generateTacticalMoves(buffer));
+        final int[] evasions = sorted(buffer, board.generateEvasions(buffer));
+
+        assertArrayEquals(path + " catture", filter(legal, false), captures);
+        assertArrayEquals(path + " mosse tranquille", filter(legal, true), quiets);
+        assertArrayEquals(path + " mosse tattiche",
+                IntStream.of(legal).filter(move -> BitMove.isAttack(move) || BitMove.isPromotion(move)).toArray(), tactical);
+        assertArrayEquals(path + " parate", board.isInCheck(board.getMoveMaker()) ? legal : new int[0], evasions);
+
+        final MoveList moveList = new MoveList();
+        assertArrayEquals(path + " MoveList legali", legal, sorted(moveList, moveList.generateLegalMoves(board)));
+        assertArrayEquals(path + " MoveList catture", captures, sorted(moveList, moveList.generateCaptures(board)));
+        assertArrayEquals(path + " MoveList tranquille", quiets, sorted(moveList, moveList.generateQuiets(board)));
+        assertArrayEquals(path + " MoveList tattiche", tactical, sorted(moveList, moveList.generateTacticalMoves(board)));
+        assertArrayEquals(path + " MoveList parate", evasions, sorted(moveList, moveList.generateEvasions(board)));
+    }
+
+    /**
+     * @return le mosse legali che catturano oppure, con isQuiet, quelle che non catturano
+     */
+    private static int[] filter(final int[] legal, final boolean isQuiet) {
+        return IntStream.of(legal).filter(move -> BitMove.isAttack(move) != isQuiet).toArray();
+    }
+
+    private static int[] sorted(final int[] moves, final int numMoves) {
+        final int[] copy = Arrays.copyOf(moves, numMoves);
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static int[] sorted(final MoveList moveList, final int numMoves) {
+        assertEquals(numMoves, moveList.size());
+        final int[] copy = IntStream.range(0, numMoves).map(moveList::get).toArray();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
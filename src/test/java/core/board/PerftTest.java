@@ -0,0 +1,58 @@
+package core.board;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Confronta il numero di foglie contato dal {@link Perft} con i valori di riferimento di {@link PerftPosition},
+ * sia sulla {@link BitBoard} sia sulla {@link VirtualBoard}
+ */
+public class PerftTest {
+
+    // Limiti sul numero di foglie, cosi i test restano veloci: la VirtualBoard è molto più lenta della BitBoard
+    private static final long MAX_BIT_BOARD_NODES = 5_000_000L;
+    private static final long MAX_VIRTUAL_BOARD_NODES = 100_000L;
+    private static final int HASH_SIZE_MB = 16;
+
+    @Test
+    public void bitBoardNodeCounts() {
+        assertNodeCounts(new Perft(false, 0), MAX_BIT_BOARD_NODES);
+    }
+
+    @Test
+    public void parallelHashedBitBoardNodeCounts() {
+        assertNodeCounts(new Perft(true, HASH_SIZE_MB), MAX_BIT_BOARD_NODES);
+    }
+
+    @Test
+    public void virtualBoardNodeCounts() {
+        for(final PerftPosition position : PerftPosition.values()) {
+            for(int depth = 1; depth <= position.getMaxDepth() && position.getExpectedNodes(depth) <= MAX_VIRTUAL_BOARD_NODES; depth++)
+                assertEquals(position + " depth " + depth, position.getExpectedNodes(depth), Perft.perft(position.toVirtualBoard(), depth));
+        }
+    }
+
+    @Test
+    public void divideMatchesOnBothBoards() {
+        final int depth = 2;
+
+        for(final PerftPosition position : PerftPosition.values()) {
+            final Map<String, Long> bitBoardDivide = new Perft(false, 0).divide(position.toBitBoard(), depth);
+            final Map<String, Long> virtualBoardDivide = Perft.divide(position.toVirtualBoard(), depth);
+
+            assertEquals(position.name(), bitBoardDivide, virtualBoardDivide);
+            assertEquals(position.name(), position.getExpectedNodes(depth),
+                    bitBoardDivide.values().stream().mapToLong(Long::longValue).sum());
+        }
+    }
+
+    private static void assertNodeCounts(final Perft perft, final long maxNodes) {
+        for(final PerftPosition position : PerftPosition.values()) {
+            for(int depth = 1; depth <= position.getMaxDepth() && position.getExpectedNodes(depth) <= maxNodes; depth++)
+                assertEquals(position + " depth " + depth, position.getExpectedNodes(depth), perft.perft(position.toBitBoard(), depth));
+        }
+    }
+}
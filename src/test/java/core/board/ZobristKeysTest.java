@@ -0,0 +1,91 @@
+package core.board;
+
+import core.move.BitMove;
+import core.move.Move;
+import core.move.MoveTransition;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifica che la chiave {@link ZobristKeys} aggiornata a ogni mossa sia uguale a quella calcolata da zero
+ */
+public class ZobristKeysTest {
+
+    private static final int BIT_BOARD_DEPTH = 3;
+    private static final int VIRTUAL_BOARD_DEPTH = 2;
+
+    @Test
+    public void incrementalKeyMatchesRecomputedKey() {
+        for(final PerftPosition position : PerftPosition.values()) {
+            final BitBoard board = position.toBitBoard();
+            assertEquals(position.name(), calculateKey(board), board.getZobristKey());
+            walk(position.name(), board, BIT_BOARD_DEPTH);
+        }
+    }
+
+    @Test
+    public void bitBoardKeyMatchesVirtualBoardKey() {
+        for(final PerftPosition position : PerftPosition.values())
+            walk(position.name(), position.toVirtualBoard(), position.toBitBoard(), VIRTUAL_BOARD_DEPTH);
+    }
+
+    /**
+     * Esegue e annulla tutte le mosse fino alla profondità indicata, controllando la chiave dopo ogni operazione
+     */
+    private static void walk(final String path, final BitBoard board, final int depth) {
+        if(depth == 0)
+            return;
+
+        final int[] moves = new int[BitBoard.MAX_MOVES];
+        final int numMoves = board.generateLegalMoves(moves);
+
+        for(int i = 0; i < numMoves; i++) {
+            final long key = board.getZobristKey();
+            final String movePath = path + " " + BitMove.toString(moves[i]);
+
+            board.makeMove(moves[i]);
+            assertEquals(movePath, calculateKey(board), board.getZobristKey());
+            walk(movePath, board, depth - 1);
+            board.unmakeMove();
+            assertEquals(movePath + " (annullata)", key, board.getZobristKey());
+        }
+    }
+
+    /**
+     * Esegue le mosse della {@link VirtualBoard} e le stesse mosse sulla {@link BitBoard}: le due chiavi devono coincidere
+     */
+    private static void walk(final String path, final VirtualBoard virtualBoard, final BitBoard board, final int depth) {
+        if(depth == 0)
+            return;
+
+        for(final Move move : virtualBoard.getCurrentPlayer().getUsableMoves()) {
+            final MoveTransition transition = virtualBoard.getCurrentPlayer().doMove(move);
+
+            if(!transition.moveStatus().isDone())
+                continue;
+
+            final int bitMove = BitMove.fromMove(move);
+            final String movePath = path + " " + BitMove.toString(bitMove);
+
+            board.makeMove(bitMove);
+            assertEquals(movePath, transition.toBoard().getZobristKey(), board.getZobristKey());
+            walk(movePath, transition.toBoard(), board, depth - 1);
+            board.unmakeMove();
+        }
+    }
+
+    /**
+     * @return la chiave della scacchiera calcolata da zero, senza usare quella aggiornata dalle mosse
+     */
+    private static long calculateKey(final BitBoard board) {
+        long key = ZobristKeys.castling(board.getCastlingRights()) ^ ZobristKeys.enPassant(board.getEnPassantSquare());
+
+        for(int square = 0; square < VirtualBoardUtils.NUM_TILES; square++) {
+            if(board.getPieceIndex(square) >= 0)
+                key ^= ZobristKeys.piece(board.getPieceIndex(square), square);
+        }
+
+        return board.getMoveMaker().isBlack() ? key ^ ZobristKeys.side() : key;
+    }
+}
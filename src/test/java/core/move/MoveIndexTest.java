@@ -0,0 +1,193 @@
+package core.move;
+
+import core.board.BitBoard;
+import core.board.PerftPosition;
+import core.board.VirtualBoard;
+import core.board.VirtualBoardUtils;
+import core.pieces.piece.PieceType;
+import core.player.Player;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static core.board.BitBoardUtils.squareMask;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifica la {@link MoveIndex} confrontandola con la ricerca lineare nelle mosse praticabili del giocatore,
+ * insieme a {@link MoveFactory#createMove} e a {@link Move#disambiguationFile()} che la usano
+ */
+public class MoveIndexTest {
+
+    private static final int WALK_DEPTH = 2;
+    private static final PieceType[] PROMOTION_ORDER = { null, PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT };
+
+    @Test
+    public void indexMatchesLinearScan() {
+        for(final PerftPosition position : PerftPosition.values())
+            walk(position.name(), position.toVirtualBoard(), WALK_DEPTH);
+    }
+
+    @Test
+    public void clickPrefersQueenPromotion() {
+        final VirtualBoard board = BitBoard.fromFen("4k3/P7/8/8/8/8/8/4K3 w - - 0 1").toVirtualBoard();
+        final int from = VirtualBoardUtils.INSTANCE.getCoordinateAtPosition("a7");
+        final int to = VirtualBoardUtils.INSTANCE.getCoordinateAtPosition("a8");
+        final Move move = board.getCurrentPlayer().getMoveIndex().get(from, to);
+
+        assertTrue(move instanceof PawnPromotion);
+        assertEquals(PieceType.QUEEN, ((PawnPromotion) move).getPromotionPiece().getPieceType());
+        assertSame(move, MoveFactory.createMove(board, from, to));
+    }
+
+    @Test
+    public void disambiguationUsesOriginFile() {
+        // Entrambi i cavalli raggiungono d2, solamente quello in f1 raggiunge e3
+        final VirtualBoard board = BitBoard.fromFen("4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1").toVirtualBoard();
+
+        assertEquals("b", findMove(board, "b1", "d2").disambiguationFile());
+        assertEquals("f", findMove(board, "f1", "d2").disambiguationFile());
+        assertEquals("", findMove(board, "f1", "e3").disambiguationFile());
+    }
+
+    /**
+     * Esegue le mosse della scacchiera virtuale fino alla profondità indicata, controllando l'indice in ogni posizione
+     */
+    private static void walk(final String path, final VirtualBoard board, final int depth) {
+        assertIndex(path, board, board.getCurrentPlayer());
+        assertIndex(path, board, board.getCurrentPlayer().getOpponent());
+        assertContains(path, board.getCurrentPlayer());
+
+        if(depth == 0)
+            return;
+
+        for(final Move move : board.getCurrentPlayer().getUsableMoves()) {
+            final MoveTransition transition = board.getCurrentPlayer().doMove(move);
+
+            if(transition.moveStatus().isDone())
+                walk(path + " " + BitMove.toString(BitMove.fromMove(move)), transition.toBoard(), depth - 1);
+        }
+    }
+
+    /**
+     * Confronta ogni coppia di celle e ogni cella di destinazione con il risultato della ricerca lineare
+     */
+    private static void assertIndex(final String path, final VirtualBoard board, final Player player) {
+        final Map<Integer, Move> exactMoves = new HashMap<>();
+        final Map<Integer, Move> clickMoves = new HashMap<>();
+        final long[] origins = new long[VirtualBoardUtils.NUM_TILES];
+
+        // Nella lista vince la prima mossa; per il click prima la mossa senza promozione, poi regina, torre, alfiere e cavallo
+        for(final Move move : player.getUsableMoves()) {
+            final int from = move.getCurrentCoordinate();
+            final int to = move.getDestinationCoordinate();
+            final PieceType promotionType = promotionOf(move);
+            final int squares = from * VirtualBoardUtils.NUM_TILES + to;
+            final Move clickMove = clickMoves.get(squares);
+
+            exactMoves.putIfAbsent(squares * PROMOTION_ORDER.length + promotionRank(promotionType), move);
+
+            if(clickMove == null || promotionRank(promotionType) < promotionRank(promotionOf(clickMove)))
+                clickMoves.put(squares, move);
+
+            origins[to] |= squareMask(from);
+        }
+
+        final MoveIndex index = player.getMoveIndex();
+
+        // Le mosse che partono dalle altre celle sono escluse dal controllo sulle celle di partenza più sotto
+        for(int from = 0; from < VirtualBoardUtils.NUM_TILES; from++) {
+            if(board.getPiece(from) == null || board.getPiece(from).getPieceUtils() != player.getUtils())
+                continue;
+
+            for(int to = 0; to < VirtualBoardUtils.NUM_TILES; to++) {
+                final int squares = from * VirtualBoardUtils.NUM_TILES + to;
+
+                assertSameMove(path, player, from, to, "", clickMoves.getOrDefault(squares, MoveFactory.getNullMove()), index.get(from, to));
+
+                for(final PieceType promotionType : PROMOTION_ORDER)
+                    assertSameMove(path, player, from, to, "=" + promotionType,
+                            exactMoves.getOrDefault(squares * PROMOTION_ORDER.length + promotionRank(promotionType), MoveFactory.getNullMove()),
+                            index.get(from, to, promotionType));
+
+                // Le pedine del giocatore vengono cercate nel suo indice anche quando non tocca a lui
+                assertSameMove(path, player, from, to, " (createMove)", index.get(from, to), MoveFactory.createMove(board, from, to));
+            }
+        }
+
+        for(int to = 0; to < VirtualBoardUtils.NUM_TILES; to++)
+            assertEquals(path + " " + player.getUtils() + " " + to, origins[to], index.getOrigins(to));
+    }
+
+    /**
+     * Il messaggio viene costruito solamente se le mosse sono diverse: il confronto viene ripetuto per ogni coppia di celle
+     */
+    private static void assertSameMove(final String path, final Player player, final int from, final int to, final String suffix,
+                                       final Move expected, final Move actual) {
+        if(expected != actual)
+            assertSame(path + " " + player.getUtils() + " " + from + "-" + to + suffix, expected, actual);
+    }
+
+    /**
+     * Controlla {@link MoveIndex#contains}, la conversione da {@link BitMove} e la lettera per la notazione
+     */
+    private static void assertContains(final String path, final Player player) {
+        final MoveIndex index = player.getMoveIndex();
+
+        for(final Move move : player.getUsableMoves()) {
+            final String message = path + " " + move;
+
+            assertTrue(message, index.contains(move));
+            assertSame(message, index.get(move.getCurrentCoordinate(), move.getDestinationCoordinate(), promotionOf(move)),
+                    MoveFactory.createMove(move.getBoard(), BitMove.fromMove(move)));
+            assertEquals(message, disambiguationFile(player, move), move.disambiguationFile());
+        }
+
+        for(final Move move : player.getOpponent().getUsableMoves())
+            assertFalse(path + " " + move, index.contains(move));
+
+        assertFalse(path, index.contains(MoveFactory.getNullMove()));
+    }
+
+    /**
+     * @return la lettera della colonna di partenza se un'altra pedina dello stesso tipo raggiunge la stessa cella
+     */
+    private static String disambiguationFile(final Player player, final Move move) {
+        for(final Move other : player.getUsableMoves()) {
+            if(other.getDestinationCoordinate() == move.getDestinationCoordinate() &&
+                    other.getCurrentCoordinate() != move.getCurrentCoordinate() &&
+                    other.getPieceToMove().getPieceType() == move.getPieceToMove().getPieceType())
+                return VirtualBoardUtils.INSTANCE.getPositionAtCoordinate(move.getCurrentCoordinate()).substring(0, 1);
+        }
+
+        return "";
+    }
+
+    private static Move findMove(final VirtualBoard board, final String from, final String to) {
+        final Move move = board.getCurrentPlayer().getMoveIndex().get(VirtualBoardUtils.INSTANCE.getCoordinateAtPosition(from),
+                VirtualBoardUtils.INSTANCE.getCoordinateAtPosition(to));
+
+        assertTrue("Mossa non praticabile: " + from + "-" + to, move != MoveFactory.getNullMove());
+        return move;
+    }
+
+    private static PieceType promotionOf(final Move move) {
+        return move instanceof final PawnPromotion promotion ? promotion.getPromotionPiece().getPieceType() : null;
+    }
+
+    /**
+     * @return posizione della promozione nell'ordine di preferenza, 0 se la mossa non è una promozione
+     */
+    private static int promotionRank(final PieceType promotionType) {
+        for(int rank = 0; rank < PROMOTION_ORDER.length; rank++) {
+            if(PROMOTION_ORDER[rank] == promotionType)
+                return rank;
+        }
+
+        throw new IllegalArgumentException("Promozione non valida: " + promotionType);
+    }
+}
@@ -0,0 +1,70 @@
+package core.player.ai;
+
+import core.move.BitMove;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifica il ciclo di vita della {@link OffHeapTranspositionTable}: creazione in un thread separato, rilascio e azzeramento
+ */
+public class OffHeapTranspositionTableTest {
+
+    private static final long KEY = 0xABCDEF01L;
+    private static final int MOVE = BitMove.create(12, 28, BitMove.PAWN_JUMP);
+
+    @Test
+    public void storeAndProbe() {
+        final OffHeapTranspositionTable table = new OffHeapTranspositionTable(1);
+
+        table.store(KEY, 5, -42, TranspositionEntry.LOWER_BOUND, MOVE);
+
+        final long entry = table.probe(KEY);
+        assertEquals(5, TranspositionEntry.getDepth(entry));
+        assertEquals(-42, TranspositionEntry.getScore(entry));
+        assertEquals(MOVE, TranspositionEntry.getMove(entry));
+        assertEquals(TranspositionEntry.NO_ENTRY, table.probe(KEY + 1));
+    }
+
+    @Test
+    public void backgroundResize() {
+        final OffHeapTranspositionTable table = new OffHeapTranspositionTable(1, true);
+
+        table.awaitReady();
+        assertTrue(table.isReady());
+
+        table.store(KEY, 3, 7, TranspositionEntry.EXACT, MOVE);
+        table.resize(2, true);
+        table.awaitReady();
+
+        assertEquals(2, table.getSizeMb());
+        assertEquals(TranspositionEntry.NO_ENTRY, table.probe(KEY));
+    }
+
+    @Test
+    public void releaseLeavesTableEmpty() {
+        final OffHeapTranspositionTable table = new OffHeapTranspositionTable(1);
+
+        table.store(KEY, 3, 7, TranspositionEntry.EXACT, MOVE);
+        table.release();
+
+        assertFalse(table.isReady());
+        assertEquals(TranspositionEntry.NO_ENTRY, table.probe(KEY));
+
+        // Senza buffer le scritture vengono ignorate
+        table.store(KEY, 3, 7, TranspositionEntry.EXACT, MOVE);
+        assertEquals(TranspositionEntry.NO_ENTRY, table.probe(KEY));
+    }
+
+    @Test
+    public void clearEmptiesTable() {
+        final OffHeapTranspositionTable table = new OffHeapTranspositionTable(1);
+
+        table.store(KEY, 3, 7, TranspositionEntry.EXACT, MOVE);
+        table.clear();
+
+        assertEquals(TranspositionEntry.NO_ENTRY, table.probe(KEY));
+    }
+}
@@ -0,0 +1,155 @@
+package core.player.ai;
+
+import core.move.BitMove;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifica la {@link SharedTranspositionTable}: la sostituzione nei gruppi, le statistiche e soprattutto che,
+ * con molti thread che scrivono e leggono le stesse celle, una lettura non restituisca mai l'elemento di un'altra posizione
+ */
+public class SharedTranspositionTableTest {
+
+    private static final int NUM_THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 500_000;
+    // Poche celle usate e molte più posizioni: ogni gruppo viene scritto di continuo da più thread
+    private static final long BUCKET_BITS = 0x3F;
+    private static final int NUM_KEYS = 1024;
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void concurrentStoresNeverReturnAnotherPosition() throws Exception {
+        final SharedTranspositionTable table = new SharedTranspositionTable(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        final List<Callable<Long>> workers = new ArrayList<>();
+
+        for(int t = 0; t < NUM_THREADS; t++) {
+            final long seed = t;
+            workers.add(() -> {
+                final SplittableRandom random = new SplittableRandom(seed);
+                long hits = 0;
+
+                for(int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    final long key = keyOf(random.nextInt(NUM_KEYS));
+
+                    if(random.nextBoolean()) {
+                        table.store(key, depthOf(key), scoreOf(key), TranspositionEntry.EXACT, moveOf(key));
+                        continue;
+                    }
+
+                    final long entry = table.probe(key);
+
+                    if(entry != TranspositionEntry.NO_ENTRY) {
+                        hits++;
+                        assertEquals(depthOf(key), TranspositionEntry.getDepth(entry));
+                        assertEquals(scoreOf(key), TranspositionEntry.getScore(entry));
+                        assertEquals(moveOf(key), TranspositionEntry.getMove(entry));
+                    }
+                }
+
+                return hits;
+            });
+        }
+
+        long hits = 0;
+
+        try {
+            for(final Future<Long> future : executor.invokeAll(workers))
+                hits += future.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        // Le letture riuscite sono poche ma ci sono, altrimenti il test non controllerebbe nulla
+        assertTrue(hits > 0);
+        assertTrue(table.getHitRate() > 0.0);
+        assertTrue(table.getCollisionRate() > 0.0);
+    }
+
+    @Test
+    public void hitRateCountsSuccessfulProbes() {
+        final SharedTranspositionTable table = new SharedTranspositionTable(1);
+
+        table.store(1L, 4, 10, TranspositionEntry.EXACT, moveOf(1L));
+        table.probe(1L);
+        table.probe(1L);
+        table.probe(1L);
+        table.probe(2L);
+
+        assertEquals(0.75, table.getHitRate(), DELTA);
+
+        table.clear();
+        assertEquals(0.0, table.getHitRate(), DELTA);
+        assertEquals(TranspositionEntry.NO_ENTRY, table.probe(1L));
+    }
+
+    @Test
+    public void bucketReplacesShallowestEntry() {
+        final SharedTranspositionTable table = new SharedTranspositionTable(1);
+        final long key = 5L;
+        final long secondKey = key | (1L << 40);
+        final long thirdKey = key | (2L << 40);
+
+        table.store(key, 6, 10, TranspositionEntry.EXACT, moveOf(key));
+        table.store(secondKey, 3, 20, TranspositionEntry.EXACT, moveOf(secondKey));
+        assertEquals(0.0, table.getCollisionRate(), DELTA);
+
+        // Il gruppo è pieno: la terza posizione prende il posto della meno profonda
+        table.store(thirdKey, 4, 30, TranspositionEntry.EXACT, moveOf(thirdKey));
+
+        assertEquals(10, TranspositionEntry.getScore(table.probe(key)));
+        assertEquals(TranspositionEntry.NO_ENTRY, table.probe(secondKey));
+        assertEquals(30, TranspositionEntry.getScore(table.probe(thirdKey)));
+        assertEquals(1.0 / 3.0, table.getCollisionRate(), DELTA);
+
+        // Troppo poco profonda per entrambi gli elementi della stessa ricerca
+        table.store(secondKey, 2, 20, TranspositionEntry.EXACT, moveOf(secondKey));
+        assertEquals(TranspositionEntry.NO_ENTRY, table.probe(secondKey));
+
+        // Dopo una nuova ricerca gli elementi vecchi vengono sostituiti anche da una ricerca meno profonda
+        table.newSearch();
+        table.store(secondKey, 1, 20, TranspositionEntry.EXACT, BitMove.NULL_MOVE);
+        assertEquals(20, TranspositionEntry.getScore(table.probe(secondKey)));
+    }
+
+    @Test
+    public void permilleFullCountsCurrentSearchOnly() {
+        final SharedTranspositionTable table = new SharedTranspositionTable(1);
+        assertEquals(0, table.getPermilleFull());
+
+        // Un elemento nel primo posto di ognuno dei primi 250 gruppi: 250 dei primi 1000 elementi
+        for(long key = 0; key < 250; key++)
+            table.store(key, 1, 0, TranspositionEntry.EXACT, moveOf(key));
+
+        assertEquals(250, table.getPermilleFull());
+
+        table.newSearch();
+        assertEquals(0, table.getPermilleFull());
+    }
+
+    private static long keyOf(final int position) {
+        return ((position * 0x9E3779B97F4A7C15L) & ~0xFFFFFFFFL) | (position & BUCKET_BITS);
+    }
+
+    private static int depthOf(final long key) {
+        return (int) (key >>> 32) & TranspositionEntry.MAX_DEPTH;
+    }
+
+    private static int scoreOf(final long key) {
+        return (int) (key >>> 40);
+    }
+
+    private static int moveOf(final long key) {
+        return BitMove.create((int) (key >>> 48) & 0x3F, (int) (key >>> 54) & 0x3F, 0);
+    }
+}
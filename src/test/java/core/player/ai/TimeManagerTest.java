@@ -0,0 +1,117 @@
+package core.player.ai;
+
+import core.move.BitMove;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifica i limiti di tempo calcolati da {@link TimeManager} e come il limite morbido si adatta
+ * alla stabilità della mossa migliore e al calo del punteggio
+ */
+public class TimeManagerTest {
+
+    private static final int MOVE = BitMove.create(12, 28, BitMove.PAWN_JUMP);
+    private static final int OTHER_MOVE = BitMove.create(6, 21, 0);
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void limitsWithoutIncrement() {
+        final TimeManager timeManager = new TimeManager(60_000, 0, 0);
+
+        // (60000 - 50) / 30 mosse, e il limite rigido è quattro volte tanto
+        assertEquals(1998, timeManager.getSoftLimitMs());
+        assertEquals(7992, timeManager.getHardLimitMs());
+    }
+
+    @Test
+    public void limitsWithIncrement() {
+        final TimeManager timeManager = new TimeManager(60_000, 2000, 0);
+
+        assertEquals(3498, timeManager.getSoftLimitMs());
+        assertEquals(13992, timeManager.getHardLimitMs());
+    }
+
+    @Test
+    public void lastMoveBeforeTimeControlUsesAllTime() {
+        final TimeManager timeManager = new TimeManager(10_000, 0, 1);
+
+        assertEquals(9950, timeManager.getSoftLimitMs());
+        assertEquals(9950, timeManager.getHardLimitMs());
+    }
+
+    @Test
+    public void movesToGoSplitsRemainingTime() {
+        final TimeManager timeManager = new TimeManager(10_000, 0, 10);
+
+        assertEquals(995, timeManager.getSoftLimitMs());
+        // Il limite rigido non supera l'80% del tempo disponibile
+        assertEquals(3980, timeManager.getHardLimitMs());
+    }
+
+    @Test
+    public void noTimeLeftStopsImmediately() {
+        final TimeManager timeManager = new TimeManager(40, 0, 0);
+
+        assertEquals(0, timeManager.getSoftLimitMs());
+        assertEquals(0, timeManager.getHardLimitMs());
+        assertTrue(timeManager.isHardLimitReached());
+        assertFalse(timeManager.canStartIteration());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeTimeIsRejected() {
+        new TimeManager(-1, 0, 0);
+    }
+
+    @Test
+    public void unlimitedNeverStops() {
+        final TimeManager timeManager = TimeManager.unlimited();
+
+        assertEquals(TimeManager.NO_LIMIT, timeManager.getSoftLimitMs());
+        assertEquals(TimeManager.NO_LIMIT, timeManager.getHardLimitMs());
+        assertFalse(timeManager.isHardLimitReached());
+        assertTrue(timeManager.canStartIteration());
+    }
+
+    @Test
+    public void stableMoveShortensSoftLimit() {
+        final TimeManager timeManager = new TimeManager(60_000, 0, 0);
+
+        timeManager.iterationCompleted(MOVE, 10);
+        assertEquals(1.0, timeManager.getScale(), DELTA);
+        timeManager.iterationCompleted(MOVE, 10);
+        assertEquals(1.0, timeManager.getScale(), DELTA);
+        timeManager.iterationCompleted(MOVE, 10);
+        assertEquals(1.0, timeManager.getScale(), DELTA);
+        timeManager.iterationCompleted(MOVE, 10);
+        assertEquals(0.6, timeManager.getScale(), DELTA);
+    }
+
+    @Test
+    public void changedMoveExtendsSoftLimit() {
+        final TimeManager timeManager = new TimeManager(60_000, 0, 0);
+
+        timeManager.iterationCompleted(MOVE, 10);
+        timeManager.iterationCompleted(OTHER_MOVE, 10);
+        assertEquals(1.4, timeManager.getScale(), DELTA);
+    }
+
+    @Test
+    public void scoreDropExtendsSoftLimit() {
+        final TimeManager timeManager = new TimeManager(60_000, 0, 0);
+
+        timeManager.iterationCompleted(MOVE, 10);
+        timeManager.iterationCompleted(MOVE, -20);
+        assertEquals(1.3, timeManager.getScale(), DELTA);
+
+        // Mossa cambiata e punteggio crollato: i due fattori si moltiplicano
+        timeManager.iterationCompleted(OTHER_MOVE, -80);
+        assertEquals(1.4 * 1.6, timeManager.getScale(), DELTA);
+
+        timeManager.start();
+        assertEquals(1.0, timeManager.getScale(), DELTA);
+    }
+}
@@ -0,0 +1,109 @@
+package core.player.ai;
+
+import core.move.BitMove;
+import core.pieces.piece.PieceType;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifica la codifica di {@link TranspositionEntry} e la politica di sostituzione della {@link TranspositionTable}:
+ * profondità ed età decidono chi resta, e un limite senza mossa non cancella la mossa migliore già salvata
+ */
+public class TranspositionTableTest {
+
+    // Le due chiavi finiscono nella stessa cella: l'indice usa solamente i 32 bit bassi
+    private static final long KEY = 0x1234L;
+    private static final long COLLIDING_KEY = KEY | (1L << 40);
+    private static final int MOVE = BitMove.create(52, 36, BitMove.PAWN_JUMP);
+    private static final int OTHER_MOVE = BitMove.create(8, 0, BitMove.PROMOTION | BitMove.CAPTURE, PieceType.QUEEN);
+
+    @Test
+    public void entryRoundTrip() {
+        final long entry = TranspositionEntry.create(12, -345, TranspositionEntry.LOWER_BOUND, OTHER_MOVE, 7);
+
+        assertEquals(12, TranspositionEntry.getDepth(entry));
+        assertEquals(-345, TranspositionEntry.getScore(entry));
+        assertEquals(TranspositionEntry.LOWER_BOUND, TranspositionEntry.getBound(entry));
+        assertEquals(OTHER_MOVE, TranspositionEntry.getMove(entry));
+        assertEquals(7, TranspositionEntry.getAge(entry));
+
+        final long clamped = TranspositionEntry.create(100, Integer.MIN_VALUE, TranspositionEntry.EXACT, BitMove.NULL_MOVE, 0);
+        assertEquals(TranspositionEntry.MAX_DEPTH, TranspositionEntry.getDepth(clamped));
+        assertEquals(Integer.MIN_VALUE, TranspositionEntry.getScore(clamped));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void entryRejectsInvalidBound() {
+        TranspositionEntry.create(1, 0, 0, MOVE, 0);
+    }
+
+    @Test
+    public void deeperEntryIsKeptInTheSameSearch() {
+        final ITranspositionTable table = new TranspositionTable(1);
+
+        table.store(KEY, 6, 10, TranspositionEntry.EXACT, MOVE);
+        table.store(COLLIDING_KEY, 3, 20, TranspositionEntry.EXACT, OTHER_MOVE);
+
+        assertEquals(TranspositionEntry.NO_ENTRY, table.probe(COLLIDING_KEY));
+        assertEquals(6, TranspositionEntry.getDepth(table.probe(KEY)));
+
+        table.store(COLLIDING_KEY, 6, 20, TranspositionEntry.EXACT, OTHER_MOVE);
+
+        assertEquals(TranspositionEntry.NO_ENTRY, table.probe(KEY));
+        assertEquals(20, TranspositionEntry.getScore(table.probe(COLLIDING_KEY)));
+    }
+
+    @Test
+    public void olderEntryIsAlwaysReplaced() {
+        final ITranspositionTable table = new TranspositionTable(1);
+
+        table.store(KEY, 10, 10, TranspositionEntry.EXACT, MOVE);
+        table.newSearch();
+        table.store(COLLIDING_KEY, 1, 20, TranspositionEntry.UPPER_BOUND, OTHER_MOVE);
+
+        assertEquals(TranspositionEntry.NO_ENTRY, table.probe(KEY));
+        assertEquals(1, TranspositionEntry.getDepth(table.probe(COLLIDING_KEY)));
+    }
+
+    @Test
+    public void samePositionIsAlwaysUpdated() {
+        final ITranspositionTable table = new TranspositionTable(1);
+
+        table.store(KEY, 8, 10, TranspositionEntry.EXACT, MOVE);
+        table.store(KEY, 2, 30, TranspositionEntry.LOWER_BOUND, OTHER_MOVE);
+
+        final long entry = table.probe(KEY);
+        assertEquals(2, TranspositionEntry.getDepth(entry));
+        assertEquals(30, TranspositionEntry.getScore(entry));
+        assertEquals(OTHER_MOVE, TranspositionEntry.getMove(entry));
+    }
+
+    @Test
+    public void boundWithoutMoveKeepsBestMove() {
+        final ITranspositionTable table = new TranspositionTable(1);
+
+        table.store(KEY, 4, 10, TranspositionEntry.EXACT, MOVE);
+        table.store(KEY, 5, -10, TranspositionEntry.UPPER_BOUND, BitMove.NULL_MOVE);
+
+        final long entry = table.probe(KEY);
+        assertEquals(MOVE, TranspositionEntry.getMove(entry));
+        assertEquals(TranspositionEntry.UPPER_BOUND, TranspositionEntry.getBound(entry));
+        assertEquals(-10, TranspositionEntry.getScore(entry));
+
+        // La mossa appartiene alla posizione: un'altra posizione nella stessa cella non la eredita
+        table.newSearch();
+        table.store(COLLIDING_KEY, 5, 0, TranspositionEntry.UPPER_BOUND, BitMove.NULL_MOVE);
+        assertEquals(BitMove.NULL_MOVE, TranspositionEntry.getMove(table.probe(COLLIDING_KEY)));
+    }
+
+    @Test
+    public void clearEmptiesTable() {
+        final ITranspositionTable table = new TranspositionTable(1);
+
+        table.store(KEY, 4, 10, TranspositionEntry.EXACT, MOVE);
+        table.clear();
+
+        assertEquals(TranspositionEntry.NO_ENTRY, table.probe(KEY));
+    }
+}